@@ -0,0 +1,223 @@
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * @author YFCodeDream
+ * @version 1.0.0
+ * @date 2026/10/19
+ * @description 基于可增长数组的列表
+ * 按下标访问是O(1)，尾部追加均摊O(1)；中间的插入删除和批量操作都用System.arraycopy整段移动
+ */
+@SuppressWarnings("unchecked")
+public class ArraySimpleList<T> implements SimpleList<T>, Iterable<T> {
+    public static final int DEFAULT_CAPACITY = 10;
+
+    private static final Object[] EMPTY = new Object[0];
+
+    private Object[] elements;
+
+    private int size;
+
+    public ArraySimpleList() {
+        this(0);
+    }
+
+    /**
+     * @param initialCapacity 初始容量，预先知道元素个数时可以避免扩容
+     */
+    public ArraySimpleList(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("initialCapacity must be non-negative");
+        }
+        elements = initialCapacity == 0 ? EMPTY : new Object[initialCapacity];
+        size = 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public T get(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException();
+        }
+        return (T) elements[i];
+    }
+
+    @Override
+    public void set(int i, T x) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException();
+        }
+        elements[i] = x;
+    }
+
+    /**
+     * 在尾部追加元素
+     * @param x 元素
+     */
+    public void add(T x) {
+        if (size == elements.length) {
+            grow(size + 1);
+        }
+        elements[size] = x;
+        size += 1;
+    }
+
+    @Override
+    public void add(int i, T x) {
+        if (i < 0 || i > size) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (size == elements.length) {
+            grow(size + 1);
+        }
+        System.arraycopy(elements, i, elements, i + 1, size - i);
+        elements[i] = x;
+        size += 1;
+    }
+
+    /**
+     * 在尾部追加另一个列表的所有元素
+     * @param other 另一个列表
+     */
+    public void addAll(ArraySimpleList<? extends T> other) {
+        addAll(size, other);
+    }
+
+    /**
+     * 在下标i处插入另一个列表的所有元素，只移动一次原有元素
+     * @param i 插入位置
+     * @param other 另一个列表
+     */
+    public void addAll(int i, ArraySimpleList<? extends T> other) {
+        if (i < 0 || i > size) {
+            throw new IndexOutOfBoundsException();
+        }
+        int count = other.size;
+        ensureCapacity(size + count);
+        System.arraycopy(elements, i, elements, i + count, size - i);
+        // other可能就是当前列表，此时它的元素已经被移动过
+        if (other == this) {
+            System.arraycopy(elements, 0, elements, i, i);
+            System.arraycopy(elements, i + count, elements, i + i, count - i);
+        } else {
+            System.arraycopy(other.elements, 0, elements, i, count);
+        }
+        size += count;
+    }
+
+    @Override
+    public T remove(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException();
+        }
+        T removedValue = (T) elements[i];
+        System.arraycopy(elements, i + 1, elements, i, size - i - 1);
+        size -= 1;
+        elements[size] = null;
+        return removedValue;
+    }
+
+    /**
+     * 删除下标在[from, to)内的所有元素
+     * @param from 起始下标（包含）
+     * @param to 结束下标（不包含）
+     */
+    public void removeRange(int from, int to) {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException();
+        }
+        System.arraycopy(elements, to, elements, from, size - to);
+        int newSize = size - (to - from);
+        Arrays.fill(elements, newSize, size, null);
+        size = newSize;
+    }
+
+    public void clear() {
+        Arrays.fill(elements, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * 保证容量不小于minCapacity
+     * @param minCapacity 最小容量
+     */
+    public void ensureCapacity(int minCapacity) {
+        if (minCapacity > elements.length) {
+            grow(minCapacity);
+        }
+    }
+
+    /**
+     * 将容量缩小到当前元素个数
+     */
+    public void trimToSize() {
+        if (size < elements.length) {
+            elements = size == 0 ? EMPTY : Arrays.copyOf(elements, size);
+        }
+    }
+
+    public Object[] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new ArraySimpleListItr();
+    }
+
+    /**
+     * 容量按1.5倍增长，保证均摊O(1)的追加
+     */
+    private void grow(int minCapacity) {
+        if (minCapacity < 0) {
+            throw new OutOfMemoryError("list too large");
+        }
+        int newCapacity = Math.max(DEFAULT_CAPACITY, elements.length + (elements.length >> 1));
+        if (newCapacity < minCapacity || newCapacity < 0) {
+            newCapacity = minCapacity;
+        }
+        elements = Arrays.copyOf(elements, newCapacity);
+    }
+
+    private class ArraySimpleListItr implements Iterator<T> {
+        private int index = 0;
+
+        @Override
+        public boolean hasNext() {
+            return index < size;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            T currentValue = (T) elements[index];
+            index += 1;
+            return currentValue;
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder resStr = new StringBuilder("ArraySimpleList[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                resStr.append(", ");
+            }
+            resStr.append(elements[i]);
+        }
+        resStr.append("]");
+        return resStr.toString();
+    }
+}
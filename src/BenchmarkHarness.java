@@ -0,0 +1,186 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * @author YFCodeDream
+ * @version 1.0.0
+ * @date 2026/10/19
+ * @description 简单的微基准测试框架
+ * 每个基准先预热若干轮，再测量若干轮；每轮在固定的时间内反复调用被测代码，
+ * 以RunTimer计时得到吞吐量，以当前线程的已分配字节数（com.sun.management.ThreadMXBean）得到每次操作的分配量。
+ * 被测代码的返回值累加到一个volatile字段中，防止被JIT当作死代码消除。
+ * 只测量调用线程，被测代码不应启动其他线程
+ */
+public class BenchmarkHarness {
+    public static final int DEFAULT_WARMUP_ITERATIONS = 3;
+
+    public static final int DEFAULT_MEASUREMENT_ITERATIONS = 5;
+
+    public static final int DEFAULT_ITERATION_MILLIS = 500;
+
+    private final int warmupIterations;
+
+    private final int measurementIterations;
+
+    private final long iterationNanos;
+
+    private final com.sun.management.ThreadMXBean allocationBean;
+
+    private static volatile long sink;
+
+    public BenchmarkHarness() {
+        this(DEFAULT_WARMUP_ITERATIONS, DEFAULT_MEASUREMENT_ITERATIONS, DEFAULT_ITERATION_MILLIS);
+    }
+
+    /**
+     * @param warmupIterations 预热轮数
+     * @param measurementIterations 测量轮数，至少为1
+     * @param iterationMillis 每轮的时长
+     */
+    public BenchmarkHarness(int warmupIterations, int measurementIterations, int iterationMillis) {
+        if (warmupIterations < 0 || measurementIterations < 1 || iterationMillis < 1) {
+            throw new IllegalArgumentException("invalid iteration settings");
+        }
+        this.warmupIterations = warmupIterations;
+        this.measurementIterations = measurementIterations;
+        this.iterationNanos = iterationMillis * 1_000_000L;
+
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        if (threadBean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) threadBean).isThreadAllocatedMemorySupported()) {
+            allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+            allocationBean.setThreadAllocatedMemoryEnabled(true);
+        } else {
+            allocationBean = null;
+        }
+    }
+
+    /**
+     * 测量一个基准
+     * @param name 基准名
+     * @param params 参数描述，如 "n=1024 dist=ZIPF"
+     * @param operationsPerCall 每次调用workload包含的操作数，吞吐量和分配量都按操作计
+     * @param workload 被测代码
+     * @return 测量结果
+     */
+    public Result measure(String name, String params, int operationsPerCall, Workload workload) {
+        for (int i = 0; i < warmupIterations; i++) {
+            runIteration(workload);
+        }
+
+        double[] throughputs = new double[measurementIterations];
+        long totalCalls = 0;
+        long totalAllocated = 0;
+        for (int i = 0; i < measurementIterations; i++) {
+            long allocatedBefore = allocatedBytes();
+            RunTimer timer = new RunTimer();
+            timer.start();
+            long calls = runIteration(workload);
+            timer.stop();
+            totalAllocated += allocatedBytes() - allocatedBefore;
+            totalCalls += calls;
+            throughputs[i] = calls * (double) operationsPerCall / timer.getElapsedSecs();
+        }
+
+        double mean = 0;
+        for (double throughput : throughputs) {
+            mean += throughput;
+        }
+        mean /= throughputs.length;
+        double variance = 0;
+        for (double throughput : throughputs) {
+            variance += (throughput - mean) * (throughput - mean);
+        }
+        double stdDev = throughputs.length > 1 ? Math.sqrt(variance / (throughputs.length - 1)) : 0;
+
+        double bytesPerOperation = allocationBean == null
+                ? Double.NaN : (double) totalAllocated / ((double) totalCalls * operationsPerCall);
+        return new Result(name, params, mean, stdDev, bytesPerOperation);
+    }
+
+    /**
+     * 在一轮的时长内反复调用workload
+     * @return 调用次数
+     */
+    private long runIteration(Workload workload) {
+        long calls = 0;
+        long accumulated = 0;
+        long deadline = System.nanoTime() + iterationNanos;
+        do {
+            accumulated += workload.run();
+            calls += 1;
+        } while (System.nanoTime() < deadline);
+        sink += accumulated;
+        return calls;
+    }
+
+    private long allocatedBytes() {
+        return allocationBean == null ? 0 : allocationBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    public static void printHeader() {
+        System.out.printf("%-28s %-24s %16s %12s %12s%n", "benchmark", "params", "ops/s", "+/- stddev", "B/op");
+    }
+
+    /**
+     * 被测代码，返回值会被消费掉
+     */
+    public interface Workload {
+        long run();
+    }
+
+    /**
+     * 一个基准的测量结果
+     */
+    public static class Result {
+        private final String name;
+
+        private final String params;
+
+        private final double throughput;
+
+        private final double throughputStdDev;
+
+        private final double bytesPerOperation;
+
+        Result(String name, String params, double throughput, double throughputStdDev, double bytesPerOperation) {
+            this.name = name;
+            this.params = params;
+            this.throughput = throughput;
+            this.throughputStdDev = throughputStdDev;
+            this.bytesPerOperation = bytesPerOperation;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public String params() {
+            return params;
+        }
+
+        /**
+         * @return 每秒操作数
+         */
+        public double throughput() {
+            return throughput;
+        }
+
+        public double throughputStdDev() {
+            return throughputStdDev;
+        }
+
+        /**
+         * @return 每次操作分配的字节数，JVM不支持统计时为NaN
+         */
+        public double bytesPerOperation() {
+            return bytesPerOperation;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-28s %-24s %16.1f %12.1f %12.2f",
+                    name, params, throughput, throughputStdDev, bytesPerOperation);
+        }
+    }
+}
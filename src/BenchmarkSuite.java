@@ -0,0 +1,321 @@
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+/**
+ * @author YFCodeDream
+ * @version 1.0.0
+ * @date 2026/10/19
+ * @description Huffman、哈希容器、链表和堆的微基准测试集合，基于BenchmarkHarness
+ * 每个基准按输入规模n和符号分布（均匀、Zipf、metamorphoses.txt的英文文本）参数化，
+ * 输出吞吐量（ops/s）和每次操作的分配字节数
+ * 用法：java BenchmarkSuite [基准名的正则] [每轮毫秒数]
+ */
+public class BenchmarkSuite {
+    public static final int[] SIZES = {1 << 10, 1 << 14, 1 << 18};
+
+    public static final String TEXT_PATH = "src/metamorphoses.txt";
+
+    private static final long SEED = 42;
+
+    public static void main(String[] args) {
+        Pattern filter = Pattern.compile(args.length > 0 ? args[0] : ".*");
+        int iterationMillis = args.length > 1 ? Integer.parseInt(args[1]) : BenchmarkHarness.DEFAULT_ITERATION_MILLIS;
+        BenchmarkHarness harness = new BenchmarkHarness(
+                BenchmarkHarness.DEFAULT_WARMUP_ITERATIONS, BenchmarkHarness.DEFAULT_MEASUREMENT_ITERATIONS, iterationMillis);
+
+        BenchmarkHarness.printHeader();
+        for (Benchmark benchmark : Benchmark.values()) {
+            if (!filter.matcher(benchmark.label).find()) {
+                continue;
+            }
+            for (Distribution distribution : Distribution.values()) {
+                for (int n : SIZES) {
+                    BenchmarkHarness.Workload workload = benchmark.prepare(n, distribution);
+                    String params = "n=" + n + " dist=" + distribution;
+                    System.out.println(harness.measure(benchmark.label, params, benchmark.operations(n), workload));
+                }
+            }
+        }
+    }
+
+    /**
+     * 各个基准：prepare在计时之外准备好输入，返回的workload每次调用执行operations(n)次操作
+     */
+    enum Benchmark {
+        HISTOGRAM("huffman.histogram") {
+            @Override
+            BenchmarkHarness.Workload prepare(int n, Distribution distribution) {
+                byte[] data = distribution.bytes(n, SEED);
+                return () -> {
+                    long[] frequencies = new long[Codebook.ALPHABET_SIZE];
+                    try {
+                        return Huffman.countFrequencies(new ByteArrayInputStream(data), frequencies);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                };
+            }
+        },
+        GENERATE_CODE("huffman.generateCode") {
+            @Override
+            BenchmarkHarness.Workload prepare(int n, Distribution distribution) {
+                byte[] data = distribution.bytes(n, SEED);
+                return () -> {
+                    Huffman huffman = new Huffman();
+                    huffman.generateCode(new ByteArrayInputStream(data));
+                    return huffman.originalSize();
+                };
+            }
+        },
+        TREE_BUILD("codebook.fromFrequencies") {
+            @Override
+            BenchmarkHarness.Workload prepare(int n, Distribution distribution) {
+                long[] frequencies = frequencies(distribution.bytes(n, SEED));
+                return () -> Codebook.fromFrequencies(frequencies).getLengths()[0];
+            }
+
+            /**
+             * 建树的代价只与符号种类数有关，每次调用记为一次操作
+             */
+            @Override
+            int operations(int n) {
+                return 1;
+            }
+        },
+        ENCODE("codebook.encode") {
+            @Override
+            BenchmarkHarness.Workload prepare(int n, Distribution distribution) {
+                byte[] data = distribution.bytes(n, SEED);
+                Codebook codebook = Codebook.fromFrequencies(frequencies(data));
+                return () -> codebook.encode(data).length;
+            }
+        },
+        DECODE("staticCodebook.decode") {
+            @Override
+            BenchmarkHarness.Workload prepare(int n, Distribution distribution) {
+                byte[] data = distribution.bytes(n, SEED);
+                StaticCodebook staticCodebook;
+                try {
+                    staticCodebook = StaticCodebook.train(new ByteArrayInputStream(data));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                byte[] encoded = staticCodebook.encode(data);
+                return () -> staticCodebook.decode(encoded, data.length)[0];
+            }
+        },
+        MAP_PUT("hashSimpleMap.put") {
+            @Override
+            BenchmarkHarness.Workload prepare(int n, Distribution distribution) {
+                Integer[] keys = boxed(distribution.keys(n, SEED));
+                return () -> {
+                    HashSimpleMap<Integer, Integer> map = new HashSimpleMap<>();
+                    for (Integer key : keys) {
+                        map.put(key, key);
+                    }
+                    return map.size();
+                };
+            }
+        },
+        MAP_GET("hashSimpleMap.get") {
+            @Override
+            BenchmarkHarness.Workload prepare(int n, Distribution distribution) {
+                Integer[] keys = boxed(distribution.keys(n, SEED));
+                // 查询的键与插入的键同分布，但顺序不同
+                Integer[] queries = boxed(distribution.keys(n, SEED + 1));
+                HashSimpleMap<Integer, Integer> map = new HashSimpleMap<>();
+                for (Integer key : keys) {
+                    map.put(key, key);
+                }
+                return () -> {
+                    long hits = 0;
+                    for (Integer query : queries) {
+                        if (map.get(query) != null) {
+                            hits += 1;
+                        }
+                    }
+                    return hits;
+                };
+            }
+        },
+        SET_RESIZE("hashUSet.resize") {
+            @Override
+            BenchmarkHarness.Workload prepare(int n, Distribution distribution) {
+                Integer[] keys = boxed(distribution.keys(n, SEED));
+                return () -> {
+                    // 从默认容量开始逐个插入，包含全部的扩容
+                    HashUSet<Integer> set = new HashUSet<>();
+                    for (Integer key : keys) {
+                        set.add(key);
+                    }
+                    return set.capacity();
+                };
+            }
+        },
+        SET_INCREMENTAL_RESIZE("hashUSet.incrementalResize") {
+            @Override
+            BenchmarkHarness.Workload prepare(int n, Distribution distribution) {
+                Integer[] keys = boxed(distribution.keys(n, SEED));
+                return () -> {
+                    HashUSet<Integer> set = new HashUSet<>(true);
+                    for (Integer key : keys) {
+                        set.add(key);
+                    }
+                    return set.capacity();
+                };
+            }
+        },
+        LIST_APPEND_SCAN("linkedSimpleList.appendScan") {
+            @Override
+            BenchmarkHarness.Workload prepare(int n, Distribution distribution) {
+                Integer[] keys = boxed(distribution.keys(n, SEED));
+                return () -> {
+                    // 尾部追加，再按下标顺序读取一遍（依赖缓存的游标节点）
+                    LinkedSimpleList<Integer> list = new LinkedSimpleList<>();
+                    for (Integer key : keys) {
+                        list.add(list.size(), key);
+                    }
+                    long sum = 0;
+                    for (int i = 0; i < list.size(); i++) {
+                        sum += list.get(i);
+                    }
+                    return sum;
+                };
+            }
+        },
+        LIST_REMOVE_FRONT("linkedSimpleList.removeFront") {
+            @Override
+            BenchmarkHarness.Workload prepare(int n, Distribution distribution) {
+                Integer[] keys = boxed(distribution.keys(n, SEED));
+                return () -> {
+                    LinkedSimpleList<Integer> list = new LinkedSimpleList<>();
+                    for (Integer key : keys) {
+                        list.add(0, key);
+                    }
+                    long sum = 0;
+                    while (!list.isEmpty()) {
+                        sum += list.remove(0);
+                    }
+                    return sum;
+                };
+            }
+        },
+        HEAP_INSERT_REMOVE("heap.insertRemoveMin") {
+            @Override
+            BenchmarkHarness.Workload prepare(int n, Distribution distribution) {
+                int[] keys = distribution.keys(n, SEED);
+                Integer value = 0;
+                return () -> {
+                    CompleteBinaryHeapPriorityDeque<Integer> deque = new CompleteBinaryHeapPriorityDeque<>();
+                    for (int key : keys) {
+                        deque.insert(key, value);
+                    }
+                    long checksum = 0;
+                    while (!deque.isEmpty()) {
+                        checksum += deque.minPriority();
+                        deque.removeMin();
+                    }
+                    return checksum;
+                };
+            }
+        };
+
+        final String label;
+
+        Benchmark(String label) {
+            this.label = label;
+        }
+
+        abstract BenchmarkHarness.Workload prepare(int n, Distribution distribution);
+
+        int operations(int n) {
+            return n;
+        }
+    }
+
+    /**
+     * 输入的符号分布，UNIFORM和ZIPF由CorpusGenerator生成，与ScalingBenchmark使用同一套语料定义
+     */
+    enum Distribution {
+        UNIFORM,
+        ZIPF,
+        TEXT;
+
+        private static byte[] text;
+
+        /**
+         * @param n 字节数
+         * @param seed 随机种子
+         * @return 服从该分布的n个字节，字母表为全部256个字节值
+         */
+        byte[] bytes(int n, long seed) {
+            if (this != TEXT) {
+                return generator(Codebook.ALPHABET_SIZE, seed).bytes(n);
+            }
+            byte[] data = new byte[n];
+            byte[] source = text();
+            for (int i = 0; i < n; i++) {
+                data[i] = source[i % source.length];
+            }
+            return data;
+        }
+
+        /**
+         * @param n 键的个数
+         * @param seed 随机种子
+         * @return 服从该分布的n个键：UNIFORM在[0, n)中均匀选取，ZIPF为n个秩上的Zipf分布，
+         * TEXT为文本中连续三个字节组成的三元组，从随机位置开始截取
+         */
+        int[] keys(int n, long seed) {
+            if (this != TEXT) {
+                return generator(n, seed).symbols(n);
+            }
+            int[] keys = new int[n];
+            byte[] source = text();
+            int offset = new Random(seed).nextInt(source.length);
+            for (int i = 0; i < n; i++) {
+                int p = (offset + i) % (source.length - 2);
+                keys[i] = (source[p] & 0xFF) << 16 | (source[p + 1] & 0xFF) << 8 | (source[p + 2] & 0xFF);
+            }
+            return keys;
+        }
+
+        private CorpusGenerator generator(int alphabetSize, long seed) {
+            CorpusGenerator.Distribution distribution = this == UNIFORM
+                    ? CorpusGenerator.Distribution.UNIFORM : CorpusGenerator.Distribution.ZIPF;
+            return new CorpusGenerator(distribution, alphabetSize, CorpusGenerator.DEFAULT_ZIPF_EXPONENT, seed);
+        }
+
+        private static synchronized byte[] text() {
+            if (text == null) {
+                try {
+                    text = Files.readAllBytes(Paths.get(TEXT_PATH));
+                } catch (IOException e) {
+                    throw new UncheckedIOException("cannot read " + TEXT_PATH, e);
+                }
+            }
+            return text;
+        }
+    }
+
+    private static long[] frequencies(byte[] data) {
+        long[] frequencies = new long[Codebook.ALPHABET_SIZE];
+        for (byte b : data) {
+            frequencies[b & 0xFF] += 1;
+        }
+        return frequencies;
+    }
+
+    private static Integer[] boxed(int[] keys) {
+        Integer[] boxed = new Integer[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            boxed[i] = keys[i];
+        }
+        return boxed;
+    }
+}
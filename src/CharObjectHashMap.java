@@ -0,0 +1,274 @@
+import java.util.Random;
+import java.util.function.BiFunction;
+
+/**
+ * @author YFCodeDream
+ * @version 1.0.0
+ * @date 2026/10/19
+ * @description char到对象的HashMap
+ * 键存放在char[]中，值存放在Object[]中，开放寻址（线性探测），
+ * 查找时不需要装箱，也不为每个键值对分配对象；值为null的位置即为空位，因此不允许存放null值
+ */
+@SuppressWarnings("unchecked")
+public class CharObjectHashMap<V> {
+    public static final int DEFAULT_LOG_CAPACITY = 4;
+
+    private int logCapacity = DEFAULT_LOG_CAPACITY;
+    private int capacity = 1 << logCapacity;
+    private int size = 0;
+
+    private char[] keys;
+    private Object[] values;
+
+    private final int z;
+
+    private final double loadFactor = 0.5;
+
+    public CharObjectHashMap() {
+        keys = new char[capacity];
+        values = new Object[capacity];
+
+        // fix a random odd integer
+        Random r = new Random();
+        z = (r.nextInt() << 1) + 1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(char key) {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * 获取键对应的值
+     * @param key 键
+     * @return 键对应的值，不存在时返回null
+     */
+    public V get(char key) {
+        int slot = indexOf(key);
+        return slot >= 0 ? (V) values[slot] : null;
+    }
+
+    /**
+     * 获取键对应的值
+     * @param key 键
+     * @param defaultValue 键不存在时返回的值
+     * @return 键对应的值，不存在时返回defaultValue
+     */
+    public V getOrDefault(char key, V defaultValue) {
+        int slot = indexOf(key);
+        return slot >= 0 ? (V) values[slot] : defaultValue;
+    }
+
+    /**
+     * 设置键对应的值
+     * @param key 键
+     * @param value 非null的值
+     * @return 原先的值，键不存在时返回null
+     */
+    public V put(char key, V value) {
+        if (value == null) {
+            throw new NullPointerException("CharObjectHashMap does not support null values");
+        }
+
+        int slot = indexOf(key);
+        if (slot >= 0) {
+            V previous = (V) values[slot];
+            values[slot] = value;
+            return previous;
+        }
+
+        if (size + 1 > loadFactor * capacity) {
+            increaseCapacity();
+            slot = indexOf(key);
+        }
+        keys[~slot] = key;
+        values[~slot] = value;
+        size += 1;
+        return null;
+    }
+
+    /**
+     * 将给定的值合并到键对应的值中，只需一次探测（需要扩容时除外）
+     * 键不存在时直接设为value；合并结果为null时删除该键；
+     * remappingFunction中不能修改当前map
+     * @param key 键
+     * @param value 非null的值
+     * @param remappingFunction 参数为原先的值和value，返回合并后的值
+     * @return 合并后的值
+     */
+    public V merge(char key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        if (value == null) {
+            throw new NullPointerException("CharObjectHashMap does not support null values");
+        }
+
+        int slot = indexOf(key);
+        if (slot >= 0) {
+            V newValue = remappingFunction.apply((V) values[slot], value);
+            if (newValue == null) {
+                deleteSlot(slot);
+                size -= 1;
+            } else {
+                values[slot] = newValue;
+            }
+            return newValue;
+        }
+
+        if (size + 1 > loadFactor * capacity) {
+            increaseCapacity();
+            slot = indexOf(key);
+        }
+        keys[~slot] = key;
+        values[~slot] = value;
+        size += 1;
+        return value;
+    }
+
+    /**
+     * 删除键
+     * @param key 键
+     * @return 键对应的值，不存在时返回null
+     */
+    public V remove(char key) {
+        int slot = indexOf(key);
+        if (slot < 0) {
+            return null;
+        }
+        V removedValue = (V) values[slot];
+        deleteSlot(slot);
+        size -= 1;
+        return removedValue;
+    }
+
+    public void clear() {
+        for (int i = 0; i < capacity; i++) {
+            keys[i] = 0;
+            values[i] = null;
+        }
+        size = 0;
+    }
+
+    /**
+     * 返回一个游标，用于不分配对象地遍历所有键值对
+     * 遍历期间不能修改map
+     * @return 游标
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    private int hash(char key) {
+        return (z * key) >>> (32 - logCapacity);
+    }
+
+    /**
+     * 线性探测
+     * @param key 键
+     * @return 找到时返回其下标；否则返回 ~(探测到的第一个空位)
+     */
+    private int indexOf(char key) {
+        int mask = capacity - 1;
+        int i = hash(key);
+        while (values[i] != null) {
+            if (keys[i] == key) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return ~i;
+    }
+
+    /**
+     * 删除指定位置的键值对，并把探测序列中后续的键值对回移
+     * @param i 待删除的位置
+     */
+    private void deleteSlot(int i) {
+        int mask = capacity - 1;
+        values[i] = null;
+
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            if (values[j] == null) {
+                return;
+            }
+
+            int home = hash(keys[j]);
+            // home不在(i, j]的循环区间内时，j处的键值对可以回移到i
+            boolean stays = i <= j ? (home > i && home <= j) : (home > i || home <= j);
+            if (!stays) {
+                keys[i] = keys[j];
+                values[i] = values[j];
+                values[j] = null;
+                i = j;
+            }
+        }
+    }
+
+    private void increaseCapacity() {
+        char[] oldKeys = keys;
+        Object[] oldValues = values;
+
+        logCapacity += 1;
+        capacity = capacity << 1;
+        keys = new char[capacity];
+        values = new Object[capacity];
+
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != null) {
+                int j = hash(oldKeys[i]);
+                while (values[j] != null) {
+                    j = (j + 1) & mask;
+                }
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder resStr = new StringBuilder("CharObjectHashMap{");
+        Cursor cursor = cursor();
+        boolean first = true;
+        while (cursor.advance()) {
+            if (!first) {
+                resStr.append(", ");
+            }
+            resStr.append(cursor.key()).append("=").append(cursor.value());
+            first = false;
+        }
+        resStr.append("}");
+        return resStr.toString();
+    }
+
+    /**
+     * 游标：先调用advance()移动到下一个键值对，再用key()/value()读取
+     */
+    public class Cursor {
+        private int index = -1;
+
+        public boolean advance() {
+            index += 1;
+            while (index < capacity && values[index] == null) {
+                index += 1;
+            }
+            return index < capacity;
+        }
+
+        public char key() {
+            return keys[index];
+        }
+
+        public V value() {
+            return (V) values[index];
+        }
+    }
+}
@@ -0,0 +1,263 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * @author YFCodeDream
+ * @version 1.0.0
+ * @date 2026/10/19
+ * @description 以原生数组存储的码表，按符号（字节值）直接索引
+ */
+public class Codebook {
+    /**
+     * 字节符号表的大小
+     */
+    public static final int ALPHABET_SIZE = 256;
+
+    /**
+     * 编码以long存储，码长至多64位
+     */
+    public static final int MAX_CODE_LENGTH = 64;
+
+    /**
+     * 单次可以直接拼接进位缓冲区的最大码长
+     * 缓冲区在每次拼接前都会被冲刷到不足8位，所以至多还能放下56位
+     */
+    private static final int MAX_DIRECT_LENGTH = 56;
+
+    private static final int STREAM_BUFFER_SIZE = 8192;
+
+    /**
+     * codes[s]的低lengths[s]位即为符号s的编码，高位全为0
+     * 码长可能超过32位（Fibonacci型的频率分布），所以用long存储
+     */
+    private final long[] codes;
+
+    /**
+     * lengths[s]为符号s的码长，0表示该符号没有编码
+     */
+    private final byte[] lengths;
+
+    public Codebook(long[] codes, byte[] lengths) {
+        if (codes.length != lengths.length) {
+            throw new IllegalArgumentException("codes and lengths must have the same length");
+        }
+        this.codes = codes;
+        this.lengths = lengths;
+    }
+
+    /**
+     * 依据符号频率生成范式Huffman码表
+     * 只有一个符号出现时，仍为其分配1位的编码，保证编码结果可以被解码
+     * @param frequencies 以符号为下标的出现频率
+     * @return 范式码表
+     */
+    public static Codebook fromFrequencies(long[] frequencies) {
+        // 只有一个符号时码长为1的规则在buildCodeLengths中，与Huffman.generateCode共用
+        return canonical(Huffman.buildCodeLengths(frequencies));
+    }
+
+    /**
+     * 依据码长生成范式Huffman编码：码长相同的符号按符号值升序分配连续的编码
+     * 因此只需保存码长即可完整还原码表
+     * @param lengths 以符号为下标的码长
+     * @return 范式码表
+     * @throws IllegalArgumentException 码长超出0..MAX_CODE_LENGTH，或者码长不满足Kraft不等式（不是前缀码）
+     */
+    public static Codebook canonical(byte[] lengths) {
+        long[] codes = new long[lengths.length];
+        int maxLength = 0;
+        for (byte length : lengths) {
+            if (length < 0 || length > MAX_CODE_LENGTH) {
+                throw new IllegalArgumentException("code length " + length + " outside 0.." + MAX_CODE_LENGTH);
+            }
+            maxLength = Math.max(maxLength, length);
+        }
+        checkKraft(lengths, maxLength);
+
+        long code = 0;
+        for (int len = 1; len <= maxLength; len++) {
+            for (int symbol = 0; symbol < lengths.length; symbol++) {
+                if (lengths[symbol] == len) {
+                    codes[symbol] = code;
+                    code += 1;
+                }
+            }
+            code <<= 1;
+        }
+
+        return new Codebook(codes, lengths);
+    }
+
+    /**
+     * 检查Kraft不等式 sum(2^-len) <= 1：逐层统计还没有被占用的编码个数，某一层不够分配时说明码长不可能构成前缀码
+     * 剩余个数不少于符号总数后不可能再不够分配，封顶在符号总数，避免64层时溢出
+     */
+    private static void checkKraft(byte[] lengths, int maxLength) {
+        int[] countPerLength = new int[maxLength + 1];
+        for (byte length : lengths) {
+            countPerLength[length] += 1;
+        }
+        long available = 1;
+        for (int len = 1; len <= maxLength; len++) {
+            available = (available << 1) - countPerLength[len];
+            if (available < 0) {
+                throw new IllegalArgumentException("code lengths violate the Kraft inequality at length " + len);
+            }
+            available = Math.min(available, lengths.length);
+        }
+    }
+
+    /**
+     * 返回内部的编码数组，不做拷贝，供外部热循环直接使用，调用方不应修改
+     * @return 以符号为下标的编码数组
+     */
+    public long[] getCodes() {
+        return codes;
+    }
+
+    /**
+     * 返回内部的码长数组，不做拷贝，供外部热循环直接使用，调用方不应修改
+     * @return 以符号为下标的码长数组
+     */
+    public byte[] getLengths() {
+        return lengths;
+    }
+
+    public int alphabetSize() {
+        return lengths.length;
+    }
+
+    /**
+     * 以二进制字符串的形式返回某个符号的编码，便于调试和兼容PrefixCode接口
+     * @param symbol 符号
+     * @return 编码字符串，符号没有编码时返回""
+     */
+    public String getCodeword(int symbol) {
+        if (symbol < 0 || symbol >= lengths.length || lengths[symbol] == 0) {
+            return "";
+        }
+        StringBuilder codeBuilder = new StringBuilder(lengths[symbol]);
+        for (int bit = lengths[symbol] - 1; bit >= 0; bit--) {
+            codeBuilder.append((codes[symbol] >>> bit) & 1L);
+        }
+        return codeBuilder.toString();
+    }
+
+    /**
+     * 计算编码后的总位数
+     * @param data 待编码的字节
+     * @return 编码后的位数
+     */
+    public long encodedBitLength(byte[] data) {
+        long bits = 0;
+        for (byte b : data) {
+            bits += lengths[b & 0xFF];
+        }
+        return bits;
+    }
+
+    /**
+     * 将字节编码为紧凑的位流，高位在前，最后一个字节不足8位的部分补0
+     * @param data 待编码的字节
+     * @return 编码后的位流
+     */
+    public byte[] encode(byte[] data) {
+        long totalBits = encodedBitLength(data);
+        BitWriter writer = new BitWriter(new byte[(int) ((totalBits + 7) >>> 3)]);
+
+        for (byte b : data) {
+            int symbol = b & 0xFF;
+            writer.write(codes[symbol], lengths[symbol]);
+        }
+        writer.finish();
+
+        return writer.out;
+    }
+
+    /**
+     * 流式编码，边读边写，不需要把输入全部读入内存
+     * @param in 待编码的输入流
+     * @param out 编码后位流的输出流
+     * @return 编码后的位数
+     * @throws IOException 读写失败
+     */
+    public long encode(InputStream in, OutputStream out) throws IOException {
+        byte[] inBuffer = new byte[STREAM_BUFFER_SIZE];
+        // 每个符号的编码至多8个字节
+        BitWriter writer = new BitWriter(new byte[STREAM_BUFFER_SIZE * 8 + 8]);
+        long totalBits = 0;
+
+        int len;
+        while ((len = in.read(inBuffer)) != -1) {
+            for (int i = 0; i < len; i++) {
+                int symbol = inBuffer[i] & 0xFF;
+                writer.write(codes[symbol], lengths[symbol]);
+                totalBits += lengths[symbol];
+            }
+            out.write(writer.out, 0, writer.pos);
+            writer.pos = 0;
+        }
+        writer.finish();
+        out.write(writer.out, 0, writer.pos);
+
+        return totalBits;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder resStr = new StringBuilder("Codebook{\n");
+        for (int s = 0; s < lengths.length; s++) {
+            if (lengths[s] != 0) {
+                resStr.append("\t").append(s).append(": ").append(getCodeword(s)).append("\n");
+            }
+        }
+        resStr.append("}");
+        return resStr.toString();
+    }
+
+    /**
+     * 位流写入器，高位在前
+     * 缓冲区在每次拼接后都会被冲刷到不足8位
+     */
+    private static final class BitWriter {
+        final byte[] out;
+
+        int pos;
+
+        long bitBuffer;
+
+        int bitCount;
+
+        BitWriter(byte[] out) {
+            this.out = out;
+        }
+
+        void write(long code, int len) {
+            if (len > MAX_DIRECT_LENGTH) {
+                // 极少出现的超长编码，先拼接高32位之外的部分并冲刷
+                write(code >>> 32, len - 32);
+                len = 32;
+                code &= 0xFFFFFFFFL;
+            }
+
+            // 拼接编码，再把完整的字节冲刷出去
+            bitBuffer = (bitBuffer << len) | code;
+            bitCount += len;
+            while (bitCount >= 8) {
+                bitCount -= 8;
+                out[pos++] = (byte) (bitBuffer >>> bitCount);
+            }
+        }
+
+        /**
+         * 写出最后剩余不足8位的部分，低位补0
+         */
+        void finish() {
+            if (bitCount > 0) {
+                out[pos++] = (byte) (bitBuffer << (8 - bitCount));
+                bitCount = 0;
+            }
+        }
+    }
+}
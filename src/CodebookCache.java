@@ -0,0 +1,276 @@
+import java.util.Arrays;
+
+/**
+ * @author YFCodeDream
+ * @version 1.0.0
+ * @date 2026/10/19
+ * @description 以量化后的频率直方图指纹为键的码表LRU缓存
+ * 分布相近的输入直接复用已经构建好的码表，跳过建堆和建树
+ */
+public class CodebookCache {
+    public static final int DEFAULT_CAPACITY = 64;
+
+    /**
+     * 默认允许的压缩率损失，1%
+     */
+    public static final double DEFAULT_TOLERANCE = 0.01;
+
+    /**
+     * 指纹的量化精度：理想码长 -log2(p) 以 1/QUANTIZATION_STEPS 位为单位取整
+     */
+    private static final int QUANTIZATION_STEPS = 2;
+
+    private final int capacity;
+
+    private final double tolerance;
+
+    private final HashSimpleMap<Fingerprint, CacheEntry> entries;
+
+    // LRU双向链表，head为最近使用，tail为最久未使用
+    private CacheEntry head;
+    private CacheEntry tail;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public CodebookCache() {
+        this(DEFAULT_CAPACITY, DEFAULT_TOLERANCE);
+    }
+
+    /**
+     * @param capacity 最多缓存的码表数量
+     * @param tolerance 允许的压缩率损失：缓存码表在新直方图上的平均码长与熵之比，
+     *                  相对于该码表在其原始直方图上的这一比值，最多高出的比例
+     */
+    public CodebookCache(int capacity, double tolerance) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        if (tolerance < 0) {
+            throw new IllegalArgumentException("tolerance must be non-negative");
+        }
+        this.capacity = capacity;
+        this.tolerance = tolerance;
+        this.entries = new HashSimpleMap<>();
+    }
+
+    /**
+     * 返回适用于该频率直方图的码表，命中缓存时不构建Huffman树
+     * @param frequencies 以符号为下标的出现频率
+     * @return 范式码表，所有出现过的符号都有编码
+     */
+    public Codebook get(long[] frequencies) {
+        Fingerprint fingerprint = new Fingerprint(frequencies);
+        CacheEntry entry = entries.get(fingerprint);
+
+        if (entry != null) {
+            if (withinTolerance(entry, frequencies)) {
+                hits += 1;
+                moveToHead(entry);
+                return entry.codebook;
+            }
+            // 指纹相同但损失超出容忍度，重新构建并替换
+            misses += 1;
+            entry.codebook = Codebook.fromFrequencies(frequencies);
+            entry.baseRatio = costToEntropyRatio(entry.codebook, frequencies);
+            moveToHead(entry);
+            return entry.codebook;
+        }
+
+        misses += 1;
+        entry = new CacheEntry(fingerprint, Codebook.fromFrequencies(frequencies));
+        entry.baseRatio = costToEntropyRatio(entry.codebook, frequencies);
+        entries.put(fingerprint, entry);
+        linkAtHead(entry);
+
+        if (entries.size() > capacity) {
+            CacheEntry eldest = tail;
+            unlink(eldest);
+            entries.remove(eldest.fingerprint);
+            evictions += 1;
+        }
+
+        return entry.codebook;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public long hits() {
+        return hits;
+    }
+
+    public long misses() {
+        return misses;
+    }
+
+    public long evictions() {
+        return evictions;
+    }
+
+    public void clear() {
+        entries.clear();
+        head = null;
+        tail = null;
+    }
+
+    /**
+     * 判断缓存的码表用于新直方图时，压缩率损失是否在容忍范围内
+     */
+    private boolean withinTolerance(CacheEntry entry, long[] frequencies) {
+        byte[] lengths = entry.codebook.getLengths();
+        for (int symbol = 0; symbol < frequencies.length; symbol++) {
+            if (frequencies[symbol] > 0 && lengths[symbol] == 0) {
+                return false;
+            }
+        }
+        double ratio = costToEntropyRatio(entry.codebook, frequencies);
+        return ratio <= entry.baseRatio * (1 + tolerance);
+    }
+
+    /**
+     * 码表在直方图上的编码总位数与熵下界之比，只有一个符号时熵为0，记为1
+     */
+    private static double costToEntropyRatio(Codebook codebook, long[] frequencies) {
+        byte[] lengths = codebook.getLengths();
+        long total = 0;
+        for (long frequency : frequencies) {
+            total += frequency;
+        }
+
+        double cost = 0;
+        double entropy = 0;
+        for (int symbol = 0; symbol < frequencies.length; symbol++) {
+            if (frequencies[symbol] > 0) {
+                cost += (double) frequencies[symbol] * lengths[symbol];
+                entropy -= frequencies[symbol] * (Math.log((double) frequencies[symbol] / total) / Math.log(2));
+            }
+        }
+
+        return entropy > 0 ? cost / entropy : 1;
+    }
+
+    private void moveToHead(CacheEntry entry) {
+        if (entry == head) {
+            return;
+        }
+        unlink(entry);
+        linkAtHead(entry);
+    }
+
+    private void linkAtHead(CacheEntry entry) {
+        entry.prev = null;
+        entry.next = head;
+        if (head != null) {
+            head.prev = entry;
+        }
+        head = entry;
+        if (tail == null) {
+            tail = entry;
+        }
+    }
+
+    private void unlink(CacheEntry entry) {
+        if (entry.prev != null) {
+            entry.prev.next = entry.next;
+        } else {
+            head = entry.next;
+        }
+        if (entry.next != null) {
+            entry.next.prev = entry.prev;
+        } else {
+            tail = entry.prev;
+        }
+        entry.prev = null;
+        entry.next = null;
+    }
+
+    @Override
+    public String toString() {
+        return "CodebookCache{" +
+                "size=" + size() +
+                ", capacity=" + capacity +
+                ", hits=" + hits +
+                ", misses=" + misses +
+                ", evictions=" + evictions +
+                '}';
+    }
+
+    /**
+     * 缓存项，同时是LRU双向链表的节点
+     */
+    private static class CacheEntry {
+        final Fingerprint fingerprint;
+
+        Codebook codebook;
+
+        /**
+         * 码表在构建时所用直方图上的 编码位数/熵
+         */
+        double baseRatio;
+
+        CacheEntry prev;
+
+        CacheEntry next;
+
+        CacheEntry(Fingerprint fingerprint, Codebook codebook) {
+            this.fingerprint = fingerprint;
+            this.codebook = codebook;
+        }
+    }
+
+    /**
+     * 量化后的直方图指纹：每个符号记录其理想码长的量化等级，0表示未出现
+     */
+    static class Fingerprint implements Comparable<Fingerprint> {
+        private final byte[] levels;
+
+        private final int hash;
+
+        Fingerprint(long[] frequencies) {
+            long total = 0;
+            for (long frequency : frequencies) {
+                total += frequency;
+            }
+
+            levels = new byte[frequencies.length];
+            for (int symbol = 0; symbol < frequencies.length; symbol++) {
+                if (frequencies[symbol] > 0) {
+                    double idealLength = Math.log((double) total / frequencies[symbol]) / Math.log(2);
+                    levels[symbol] = (byte) Math.min(127, 1 + (int) Math.round(idealLength * QUANTIZATION_STEPS));
+                }
+            }
+            hash = Arrays.hashCode(levels);
+        }
+
+        @Override
+        public int compareTo(Fingerprint o) {
+            int len = Math.min(levels.length, o.levels.length);
+            for (int i = 0; i < len; i++) {
+                if (levels[i] != o.levels[i]) {
+                    return Byte.compare(levels[i], o.levels[i]);
+                }
+            }
+            return Integer.compare(levels.length, o.levels.length);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Fingerprint that = (Fingerprint) o;
+            return hash == that.hash && Arrays.equals(levels, that.levels);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -1,6 +1,23 @@
+import java.util.Arrays;
+
+/**
+ * 完全d叉树（默认d = 2）上的最小-最大堆（min-max heap）实现的双端优先队列，
+ * min/removeMin取优先级最小的元素，max/removeMax取优先级最大的元素，都是O(log n)
+ * 偶数层（根为第0层）为最小层：节点的优先级不大于其所有后代；
+ * 奇数层为最大层：节点的优先级不小于其所有后代。
+ * 因此最小值在根上，最大值在根的孩子中。
+ * 优先级和值分别存放在两个平行数组中，上滤和下滤只比较long[]中连续存放的原生优先级，
+ * 插入时也不需要为每个元素分配包装对象。
+ * 优先级为long，Huffman树的权重之和超过int范围（输入超过约21亿字节）时也不会溢出。
+ * 大堆可以选用4叉或8叉：树高更低，一个节点的孩子和孙子在数组中连续存放，下滤时访问的缓存行更少。
+ * 可寻址模式下insert返回一个句柄，之后可以用句柄修改优先级或删除元素，都是O(log n)，
+ * 不需要插入重复元素再跳过过期的元素；被删除元素的句柄会被之后的insert复用
+ */
 @SuppressWarnings({"unchecked", "SameParameterValue"})
 public class CompleteBinaryHeapPriorityDeque<T extends Comparable<T>> {
-    private Object[] elements;
+    private long[] priorities;
+
+    private Object[] values;
 
     private int size;
 
@@ -8,168 +25,504 @@ public class CompleteBinaryHeapPriorityDeque<T extends Comparable<T>> {
 
     private static final int EXPAND_MULTIPLIER = 2;
 
+    public static final int DEFAULT_ARITY = 2;
+
+    /**
+     * 非可寻址模式下insert返回的句柄
+     */
+    public static final int NO_HANDLE = -1;
+
+    private final int arity;
+
+    private final boolean addressable;
+
+    // 可寻址模式：heapHandles[i]为下标i处元素的句柄，positions[h]为句柄h所在的下标，-1表示已删除
+    private int[] heapHandles;
+
+    private int[] positions;
+
+    // 已删除元素的句柄，insert时优先复用
+    private int[] freeHandles;
+
+    private int freeCount;
+
+    private int nextHandle;
+
     public CompleteBinaryHeapPriorityDeque() {
-        elements = new Object[DEFAULT_CAPACITY];
+        this(DEFAULT_ARITY, false);
+    }
+
+    /**
+     * @param arity 每个节点的孩子数，至少为2
+     */
+    public CompleteBinaryHeapPriorityDeque(int arity) {
+        this(arity, false);
+    }
+
+    /**
+     * @param arity 每个节点的孩子数，至少为2
+     * @param addressable 是否为可寻址模式
+     */
+    public CompleteBinaryHeapPriorityDeque(int arity, boolean addressable) {
+        checkArity(arity);
+        this.arity = arity;
+        this.addressable = addressable;
+        priorities = new long[DEFAULT_CAPACITY];
+        values = new Object[DEFAULT_CAPACITY];
         size = 0;
+        if (addressable) {
+            initHandles(DEFAULT_CAPACITY, 0);
+        }
+    }
+
+    /**
+     * 批量建堆：复制给定的优先级和值，自底向上逐个下滤（Floyd建堆），总共O(n)，
+     * 比逐个insert的O(n log n)更快
+     * @param priorities 优先级
+     * @param values 值，与priorities一一对应
+     * @param arity 每个节点的孩子数，至少为2
+     */
+    public CompleteBinaryHeapPriorityDeque(long[] priorities, T[] values, int arity) {
+        this(priorities, values, arity, false);
+    }
+
+    /**
+     * 批量建堆，可寻址模式下第j个元素的句柄就是j
+     * @param priorities 优先级
+     * @param values 值，与priorities一一对应
+     * @param arity 每个节点的孩子数，至少为2
+     * @param addressable 是否为可寻址模式
+     */
+    public CompleteBinaryHeapPriorityDeque(long[] priorities, T[] values, int arity, boolean addressable) {
+        checkArity(arity);
+        if (priorities.length != values.length) {
+            throw new IllegalArgumentException("priorities and values must have the same length");
+        }
+        this.arity = arity;
+        this.addressable = addressable;
+        int capacity = Math.max(DEFAULT_CAPACITY, priorities.length);
+        this.priorities = Arrays.copyOf(priorities, capacity);
+        this.values = Arrays.copyOf(values, capacity, Object[].class);
+        size = priorities.length;
+        if (addressable) {
+            initHandles(capacity, size);
+        }
+
+        heapify();
+    }
+
+    public int arity() {
+        return arity;
+    }
+
+    public boolean isAddressable() {
+        return addressable;
     }
 
     public int size() {
         return size;
     }
 
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
     public T min() {
-        return ((Element) elements[0]).value;
+        checkNotEmpty();
+        return (T) values[0];
     }
 
-    public void insert(int k, T x) {
-        if (size >= elements.length) {
+    /**
+     * @return 最小的优先级
+     */
+    public long minPriority() {
+        checkNotEmpty();
+        return priorities[0];
+    }
+
+    public T max() {
+        checkNotEmpty();
+        return (T) values[maxIndex()];
+    }
+
+    /**
+     * @return 最大的优先级
+     */
+    public long maxPriority() {
+        checkNotEmpty();
+        return priorities[maxIndex()];
+    }
+
+    /**
+     * 插入元素
+     * @param k 优先级
+     * @param x 值
+     * @return 可寻址模式下为元素的句柄，否则为NO_HANDLE
+     */
+    public int insert(long k, T x) {
+        if (size >= priorities.length) {
             expandArr();
         }
 
-        Element addElement = new Element(k, x);
-        elements[size] = addElement;
+        int handle = NO_HANDLE;
+        priorities[size] = k;
+        values[size] = x;
+        if (addressable) {
+            handle = allocateHandle();
+            heapHandles[size] = handle;
+            positions[handle] = size;
+        }
         size += 1;
 
-        shiftUp(size - 1);
+        fix(size - 1);
+        return handle;
     }
 
-    public T removeMin() {
-        if (isEmpty()) {
-            throw new IllegalStateException("current complete binary heap is empty");
+    /**
+     * @param handle 句柄
+     * @return 句柄对应的元素是否还在堆中
+     */
+    public boolean contains(int handle) {
+        checkAddressable();
+        return handle >= 0 && handle < nextHandle && positions[handle] >= 0;
+    }
+
+    public long priority(int handle) {
+        return priorities[positionOf(handle)];
+    }
+
+    public T get(int handle) {
+        return (T) values[positionOf(handle)];
+    }
+
+    /**
+     * 将句柄对应元素的优先级减小为newPriority
+     * @param handle 句柄
+     * @param newPriority 不大于当前优先级的新优先级
+     */
+    public void decreaseKey(int handle, long newPriority) {
+        int i = positionOf(handle);
+        if (newPriority > priorities[i]) {
+            throw new IllegalArgumentException("new priority " + newPriority + " is greater than current priority " + priorities[i]);
         }
+        priorities[i] = newPriority;
+        fix(i);
+    }
 
-        swap(0, size - 1);
-        T minValue = ((Element) elements[size - 1]).value;
+    /**
+     * 将句柄对应元素的优先级增大为newPriority
+     * @param handle 句柄
+     * @param newPriority 不小于当前优先级的新优先级
+     */
+    public void increaseKey(int handle, long newPriority) {
+        int i = positionOf(handle);
+        if (newPriority < priorities[i]) {
+            throw new IllegalArgumentException("new priority " + newPriority + " is less than current priority " + priorities[i]);
+        }
+        priorities[i] = newPriority;
+        fix(i);
+    }
 
-        size -= 1;
-        sinkDown(0);
+    /**
+     * 删除句柄对应的元素
+     * @param handle 句柄
+     * @return 被删除的值
+     */
+    public T remove(int handle) {
+        return removeAt(positionOf(handle));
+    }
 
-        return minValue;
+    public T removeMin() {
+        checkNotEmpty();
+        return removeAt(0);
     }
 
-    public boolean isEmpty() {
-        return size == 0;
+    public T removeMax() {
+        checkNotEmpty();
+        return removeAt(maxIndex());
     }
 
-    private void shiftUp(int currentIndex) {
-        while (currentIndex >= 0) {
-            int parentIndex = getParentIndex(currentIndex);
-            int parentPriority = ((Element) elements[getParentIndex(currentIndex)]).priority;
+    /**
+     * 删除下标i处的元素：用最后一个元素填补空位，再修复堆
+     */
+    private T removeAt(int i) {
+        T removedValue = (T) values[i];
+        if (addressable) {
+            releaseHandle(heapHandles[i]);
+        }
 
-            int currentPriority = ((Element) elements[currentIndex]).priority;
+        size -= 1;
+        if (i != size) {
+            priorities[i] = priorities[size];
+            values[i] = values[size];
+            if (addressable) {
+                heapHandles[i] = heapHandles[size];
+                positions[heapHandles[i]] = i;
+            }
+        }
+        values[size] = null;
+        if (i < size) {
+            fix(i);
+        }
 
-            if (currentPriority < parentPriority) {
-                swap(currentIndex, parentIndex);
-                currentIndex = parentIndex;
-            } else {
+        return removedValue;
+    }
+
+    /**
+     * 下标i处的元素被替换为任意优先级后修复堆，要求其余部分（包括i的子树）都满足最小-最大堆的性质
+     * 1. 与双亲（处于相反类型的层）冲突时，与双亲交换：换下来的双亲不小于（或不大于）i的所有后代，
+     *    在i处下滤；换上去的元素继续沿同类型的祖先上滤
+     * 2. 与同类型的祖父冲突时，沿同类型的祖先上滤：换下来的祖先对i的子树仍然成立
+     * 3. 否则在i处下滤
+     * @param i 被修改的下标
+     */
+    private void fix(int i) {
+        boolean minLevel = isMinLevel(i);
+        if (i > 0) {
+            int parentIndex = getParentIndex(i);
+            if (minLevel ? priorities[i] > priorities[parentIndex] : priorities[i] < priorities[parentIndex]) {
+                swap(i, parentIndex);
+                trickleDown(i, minLevel);
+                bubbleUp(parentIndex, !minLevel);
                 return;
             }
         }
+
+        if (bubbleUp(i, minLevel) == i) {
+            trickleDown(i, minLevel);
+        }
     }
 
-    private void sinkDown(int currentIndex) {
-        // 叶子节点不需要下滤
-        int half = size >>> 1;
-
-        while(currentIndex < half){
-            int leftIndex = getLeftChildIndex(currentIndex);
-            int rightIndex = getRightChildIndex(currentIndex);
-
-            if(rightIndex < size){
-                // 右孩子存在 (下标没有越界)
-                int leftPriority = ((Element) elements[leftIndex]).priority;
-                int rightPriority = ((Element) elements[rightIndex]).priority;
-                int currentPriority = ((Element) elements[currentIndex]).priority;
-
-                // 比较左右孩子大小
-                if (leftPriority < rightPriority) {
-                    // 左孩子更大，比较双亲和左孩子
-                    if (currentPriority < leftPriority) {
-                        // 双亲>左孩子>右孩子
-                        // 双亲最大，终止下滤
-                        return;
-                    } else {
-                        // 左孩子>双亲>右孩子; 左孩子>右孩子>双亲
-                        // 三者中，左孩子更大，交换双亲和左孩子的位置
-                        swap(currentIndex, leftIndex);
-                        // 继续下滤操作
-                        currentIndex = leftIndex;
-                    }
-                } else {
-                    // 右孩子更大，比较双亲和右孩子
-                    if(currentPriority < rightPriority){
-                        // 双亲>右孩子>左孩子
-                        // 双亲最大，终止下滤
-                        return;
-                    } else {
-                        // 右孩子>双亲>左孩子; 右孩子>左孩子>双亲
-                        // 三者中，右孩子更大，交换双亲和右孩子的位置
-                        swap(currentIndex, rightIndex);
-                        // 继续下滤操作
-                        currentIndex = rightIndex;
-                    }
+    /**
+     * Floyd建堆：从最后一个非叶子节点开始倒序下滤，同时按层的起始下标维护当前层的类型
+     */
+    private void heapify() {
+        if (size < 2) {
+            return;
+        }
+
+        int lastInternal = getParentIndex(size - 1);
+        int level = 0;
+        int levelStart = 0;
+        while (levelStart * arity + 1 <= lastInternal) {
+            levelStart = levelStart * arity + 1;
+            level += 1;
+        }
+
+        for (int i = lastInternal; i >= 0; i--) {
+            if (i < levelStart) {
+                levelStart = getParentIndex(levelStart);
+                level -= 1;
+            }
+            trickleDown(i, (level & 1) == 0);
+        }
+    }
+
+    /**
+     * 沿同类型的祖先（祖父、曾曾祖父……）上滤
+     * @param i 起始下标
+     * @param minLevel i是否处于最小层
+     * @return 元素最终所在的下标
+     */
+    private int bubbleUp(int i, boolean minLevel) {
+        while (i > 0) {
+            int parentIndex = getParentIndex(i);
+            if (parentIndex == 0) {
+                break;
+            }
+            int grandparentIndex = getParentIndex(parentIndex);
+            if (!before(i, grandparentIndex, minLevel)) {
+                break;
+            }
+            swap(i, grandparentIndex);
+            i = grandparentIndex;
+        }
+        return i;
+    }
+
+    /**
+     * 下滤：在孩子和孙子中找出最小（最大层则为最大）的一个
+     * 是孙子且比当前元素更优时交换，并保证与中间的双亲不冲突，然后从孙子处继续；
+     * 是孩子时至多交换一次即可结束
+     * @param i 起始下标
+     * @param minLevel i是否处于最小层
+     */
+    private void trickleDown(int i, boolean minLevel) {
+        while (true) {
+            int firstChild = getLeftChildIndex(i);
+            if (firstChild >= size) {
+                return;
+            }
+
+            int best = firstChild;
+            int lastChild = Math.min(firstChild + arity - 1, size - 1);
+            for (int c = firstChild + 1; c <= lastChild; c++) {
+                if (before(c, best, minLevel)) {
+                    best = c;
                 }
-            } else {
-                // 右孩子不存在 (下标越界)
-                int leftPriority = ((Element) elements[leftIndex]).priority;
-                int currentPriority = ((Element) elements[currentIndex]).priority;
-
-                // 当前节点 大于 左孩子
-                if(currentPriority < leftPriority){
-                    // 终止下滤
-                    return;
-                } else {
-                    // 交换 左孩子和双亲的位置
-                    swap(currentIndex, leftIndex);
-                    // 继续下滤操作
-                    currentIndex = leftIndex;
+            }
+            // 孙子在数组中是连续的一段
+            int firstGrandchild = getLeftChildIndex(firstChild);
+            int lastGrandchild = Math.min(getLeftChildIndex(lastChild) + arity - 1, size - 1);
+            for (int g = firstGrandchild; g <= lastGrandchild; g++) {
+                if (before(g, best, minLevel)) {
+                    best = g;
                 }
             }
+
+            if (!before(best, i, minLevel)) {
+                return;
+            }
+            swap(best, i);
+            if (best <= lastChild) {
+                return;
+            }
+
+            int parentIndex = getParentIndex(best);
+            if (before(parentIndex, best, minLevel)) {
+                swap(best, parentIndex);
+            }
+            i = best;
+        }
+    }
+
+    /**
+     * 在最小层上比较是否更小，在最大层上比较是否更大
+     */
+    private boolean before(int a, int b, boolean minLevel) {
+        return minLevel ? priorities[a] < priorities[b] : priorities[a] > priorities[b];
+    }
+
+    /**
+     * 最大值所在的下标：只有一个元素时为根，否则为根的孩子中较大的一个
+     */
+    private int maxIndex() {
+        if (size == 1) {
+            return 0;
+        }
+        int best = 1;
+        int lastChild = Math.min(arity, size - 1);
+        for (int c = 2; c <= lastChild; c++) {
+            if (priorities[c] > priorities[best]) {
+                best = c;
+            }
         }
+        return best;
+    }
+
+    /**
+     * 第L层的第一个下标为 1 + d + ... + d^(L-1)，逐层比较即可得到层数
+     */
+    private boolean isMinLevel(int i) {
+        if (arity == 2) {
+            int level = 31 - Integer.numberOfLeadingZeros(i + 1);
+            return (level & 1) == 0;
+        }
+        boolean minLevel = true;
+        long nextLevelStart = 1;
+        long levelWidth = 1;
+        while (i >= nextLevelStart) {
+            levelWidth *= arity;
+            nextLevelStart += levelWidth;
+            minLevel = !minLevel;
+        }
+        return minLevel;
     }
 
     private int getParentIndex(int currentIndex) {
-        return (currentIndex - 1) / 2;
+        return (currentIndex - 1) / arity;
     }
 
     private int getLeftChildIndex(int currentIndex) {
-        return (currentIndex * 2) + 1;
+        return (currentIndex * arity) + 1;
     }
 
-    private int getRightChildIndex(int currentIndex) {
-        return (currentIndex + 1) * 2;
+    private void swap(int index_1, int index_2) {
+        long priority_1 = priorities[index_1];
+        priorities[index_1] = priorities[index_2];
+        priorities[index_2] = priority_1;
+
+        Object value_1 = values[index_1];
+        values[index_1] = values[index_2];
+        values[index_2] = value_1;
+
+        if (addressable) {
+            int handle_1 = heapHandles[index_1];
+            heapHandles[index_1] = heapHandles[index_2];
+            heapHandles[index_2] = handle_1;
+            positions[heapHandles[index_1]] = index_1;
+            positions[heapHandles[index_2]] = index_2;
+        }
     }
 
-    private void swap(int index_1, int index_2) {
-        Object element_1 = elements[index_1];
-        Object element_2 = elements[index_2];
+    /**
+     * 初始化句柄：前count个元素的句柄依次为0到count - 1
+     */
+    private void initHandles(int capacity, int count) {
+        heapHandles = new int[capacity];
+        positions = new int[capacity];
+        freeHandles = new int[capacity];
+        for (int i = 0; i < count; i++) {
+            heapHandles[i] = i;
+            positions[i] = i;
+        }
+        nextHandle = count;
+    }
 
-        elements[index_1] = element_2;
-        elements[index_2] = element_1;
+    private int allocateHandle() {
+        if (freeCount > 0) {
+            freeCount -= 1;
+            return freeHandles[freeCount];
+        }
+        if (nextHandle == positions.length) {
+            positions = Arrays.copyOf(positions, nextHandle * EXPAND_MULTIPLIER);
+            freeHandles = Arrays.copyOf(freeHandles, nextHandle * EXPAND_MULTIPLIER);
+        }
+        int handle = nextHandle;
+        nextHandle += 1;
+        return handle;
     }
 
-    private void expandArr() {
-        Object[] newElements = new Object[elements.length * EXPAND_MULTIPLIER];
-        System.arraycopy(elements, 0, newElements, 0, elements.length);
-        elements = newElements;
+    private void releaseHandle(int handle) {
+        positions[handle] = -1;
+        freeHandles[freeCount] = handle;
+        freeCount += 1;
     }
 
-    private class Element {
-        int priority;
+    /**
+     * @return 句柄对应元素所在的下标
+     */
+    private int positionOf(int handle) {
+        if (!contains(handle)) {
+            throw new IllegalArgumentException("handle " + handle + " is not in the heap");
+        }
+        return positions[handle];
+    }
+
+    private void checkAddressable() {
+        if (!addressable) {
+            throw new UnsupportedOperationException("heap is not addressable");
+        }
+    }
 
-        T value;
+    private static void checkArity(int arity) {
+        if (arity < 2) {
+            throw new IllegalArgumentException("arity must be at least 2");
+        }
+    }
 
-        public Element(int priority, T value) {
-            this.priority = priority;
-            this.value = value;
+    private void checkNotEmpty() {
+        if (isEmpty()) {
+            throw new IllegalStateException("current complete binary heap is empty");
         }
+    }
 
-        @Override
-        public String toString() {
-            return "Element{" +
-                    "priority=" + priority +
-                    ", value=" + value +
-                    '}';
+    private void expandArr() {
+        int newCapacity = priorities.length * EXPAND_MULTIPLIER;
+        priorities = Arrays.copyOf(priorities, newCapacity);
+        values = Arrays.copyOf(values, newCapacity);
+        if (addressable) {
+            heapHandles = Arrays.copyOf(heapHandles, newCapacity);
         }
     }
 
@@ -177,7 +530,10 @@ public class CompleteBinaryHeapPriorityDeque<T extends Comparable<T>> {
     public String toString() {
         StringBuilder resStr = new StringBuilder("CompleteBinaryHeapPriorityDeque {\n\telements={\n");
         for (int i = 0; i < size; i++) {
-            resStr.append("\t\t").append(elements[i]).append("\n");
+            resStr.append("\t\t").append("Element{")
+                    .append("priority=").append(priorities[i])
+                    .append(", value=").append(values[i])
+                    .append('}').append("\n");
         }
         resStr.append("\t}\n}");
         return resStr.toString();
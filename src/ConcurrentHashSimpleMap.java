@@ -0,0 +1,434 @@
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+/**
+ * @author YFCodeDream
+ * @version 1.0.0
+ * @date 2026/10/19
+ * @description 分段锁的并发HashMap
+ * 键空间按hash的高位分为若干段（Segment），每段是一个带锁的拉链哈希表，
+ * 写操作只锁住所在的段，不同段上的写可以并行；扩容也只在单个段内进行。
+ * 链表节点的key/hash/next都是final，value是volatile，
+ * 删除时复制被删节点之前的部分链表，因此get不需要加锁，总能看到一条完整的链
+ */
+public class ConcurrentHashSimpleMap<K, V> implements SimpleMap<K, V> {
+    public static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+
+    public static final int DEFAULT_SEGMENT_LOG_CAPACITY = 4;
+
+    private static final int MAX_SEGMENTS = 1 << 16;
+
+    private final Segment<K, V>[] segments;
+
+    // 段的下标取hash的高segmentBits位
+    private final int segmentShift;
+
+    private final int z;
+
+    public ConcurrentHashSimpleMap() {
+        this(DEFAULT_CONCURRENCY_LEVEL, 0);
+    }
+
+    /**
+     * @param concurrencyLevel 预计同时写入的线程数，向上取为2的幂作为段数
+     * @param expectedSize 预计的键值对个数，平均分配到各段
+     */
+    public ConcurrentHashSimpleMap(int concurrencyLevel, int expectedSize) {
+        if (concurrencyLevel < 1) {
+            throw new IllegalArgumentException("concurrencyLevel must be positive");
+        }
+
+        int segmentBits = 0;
+        while ((1 << segmentBits) < Math.min(concurrencyLevel, MAX_SEGMENTS)) {
+            segmentBits += 1;
+        }
+        segmentShift = 32 - segmentBits;
+
+        int segmentCount = 1 << segmentBits;
+        int perSegment = (int) (((long) expectedSize + segmentCount - 1) / segmentCount);
+        segments = newSegmentArray(segmentCount);
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment<>(perSegment);
+        }
+
+        // fix a random odd integer
+        Random r = new Random();
+        z = (r.nextInt() << 1) + 1;
+    }
+
+    /**
+     * 各段大小之和；并发写入时只是一个近似值
+     */
+    @Override
+    public int size() {
+        long sum = 0;
+        for (Segment<K, V> segment : segments) {
+            sum += segment.count;
+        }
+        return (int) Math.min(sum, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for (Segment<K, V> segment : segments) {
+            if (segment.count != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 不加锁的查找
+     * @param key 键
+     * @return 键对应的值，不存在时返回null
+     */
+    @Override
+    public V get(K key) {
+        int h = hash(key);
+        return segmentFor(h).get(key, h);
+    }
+
+    @Override
+    public V put(K key, V value) {
+        Objects.requireNonNull(value);
+        int h = hash(key);
+        return segmentFor(h).put(key, h, value, false);
+    }
+
+    /**
+     * 键不存在时才设置键对应的值，整个操作是原子的
+     * @param key 键
+     * @param value 非null的值
+     * @return 原先的值，键不存在时返回null
+     */
+    public V putIfAbsent(K key, V value) {
+        Objects.requireNonNull(value);
+        int h = hash(key);
+        return segmentFor(h).put(key, h, value, true);
+    }
+
+    @Override
+    public V remove(K key) {
+        int h = hash(key);
+        return segmentFor(h).remove(key, h);
+    }
+
+    @Override
+    public boolean contains(K key) {
+        return get(key) != null;
+    }
+
+    /**
+     * 依据键和原先的值计算新值，在段锁内完成，整个操作是原子的
+     * 新值为null时删除该键；remappingFunction中不能修改当前map
+     * @param key 键
+     * @param remappingFunction 参数为键和原先的值（不存在时为null），返回新值
+     * @return 新值
+     */
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        int h = hash(key);
+        return segmentFor(h).compute(key, h, remappingFunction);
+    }
+
+    /**
+     * 将给定的值原子地合并到键对应的值中，如计数时 merge(key, 1L, Long::sum)
+     * 键不存在时直接设为value；合并结果为null时删除该键；remappingFunction中不能修改当前map
+     * @param key 键
+     * @param value 非null的值
+     * @param remappingFunction 参数为原先的值和value，返回合并后的值
+     * @return 合并后的值
+     */
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(value);
+        int h = hash(key);
+        return segmentFor(h).compute(key, h,
+                (k, oldValue) -> oldValue == null ? value : remappingFunction.apply(oldValue, value));
+    }
+
+    /**
+     * 逐段加锁清空
+     */
+    public void clear() {
+        for (Segment<K, V> segment : segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * 不加锁地遍历所有键值对；遍历期间的并发修改可能看得到也可能看不到
+     * @param action 参数为键和值
+     */
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        for (Segment<K, V> segment : segments) {
+            HashEntry<K, V>[] tab = segment.table;
+            for (HashEntry<K, V> e : tab) {
+                for (; e != null; e = e.next) {
+                    V v = e.value;
+                    if (v != null) {
+                        action.accept(e.key, v);
+                    }
+                }
+            }
+        }
+    }
+
+    public int segmentCount() {
+        return segments.length;
+    }
+
+    /**
+     * 乘法hash：高位决定所在的段，再把高位混入低位用于段内的桶下标
+     */
+    private int hash(Object key) {
+        int h = z * key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * 泛型数组只能以原始类型创建，集中在这里做一次未检查的转换
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <K1, V1> Segment<K1, V1>[] newSegmentArray(int length) {
+        return new Segment[length];
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <K1, V1> HashEntry<K1, V1>[] newEntryArray(int length) {
+        return new HashEntry[length];
+    }
+
+    private Segment<K, V> segmentFor(int h) {
+        // segments.length为1时segmentShift为32，Java中移位取模32，需要单独处理
+        return segments.length == 1 ? segments[0] : segments[h >>> segmentShift];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder resStr = new StringBuilder("ConcurrentHashSimpleMap{");
+        boolean[] first = {true};
+        forEach((k, v) -> {
+            if (!first[0]) {
+                resStr.append(", ");
+            }
+            resStr.append(k).append("=").append(v);
+            first[0] = false;
+        });
+        resStr.append("}");
+        return resStr.toString();
+    }
+
+    /**
+     * 链表节点，除value外都不可变
+     */
+    private static final class HashEntry<K1, V1> {
+        final K1 key;
+        final int hash;
+        volatile V1 value;
+        final HashEntry<K1, V1> next;
+
+        HashEntry(K1 key, int hash, HashEntry<K1, V1> next, V1 value) {
+            this.key = key;
+            this.hash = hash;
+            this.next = next;
+            this.value = value;
+        }
+    }
+
+    /**
+     * 一个段：带锁的拉链哈希表
+     * table和count是volatile的，写操作在锁内完成后写回它们，读操作先读它们，保证看到完整的节点
+     */
+    private static final class Segment<K1, V1> {
+        private final ReentrantLock lock = new ReentrantLock();
+
+        volatile HashEntry<K1, V1>[] table;
+
+        volatile int count;
+
+        private final double loadFactor = 0.75;
+
+        Segment(int expectedSize) {
+            int log = DEFAULT_SEGMENT_LOG_CAPACITY;
+            while (loadFactor * (1 << log) < expectedSize) {
+                log += 1;
+            }
+            table = newEntryArray(1 << log);
+        }
+
+        V1 get(Object key, int h) {
+            if (count == 0) {
+                return null;
+            }
+            HashEntry<K1, V1>[] tab = table;
+            for (HashEntry<K1, V1> e = tab[h & (tab.length - 1)]; e != null; e = e.next) {
+                if (e.hash == h && key.equals(e.key)) {
+                    V1 v = e.value;
+                    if (v != null) {
+                        return v;
+                    }
+                    // 节点刚被构造、尚未安全发布，加锁重读
+                    return readValueUnderLock(e);
+                }
+            }
+            return null;
+        }
+
+        V1 put(K1 key, int h, V1 value, boolean onlyIfAbsent) {
+            lock.lock();
+            try {
+                HashEntry<K1, V1> e = findEntry(key, h);
+                if (e != null) {
+                    V1 previous = e.value;
+                    if (!onlyIfAbsent) {
+                        e.value = value;
+                    }
+                    return previous;
+                }
+                insert(key, h, value);
+                return null;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        V1 compute(K1 key, int h, BiFunction<? super K1, ? super V1, ? extends V1> function) {
+            lock.lock();
+            try {
+                HashEntry<K1, V1> e = findEntry(key, h);
+                V1 newValue = function.apply(key, e == null ? null : e.value);
+                if (e != null) {
+                    if (newValue == null) {
+                        removeEntry(key, h);
+                    } else {
+                        e.value = newValue;
+                    }
+                } else if (newValue != null) {
+                    insert(key, h, newValue);
+                }
+                return newValue;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        V1 remove(Object key, int h) {
+            lock.lock();
+            try {
+                return removeEntry(key, h);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void clear() {
+            lock.lock();
+            try {
+                table = newEntryArray(table.length);
+                count = 0;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private V1 readValueUnderLock(HashEntry<K1, V1> e) {
+            lock.lock();
+            try {
+                return e.value;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * 在锁内查找节点
+         */
+        private HashEntry<K1, V1> findEntry(Object key, int h) {
+            HashEntry<K1, V1>[] tab = table;
+            for (HashEntry<K1, V1> e = tab[h & (tab.length - 1)]; e != null; e = e.next) {
+                if (e.hash == h && key.equals(e.key)) {
+                    return e;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * 在锁内插入新节点到链表头部，必要时先扩容
+         */
+        private void insert(K1 key, int h, V1 value) {
+            int c = count + 1;
+            if (c > loadFactor * table.length) {
+                rehash();
+            }
+            HashEntry<K1, V1>[] tab = table;
+            int index = h & (tab.length - 1);
+            tab[index] = new HashEntry<>(key, h, tab[index], value);
+            count = c;
+        }
+
+        /**
+         * 在锁内删除节点：被删节点之后的部分原样保留，之前的部分复制一份，
+         * 正在遍历旧链的读线程不受影响
+         */
+        private V1 removeEntry(Object key, int h) {
+            HashEntry<K1, V1>[] tab = table;
+            int index = h & (tab.length - 1);
+            HashEntry<K1, V1> first = tab[index];
+            HashEntry<K1, V1> e = first;
+            while (e != null && (e.hash != h || !key.equals(e.key))) {
+                e = e.next;
+            }
+            if (e == null) {
+                return null;
+            }
+
+            V1 oldValue = e.value;
+            HashEntry<K1, V1> newFirst = e.next;
+            for (HashEntry<K1, V1> p = first; p != e; p = p.next) {
+                newFirst = new HashEntry<>(p.key, p.hash, newFirst, p.value);
+            }
+            tab[index] = newFirst;
+            count = count - 1;
+            return oldValue;
+        }
+
+        /**
+         * 段内扩容为原来的两倍
+         * 每条链末尾落在同一个新桶中的一段节点直接复用，其余节点复制，旧表对读线程保持不变
+         */
+        private void rehash() {
+            HashEntry<K1, V1>[] oldTable = table;
+            int newCapacity = oldTable.length << 1;
+            HashEntry<K1, V1>[] newTable = newEntryArray(newCapacity);
+            int mask = newCapacity - 1;
+
+            for (HashEntry<K1, V1> e : oldTable) {
+                if (e == null) {
+                    continue;
+                }
+
+                // 找到链尾下标相同的最长一段
+                HashEntry<K1, V1> lastRun = e;
+                int lastIndex = e.hash & mask;
+                for (HashEntry<K1, V1> p = e.next; p != null; p = p.next) {
+                    int k = p.hash & mask;
+                    if (k != lastIndex) {
+                        lastIndex = k;
+                        lastRun = p;
+                    }
+                }
+                newTable[lastIndex] = lastRun;
+
+                for (HashEntry<K1, V1> p = e; p != lastRun; p = p.next) {
+                    int k = p.hash & mask;
+                    newTable[k] = new HashEntry<>(p.key, p.hash, newTable[k], p.value);
+                }
+            }
+            table = newTable;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * @author YFCodeDream
+ * @version 1.0.0
+ * @date 2026/10/19
+ * @description 并发计数的吞吐量对比
+ * 多个线程对随机键执行merge(key, 1L, Long::sum)，比较：
+ * 单线程的HashSimpleMap（基准）、用一把全局锁保护的HashSimpleMap、分段锁的ConcurrentHashSimpleMap
+ * 用法：java ConcurrentMapBenchmark [总操作数] [键的个数]
+ */
+public class ConcurrentMapBenchmark {
+    public static final int DEFAULT_OPERATIONS = 4_000_000;
+
+    public static final int DEFAULT_KEYS = 1 << 16;
+
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16, 32};
+
+    // 读写比例：每READ_RATIO次操作中有一次写，其余为读
+    private static final int READ_RATIO = 4;
+
+    public static void main(String[] args) throws InterruptedException {
+        int operations = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_OPERATIONS;
+        int keyCount = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_KEYS;
+        Integer[] keys = new Integer[keyCount];
+        for (int i = 0; i < keyCount; i++) {
+            keys[i] = i;
+        }
+
+        // 预热
+        runSingleThreaded(operations, keys);
+        runGlobalLock(1, operations, keys);
+        runConcurrent(1, operations, keys);
+
+        double baseline = runSingleThreaded(operations, keys);
+        System.out.printf("%-8s %14s %14s %14s%n", "threads", "single(Mop/s)", "global(Mop/s)", "striped(Mop/s)");
+        for (int threads : THREAD_COUNTS) {
+            double global = runGlobalLock(threads, operations, keys);
+            double striped = runConcurrent(threads, operations, keys);
+            System.out.printf("%-8d %14.2f %14.2f %14.2f%n", threads, baseline, global, striped);
+        }
+    }
+
+    /**
+     * @return 吞吐量，百万次操作每秒
+     */
+    private static double runSingleThreaded(int operations, Integer[] keys) {
+        HashSimpleMap<Integer, Long> map = new HashSimpleMap<>();
+        Random random = new Random(1);
+        RunTimer timer = new RunTimer();
+        timer.start();
+        long checksum = 0;
+        for (int i = 0; i < operations; i++) {
+            Integer key = keys[random.nextInt(keys.length)];
+            if (i % READ_RATIO == 0) {
+                map.merge(key, 1L, Long::sum);
+            } else {
+                Long value = map.get(key);
+                checksum += value == null ? 0 : value;
+            }
+        }
+        timer.stop();
+        consume(checksum);
+        return throughput(operations, timer);
+    }
+
+    private static double runGlobalLock(int threads, int operations, Integer[] keys) throws InterruptedException {
+        HashSimpleMap<Integer, Long> map = new HashSimpleMap<>();
+        Object lock = new Object();
+        RunTimer timer = new RunTimer();
+        long writes = runThreads(threads, operations, keys, timer, (key, write) -> {
+            synchronized (lock) {
+                if (write) {
+                    map.merge(key, 1L, Long::sum);
+                } else {
+                    map.get(key);
+                }
+            }
+        });
+        long total = 0;
+        for (HashSimpleMap.Entry<Integer, Long> entry : map) {
+            total += entry.getValue();
+        }
+        check(total, writes);
+        return throughput(operations, timer);
+    }
+
+    private static double runConcurrent(int threads, int operations, Integer[] keys) throws InterruptedException {
+        ConcurrentHashSimpleMap<Integer, Long> map = new ConcurrentHashSimpleMap<>(Math.max(threads, 16), 0);
+        RunTimer timer = new RunTimer();
+        long writes = runThreads(threads, operations, keys, timer, (key, write) -> {
+            if (write) {
+                map.merge(key, 1L, Long::sum);
+            } else {
+                map.get(key);
+            }
+        });
+        long[] total = {0};
+        map.forEach((k, v) -> total[0] += v);
+        check(total[0], writes);
+        return throughput(operations, timer);
+    }
+
+    /**
+     * 启动threads个线程平分operations次操作，所有线程就绪后同时开始计时
+     * 工作线程无论正常结束、被中断还是抛出异常都会计数done，第一个失败在主线程中重新抛出
+     * @return 写操作的总次数
+     */
+    private static long runThreads(int threads, int operations, Integer[] keys, RunTimer timer, Operation operation)
+            throws InterruptedException {
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        long[] writes = new long[threads];
+
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            int share = operations / threads + (t < operations % threads ? 1 : 0);
+            Thread worker = new Thread(() -> {
+                try {
+                    Random random = new Random(id + 1);
+                    ready.countDown();
+                    start.await();
+                    long localWrites = 0;
+                    for (int i = 0; i < share; i++) {
+                        boolean write = i % READ_RATIO == 0;
+                        operation.apply(keys[random.nextInt(keys.length)], write);
+                        if (write) {
+                            localWrites += 1;
+                        }
+                    }
+                    writes[id] = localWrites;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    failure.compareAndSet(null, e);
+                } catch (RuntimeException | Error e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    done.countDown();
+                }
+            });
+            worker.start();
+        }
+
+        ready.await();
+        timer.start();
+        start.countDown();
+        done.await();
+        timer.stop();
+
+        if (failure.get() != null) {
+            throw new IllegalStateException("worker failed", failure.get());
+        }
+        long total = 0;
+        for (long w : writes) {
+            total += w;
+        }
+        return total;
+    }
+
+    private static double throughput(int operations, RunTimer timer) {
+        return operations / (timer.getElapsedSecs() * 1_000_000);
+    }
+
+    /**
+     * 所有计数之和必须等于写操作的次数，否则说明有更新丢失
+     */
+    private static void check(long total, long writes) {
+        if (total != writes) {
+            throw new IllegalStateException("lost updates: expected " + writes + ", counted " + total);
+        }
+    }
+
+    private static volatile long sink;
+
+    private static void consume(long value) {
+        sink += value;
+    }
+
+    private interface Operation {
+        void apply(Integer key, boolean write);
+    }
+}
@@ -0,0 +1,418 @@
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.SplittableRandom;
+
+/**
+ * @author YFCodeDream
+ * @version 1.0.0
+ * @date 2026/10/19
+ * @description 确定性的合成语料生成器
+ * 给定分布、字母表大小和随机种子，生成任意长度的字节流，相同的参数总是生成相同的字节；
+ * 边生成边输出，内存占用与长度无关，可以直接写入磁盘生成GB级的语料。
+ * 字节值k就是第k个符号（按概率从高到低排列）。字母表大于256时不能生成字节流，
+ * 只能用symbols取得int形式的符号序列（如哈希表基准中的键）。分布：
+ * 1. UNIFORM：所有符号等概率，熵为log2(字母表大小)
+ * 2. ZIPF：第k个符号的概率正比于1/(k+1)^s，指数s越大越偏斜、熵越低；withEntropy可按目标熵反解s
+ * 3. FIBONACCI：第k个符号在每个周期中恰好出现F(k+1)次（1, 1, 2, 3, 5, ...），周期内的顺序由种子打乱，
+ *    这是让Huffman树最深、码长最长的最坏情况；符号数受周期长度FIBONACCI_MAX_PERIOD限制
+ * 用法：java CorpusGenerator 输出文件 字节数 [UNIFORM|ZIPF|FIBONACCI] [字母表大小] [种子] [Zipf指数]
+ */
+public class CorpusGenerator {
+    public static final int DEFAULT_ALPHABET_SIZE = Codebook.ALPHABET_SIZE;
+
+    public static final double DEFAULT_ZIPF_EXPONENT = 1.0;
+
+    /**
+     * FIBONACCI分布一个周期的最大字节数，周期在内存中预先生成
+     */
+    public static final int FIBONACCI_MAX_PERIOD = 1 << 24;
+
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+    private final Distribution distribution;
+
+    private final int alphabetSize;
+
+    private final long seed;
+
+    private final double[] probabilities;
+
+    // Walker别名表，UNIFORM和ZIPF分布每个字节只需一次随机数
+    private final double[] aliasThreshold;
+
+    private final int[] alias;
+
+    // FIBONACCI分布的一个周期
+    private final byte[] period;
+
+    public enum Distribution {
+        UNIFORM,
+        ZIPF,
+        FIBONACCI
+    }
+
+    public CorpusGenerator(Distribution distribution, int alphabetSize, long seed) {
+        this(distribution, alphabetSize, DEFAULT_ZIPF_EXPONENT, seed);
+    }
+
+    /**
+     * @param distribution 分布
+     * @param alphabetSize 字母表大小，至少为1，超过256时只能使用symbols；FIBONACCI分布下超出周期限制的部分不会出现
+     * @param zipfExponent Zipf分布的指数，只对ZIPF分布有效
+     * @param seed 随机种子
+     */
+    public CorpusGenerator(Distribution distribution, int alphabetSize, double zipfExponent, long seed) {
+        if (alphabetSize < 1) {
+            throw new IllegalArgumentException("alphabetSize must be positive");
+        }
+        if (zipfExponent < 0) {
+            throw new IllegalArgumentException("zipfExponent must not be negative");
+        }
+        this.distribution = distribution;
+        this.seed = seed;
+
+        if (distribution == Distribution.FIBONACCI) {
+            long[] weights = fibonacciWeights(alphabetSize);
+            this.alphabetSize = weights.length;
+            this.period = shuffledPeriod(weights, seed);
+            this.probabilities = new double[this.alphabetSize];
+            for (int k = 0; k < this.alphabetSize; k++) {
+                probabilities[k] = (double) weights[k] / period.length;
+            }
+            this.aliasThreshold = null;
+            this.alias = null;
+            return;
+        }
+
+        this.alphabetSize = alphabetSize;
+        this.period = null;
+        this.probabilities = new double[alphabetSize];
+        double sum = 0;
+        for (int k = 0; k < alphabetSize; k++) {
+            probabilities[k] = distribution == Distribution.UNIFORM ? 1 : 1 / Math.pow(k + 1, zipfExponent);
+            sum += probabilities[k];
+        }
+        for (int k = 0; k < alphabetSize; k++) {
+            probabilities[k] /= sum;
+        }
+
+        aliasThreshold = new double[alphabetSize];
+        alias = new int[alphabetSize];
+        buildAliasTable();
+    }
+
+    /**
+     * 构造熵约为bitsPerSymbol的Zipf分布生成器，对指数二分查找
+     * @param bitsPerSymbol 目标熵（比特每符号），不超过log2(alphabetSize)
+     * @param alphabetSize 字母表大小
+     * @param seed 随机种子
+     * @return 生成器
+     */
+    public static CorpusGenerator withEntropy(double bitsPerSymbol, int alphabetSize, long seed) {
+        double maxEntropy = Math.log(alphabetSize) / Math.log(2);
+        if (bitsPerSymbol <= 0 || bitsPerSymbol > maxEntropy) {
+            throw new IllegalArgumentException("bitsPerSymbol must be in (0, " + maxEntropy + "]");
+        }
+        // 熵随指数单调递减
+        double low = 0;
+        double high = 64;
+        for (int i = 0; i < 60; i++) {
+            double mid = (low + high) / 2;
+            if (new CorpusGenerator(Distribution.ZIPF, alphabetSize, mid, seed).entropy() > bitsPerSymbol) {
+                low = mid;
+            } else {
+                high = mid;
+            }
+        }
+        return new CorpusGenerator(Distribution.ZIPF, alphabetSize, (low + high) / 2, seed);
+    }
+
+    public Distribution distribution() {
+        return distribution;
+    }
+
+    /**
+     * @return 实际使用的字母表大小
+     */
+    public int alphabetSize() {
+        return alphabetSize;
+    }
+
+    /**
+     * @return FIBONACCI分布一个周期的字节数，语料以此为周期重复；其余分布为0
+     */
+    public int periodLength() {
+        return period == null ? 0 : period.length;
+    }
+
+    /**
+     * @return 以符号为下标的概率
+     */
+    public double[] probabilities() {
+        return probabilities.clone();
+    }
+
+    /**
+     * @return 分布的熵，比特每符号
+     */
+    public double entropy() {
+        double entropy = 0;
+        for (double p : probabilities) {
+            if (p > 0) {
+                entropy -= p * Math.log(p) / Math.log(2);
+            }
+        }
+        return entropy;
+    }
+
+    /**
+     * @param length 字节数
+     * @return 长度为length的语料流，每次调用都从头生成同样的字节
+     */
+    public InputStream stream(long length) {
+        if (length < 0) {
+            throw new IllegalArgumentException("length must not be negative");
+        }
+        if (alphabetSize > Codebook.ALPHABET_SIZE) {
+            throw new IllegalStateException("alphabet of " + alphabetSize + " symbols does not fit in a byte, use symbols");
+        }
+        return new CorpusInputStream(length);
+    }
+
+    /**
+     * @param length 字节数
+     * @return stream(length)生成的全部字节
+     */
+    public byte[] bytes(int length) {
+        byte[] data = new byte[length];
+        InputStream in = stream(length);
+        int offset = 0;
+        while (offset < length) {
+            try {
+                offset += in.read(data, offset, length - offset);
+            } catch (IOException e) {
+                // CorpusInputStream不会抛出IOException
+                throw new IllegalStateException(e);
+            }
+        }
+        return data;
+    }
+
+    /**
+     * 以int形式生成符号序列，字母表可以大于256；字母表不超过256时与stream生成的字节相同
+     * @param count 符号个数
+     * @return 长度为count的符号序列
+     */
+    public int[] symbols(int count) {
+        int[] symbols = new int[count];
+        if (period != null) {
+            for (int i = 0; i < count; i++) {
+                symbols[i] = period[i % period.length] & 0xFF;
+            }
+            return symbols;
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = 0; i < count; i++) {
+            symbols[i] = sample(random);
+        }
+        return symbols;
+    }
+
+    /**
+     * 将长度为length的语料写入文件
+     * @param path 文件
+     * @param length 字节数
+     * @throws IOException 写入失败
+     */
+    public void writeTo(Path path, long length) throws IOException {
+        try (InputStream in = stream(length);
+             OutputStream out = new BufferedOutputStream(Files.newOutputStream(path), WRITE_BUFFER_SIZE)) {
+            byte[] buffer = new byte[WRITE_BUFFER_SIZE];
+            int len;
+            while ((len = in.read(buffer)) != -1) {
+                out.write(buffer, 0, len);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: java CorpusGenerator <output> <bytes> [UNIFORM|ZIPF|FIBONACCI] [alphabet] [seed] [exponent]");
+            System.exit(1);
+        }
+        Path path = Paths.get(args[0]);
+        long length = Long.parseLong(args[1]);
+        Distribution distribution = args.length > 2 ? Distribution.valueOf(args[2]) : Distribution.ZIPF;
+        int alphabetSize = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_ALPHABET_SIZE;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 0;
+        double exponent = args.length > 5 ? Double.parseDouble(args[5]) : DEFAULT_ZIPF_EXPONENT;
+
+        CorpusGenerator generator = new CorpusGenerator(distribution, alphabetSize, exponent, seed);
+        generator.writeTo(path, length);
+        System.out.printf("wrote %d bytes to %s (%s, %d symbols, %.3f bits/symbol)%n",
+                length, path, distribution, generator.alphabetSize(), generator.entropy());
+    }
+
+    /**
+     * 一个随机数同时决定槽位（整数部分）和是否取别名（小数部分）
+     */
+    private int sample(SplittableRandom random) {
+        double u = random.nextDouble() * alphabetSize;
+        int slot = (int) u;
+        return u - slot < aliasThreshold[slot] ? slot : alias[slot];
+    }
+
+    /**
+     * Walker别名法：把每个符号的概率放大为alphabetSize倍后，不足1的槽位由超出1的符号补齐
+     */
+    private void buildAliasTable() {
+        int n = alphabetSize;
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int k = 0; k < n; k++) {
+            scaled[k] = probabilities[k] * n;
+            if (scaled[k] < 1) {
+                small[smallCount++] = k;
+            } else {
+                large[largeCount++] = k;
+            }
+        }
+        while (smallCount > 0 && largeCount > 0) {
+            int s = small[--smallCount];
+            int l = large[--largeCount];
+            aliasThreshold[s] = scaled[s];
+            alias[s] = l;
+            scaled[l] -= 1 - scaled[s];
+            if (scaled[l] < 1) {
+                small[smallCount++] = l;
+            } else {
+                large[largeCount++] = l;
+            }
+        }
+        // 剩下的槽位由于舍入误差都视为满的
+        while (largeCount > 0) {
+            int l = large[--largeCount];
+            aliasThreshold[l] = 1;
+            alias[l] = l;
+        }
+        while (smallCount > 0) {
+            int s = small[--smallCount];
+            aliasThreshold[s] = 1;
+            alias[s] = s;
+        }
+    }
+
+    /**
+     * Fibonacci权重1, 1, 2, 3, 5, ...，总和不超过FIBONACCI_MAX_PERIOD
+     */
+    private static long[] fibonacciWeights(int maxSymbols) {
+        int count = 0;
+        long sum = 0;
+        long previous = 0;
+        long current = 1;
+        while (count < maxSymbols && sum + current <= FIBONACCI_MAX_PERIOD) {
+            sum += current;
+            long next = previous + current;
+            previous = current;
+            current = next;
+            count += 1;
+        }
+
+        // 权重从高到低排列，字节值0为最高频的符号
+        long[] weights = new long[count];
+        long a = 1;
+        long b = 1;
+        for (int k = count - 1; k >= 0; k--) {
+            weights[k] = a;
+            long next = a + b;
+            a = b;
+            b = next;
+        }
+        return weights;
+    }
+
+    private static byte[] shuffledPeriod(long[] weights, long seed) {
+        int length = 0;
+        for (long weight : weights) {
+            length += (int) weight;
+        }
+        byte[] period = new byte[length];
+        int offset = 0;
+        for (int k = 0; k < weights.length; k++) {
+            for (int i = 0; i < weights[k]; i++) {
+                period[offset++] = (byte) k;
+            }
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            byte tmp = period[i];
+            period[i] = period[j];
+            period[j] = tmp;
+        }
+        return period;
+    }
+
+    /**
+     * 按需生成字节的输入流
+     */
+    private class CorpusInputStream extends InputStream {
+        private final long length;
+
+        private final SplittableRandom random = new SplittableRandom(seed);
+
+        private long position;
+
+        CorpusInputStream(long length) {
+            this.length = length;
+        }
+
+        @Override
+        public int read() {
+            if (position >= length) {
+                return -1;
+            }
+            position += 1;
+            return next(position - 1) & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (position >= length) {
+                return -1;
+            }
+            int n = (int) Math.min(len, length - position);
+            if (period != null) {
+                int copied = 0;
+                while (copied < n) {
+                    int offset = (int) (position % period.length);
+                    int chunk = Math.min(n - copied, period.length - offset);
+                    System.arraycopy(period, offset, b, off + copied, chunk);
+                    copied += chunk;
+                    position += chunk;
+                }
+            } else {
+                for (int i = 0; i < n; i++) {
+                    b[off + i] = (byte) sample(random);
+                }
+                position += n;
+            }
+            return n;
+        }
+
+        private byte next(long index) {
+            return period != null ? period[(int) (index % period.length)] : (byte) sample(random);
+        }
+    }
+}
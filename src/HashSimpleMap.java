@@ -1,4 +1,7 @@
+import java.util.Iterator;
 import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
 
 /**
  * @author YFCodeDream
@@ -6,11 +9,21 @@ import java.util.Objects;
  * @date 2022/4/28
  * @description HashMap
  */
-public class HashSimpleMap<K extends Comparable<K>, V> implements SimpleMap<K, V> {
-    private final HashUSet<Entry<K, V>> entryHashUSet;
+public class HashSimpleMap<K extends Comparable<K>, V> implements SimpleMap<K, V>, Iterable<HashSimpleMap.Entry<K, V>>,
+        InstrumentedHashTable {
+    // 开放寻址的HashUSet，查找时不需要沿链表跳转
+    // 可以直接用键探测，不需要为查找分配Entry
+    private final EntrySet<K, V> entryHashUSet;
 
     public HashSimpleMap() {
-        entryHashUSet = new HashUSet<>();
+        this(0);
+    }
+
+    /**
+     * @param expectedSize 预计的键值对个数，直接分配足够的容量，批量加载时不需要逐次翻倍扩容
+     */
+    public HashSimpleMap(int expectedSize) {
+        entryHashUSet = new EntrySet<>(expectedSize);
     }
 
     @Override
@@ -25,57 +38,182 @@ public class HashSimpleMap<K extends Comparable<K>, V> implements SimpleMap<K, V
 
     @Override
     public V get(K key) {
-        Entry<K, V> kvEntry = entryHashUSet.find(new Entry<>(key, null));
-        return kvEntry != null ? kvEntry.value : null;
+        int slot = entryHashUSet.indexOf(key);
+        return slot >= 0 ? entryHashUSet.entryAt(slot).value : null;
+    }
+
+    /**
+     * 获取键对应的值
+     * @param key 键
+     * @param defaultValue 键不存在时返回的值
+     * @return 键对应的值，不存在时返回defaultValue
+     */
+    public V getOrDefault(K key, V defaultValue) {
+        int slot = entryHashUSet.indexOf(key);
+        return slot >= 0 ? entryHashUSet.entryAt(slot).value : defaultValue;
     }
 
     @Override
     public V put(K key, V value) {
-        Entry<K, V> currentEntry = entryHashUSet.find(new Entry<>(key, null));
-        if (currentEntry == null) {
-            entryHashUSet.add(new Entry<>(key, value));
+        int slot = entryHashUSet.indexOf(key);
+        if (slot < 0) {
+            entryHashUSet.insertAt(~slot, new Entry<>(key, value));
+            return null;
+        }
+        // 键已存在时直接修改Entry的值
+        Entry<K, V> currentEntry = entryHashUSet.entryAt(slot);
+        V previousValue = currentEntry.value;
+        currentEntry.value = value;
+        return previousValue;
+    }
+
+    /**
+     * 键不存在（或对应的值为null）时才设置键对应的值
+     * @param key 键
+     * @param value 值
+     * @return 原先的值，键不存在时返回null
+     */
+    public V putIfAbsent(K key, V value) {
+        int slot = entryHashUSet.indexOf(key);
+        if (slot < 0) {
+            entryHashUSet.insertAt(~slot, new Entry<>(key, value));
+            return null;
+        }
+        Entry<K, V> currentEntry = entryHashUSet.entryAt(slot);
+        if (currentEntry.value == null) {
+            currentEntry.value = value;
             return null;
         }
-        entryHashUSet.remove(currentEntry);
-        entryHashUSet.add(new Entry<>(key, value));
         return currentEntry.value;
     }
 
+    /**
+     * 依据键和原先的值计算新值，只需一次探测
+     * 新值为null时删除该键；remappingFunction中不能修改当前map
+     * @param key 键
+     * @param remappingFunction 参数为键和原先的值（不存在时为null），返回新值
+     * @return 新值
+     */
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        int slot = entryHashUSet.indexOf(key);
+        V oldValue = slot >= 0 ? entryHashUSet.entryAt(slot).value : null;
+        V newValue = remappingFunction.apply(key, oldValue);
+        return store(slot, key, newValue);
+    }
+
+    /**
+     * 将给定的值合并到键对应的值中，只需一次探测
+     * 键不存在（或对应的值为null）时直接设为value；合并结果为null时删除该键；
+     * remappingFunction中不能修改当前map
+     * @param key 键
+     * @param value 非null的值
+     * @param remappingFunction 参数为原先的值和value，返回合并后的值
+     * @return 合并后的值
+     */
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(value);
+        int slot = entryHashUSet.indexOf(key);
+        V oldValue = slot >= 0 ? entryHashUSet.entryAt(slot).value : null;
+        V newValue = oldValue == null ? value : remappingFunction.apply(oldValue, value);
+        return store(slot, key, newValue);
+    }
+
     @Override
     public V remove(K key) {
-        Entry<K, V> removedEntry = entryHashUSet.find(new Entry<>(key, null));
-        if (removedEntry == null) {
+        int slot = entryHashUSet.indexOf(key);
+        if (slot < 0) {
             return null;
         }
-        entryHashUSet.remove(removedEntry);
-        return removedEntry.value;
+        return entryHashUSet.removeAt(slot).value;
     }
 
     @Override
     public boolean contains(K key) {
-        Entry<K, V> currentEntry = entryHashUSet.find(new Entry<>(key, null));
-        return currentEntry != null;
+        return entryHashUSet.indexOf(key) >= 0;
     }
 
-    public LinkedSimpleList<Entry<K, V>> getTotalEntries() {
+    /**
+     * 将compute/merge的结果写回探测得到的位置
+     * @param slot 探测结果，找到时为下标，否则为 ~空位
+     * @param key 键
+     * @param newValue 新值，为null时删除该键
+     * @return 新值
+     */
+    private V store(int slot, K key, V newValue) {
+        if (slot >= 0) {
+            if (newValue == null) {
+                entryHashUSet.removeAt(slot);
+            } else {
+                entryHashUSet.entryAt(slot).value = newValue;
+            }
+        } else if (newValue != null) {
+            entryHashUSet.insertAt(~slot, new Entry<>(key, newValue));
+        }
+        return newValue;
+    }
+
+    /**
+     * 将容量缩小到能容纳当前键值对的最小值
+     */
+    public void trimToSize() {
+        entryHashUSet.trimToSize();
+    }
+
+    @Override
+    public HashTableStats stats() {
+        return entryHashUSet.stats();
+    }
+
+    @Override
+    public void setInstrumented(boolean instrumented) {
+        entryHashUSet.setInstrumented(instrumented);
+    }
+
+    @Override
+    public boolean isInstrumented() {
+        return entryHashUSet.isInstrumented();
+    }
+
+    @Override
+    public void resetStats() {
+        entryHashUSet.resetStats();
+    }
+
+    public ArraySimpleList<Entry<K, V>> getTotalEntries() {
         return entryHashUSet.getTotalElements();
     }
 
-    public LinkedSimpleList<K> keys() {
-        LinkedSimpleList<Entry<K, V>> totalEntries = getTotalEntries();
-        LinkedSimpleList<K> totalKeys = new LinkedSimpleList<>();
-        int count = 0;
-        for (Entry<K, V> entry : totalEntries) {
-            totalKeys.add(count, entry.key);
+    public ArraySimpleList<K> keys() {
+        ArraySimpleList<K> totalKeys = new ArraySimpleList<>(size());
+        for (Entry<K, V> entry : entryHashUSet) {
+            totalKeys.add(entry.key);
         }
         return totalKeys;
     }
 
+    /**
+     * 直接在表上遍历所有Entry，不拷贝到新的列表中
+     * 遍历期间不能增删键，但可以通过Entry修改值
+     * @return 迭代器
+     */
+    @Override
+    public Iterator<Entry<K, V>> iterator() {
+        return entryHashUSet.iterator();
+    }
+
+    /**
+     * 对每个键值对执行action，不为键值对分配任何对象
+     * @param action 参数为键和值
+     */
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        entryHashUSet.forEach(entry -> action.accept(entry.key, entry.value));
+    }
+
+    /**
+     * 清空map，只需将表置空，容量保持不变
+     */
     public void clear() {
-        LinkedSimpleList<K> keys = keys();
-        for (K key : keys) {
-            remove(key);
-        }
+        entryHashUSet.clear();
     }
 
     @Override
@@ -85,6 +223,29 @@ public class HashSimpleMap<K extends Comparable<K>, V> implements SimpleMap<K, V
                 '}';
     }
 
+    /**
+     * 存放Entry的开放寻址HashUSet，既可以用Entry探测，也可以直接用键探测
+     * Entry的hashCode与键的hashCode相同，因此两种探测落在同一个位置
+     */
+    @SuppressWarnings("unchecked")
+    private static class EntrySet<K1, V1> extends OpenHashUSet<Entry<K1, V1>> {
+        EntrySet(int expectedSize) {
+            super(expectedSize);
+        }
+
+        @Override
+        protected boolean matches(Entry<K1, V1> element, Object x) {
+            if (x instanceof Entry) {
+                return x.equals(element);
+            }
+            return x.equals(element.key);
+        }
+
+        Entry<K1, V1> entryAt(int slot) {
+            return (Entry<K1, V1>) table[slot];
+        }
+    }
+
     @SuppressWarnings("unchecked")
     public static class Entry<K1, V1> {
         K1 key;
@@ -95,6 +256,18 @@ public class HashSimpleMap<K extends Comparable<K>, V> implements SimpleMap<K, V
             this.value = value;
         }
 
+        public K1 getKey() {
+            return key;
+        }
+
+        public V1 getValue() {
+            return value;
+        }
+
+        public void setValue(V1 value) {
+            this.value = value;
+        }
+
         @Override
         public boolean equals(Object o) {
             if (this == o) return true;
@@ -105,7 +278,7 @@ public class HashSimpleMap<K extends Comparable<K>, V> implements SimpleMap<K, V
 
         @Override
         public int hashCode() {
-            return Objects.hash(key);
+            return Objects.hashCode(key);
         }
 
         @Override
@@ -0,0 +1,150 @@
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * @author YFCodeDream
+ * @version 1.0.0
+ * @date 2026/10/19
+ * @description 将哈希表的统计信息注册为JMX MBean，可以在jconsole等工具中查看
+ * 生成快照要遍历整个表（O(capacity)），一次刷新会连续读取全部属性，
+ * 因此快照缓存snapshotMillis毫秒，期间的所有属性都来自同一个快照，彼此一致。
+ * 遍历时不与写表的线程同步，表正在被其他线程修改时快照本身只是近似值
+ */
+public class HashTableMonitor implements HashTableMonitorMBean {
+    public static final String DOMAIN = "HashTable";
+
+    public static final long DEFAULT_SNAPSHOT_MILLIS = 1000;
+
+    private final InstrumentedHashTable table;
+
+    private final long snapshotNanos;
+
+    private HashTableStats snapshot;
+
+    private long snapshotTime;
+
+    public HashTableMonitor(InstrumentedHashTable table) {
+        this(table, DEFAULT_SNAPSHOT_MILLIS);
+    }
+
+    /**
+     * @param table 哈希表
+     * @param snapshotMillis 快照的缓存时间，0表示每次读取属性都重新遍历
+     */
+    public HashTableMonitor(InstrumentedHashTable table, long snapshotMillis) {
+        if (snapshotMillis < 0) {
+            throw new IllegalArgumentException("snapshotMillis must not be negative");
+        }
+        this.table = table;
+        this.snapshotNanos = snapshotMillis * 1_000_000L;
+    }
+
+    /**
+     * 在平台MBeanServer上注册，名称为 HashTable:name=name
+     * @param name 哈希表的名称
+     * @param table 哈希表
+     * @return 注册使用的ObjectName，用于注销
+     * @throws JMException 名称不合法或已被注册
+     */
+    public static ObjectName register(String name, InstrumentedHashTable table) throws JMException {
+        ObjectName objectName = new ObjectName(DOMAIN, "name", name);
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        server.registerMBean(new HashTableMonitor(table), objectName);
+        return objectName;
+    }
+
+    public static void unregister(ObjectName objectName) throws JMException {
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+    }
+
+    /**
+     * JMX可能从多个线程读取属性，快照的缓存本身需要同步；对表的遍历仍不加锁
+     * @return 缓存时间内的同一个快照，过期后重新生成
+     */
+    private synchronized HashTableStats snapshot() {
+        long now = System.nanoTime();
+        if (snapshot == null || now - snapshotTime >= snapshotNanos) {
+            snapshot = table.stats();
+            snapshotTime = now;
+        }
+        return snapshot;
+    }
+
+    private synchronized void invalidate() {
+        snapshot = null;
+    }
+
+    @Override
+    public String getStats() {
+        return snapshot().toString();
+    }
+
+    @Override
+    public int getSize() {
+        return snapshot().size();
+    }
+
+    @Override
+    public int getCapacity() {
+        return snapshot().capacity();
+    }
+
+    @Override
+    public double getLoadFactor() {
+        return snapshot().loadFactor();
+    }
+
+    @Override
+    public int getOccupiedBuckets() {
+        return snapshot().occupiedBuckets();
+    }
+
+    @Override
+    public double getAverageProbeLength() {
+        return snapshot().averageProbeLength();
+    }
+
+    @Override
+    public int getMaxProbeLength() {
+        return snapshot().maxProbeLength();
+    }
+
+    @Override
+    public long getResizeCount() {
+        return snapshot().resizeCount();
+    }
+
+    @Override
+    public long getResizeNanos() {
+        return snapshot().resizeNanos();
+    }
+
+    @Override
+    public long getLookupCount() {
+        return snapshot().lookupCount();
+    }
+
+    @Override
+    public double getAverageLookupProbes() {
+        return snapshot().averageLookupProbes();
+    }
+
+    @Override
+    public boolean isInstrumented() {
+        return table.isInstrumented();
+    }
+
+    @Override
+    public void setInstrumented(boolean instrumented) {
+        table.setInstrumented(instrumented);
+        invalidate();
+    }
+
+    @Override
+    public void resetStats() {
+        table.resetStats();
+        invalidate();
+    }
+}
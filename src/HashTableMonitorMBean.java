@@ -0,0 +1,39 @@
+/**
+ * @author YFCodeDream
+ * @version 1.0.0
+ * @date 2026/10/19
+ * @description 哈希表统计信息的JMX接口
+ * 各属性取自同一个短时间缓存的快照，快照过期后才重新遍历表；遍历不与写表的线程同步
+ */
+public interface HashTableMonitorMBean {
+    /**
+     * @return 整个快照的文本形式，一次读取即可得到彼此一致的全部统计
+     */
+    String getStats();
+
+    int getSize();
+
+    int getCapacity();
+
+    double getLoadFactor();
+
+    int getOccupiedBuckets();
+
+    double getAverageProbeLength();
+
+    int getMaxProbeLength();
+
+    long getResizeCount();
+
+    long getResizeNanos();
+
+    long getLookupCount();
+
+    double getAverageLookupProbes();
+
+    boolean isInstrumented();
+
+    void setInstrumented(boolean instrumented);
+
+    void resetStats();
+}
@@ -0,0 +1,118 @@
+/**
+ * @author YFCodeDream
+ * @version 1.0.0
+ * @date 2026/10/19
+ * @description 哈希表统计信息的快照
+ * 结构信息（装载率、链长/探测长度）在生成快照时遍历表得到；
+ * 运行时计数（查找次数与探测次数、扩容耗时）只在开启统计后累计
+ */
+public class HashTableStats {
+    private final int size;
+
+    private final int capacity;
+
+    private final int occupiedBuckets;
+
+    private final double averageProbeLength;
+
+    private final int maxProbeLength;
+
+    private final long resizeCount;
+
+    private final long resizeNanos;
+
+    private final long lookupCount;
+
+    private final long lookupProbes;
+
+    HashTableStats(int size, int capacity, int occupiedBuckets, double averageProbeLength, int maxProbeLength,
+                   long resizeCount, long resizeNanos, long lookupCount, long lookupProbes) {
+        this.size = size;
+        this.capacity = capacity;
+        this.occupiedBuckets = occupiedBuckets;
+        this.averageProbeLength = averageProbeLength;
+        this.maxProbeLength = maxProbeLength;
+        this.resizeCount = resizeCount;
+        this.resizeNanos = resizeNanos;
+        this.lookupCount = lookupCount;
+        this.lookupProbes = lookupProbes;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public double loadFactor() {
+        return capacity == 0 ? 0 : (double) size / capacity;
+    }
+
+    /**
+     * 非空的桶数；开放寻址时等于元素个数
+     */
+    public int occupiedBuckets() {
+        return occupiedBuckets;
+    }
+
+    /**
+     * 查找表中每个元素平均需要比较的次数：
+     * 拉链法为元素在链表中的位置，开放寻址为元素到其hash位置的距离加1
+     */
+    public double averageProbeLength() {
+        return averageProbeLength;
+    }
+
+    /**
+     * 最长的链表长度，或开放寻址中最长的探测长度
+     */
+    public int maxProbeLength() {
+        return maxProbeLength;
+    }
+
+    /**
+     * 扩容和缩容的次数，包括trimToSize
+     */
+    public long resizeCount() {
+        return resizeCount;
+    }
+
+    /**
+     * 迁移元素所用的总时间，只在开启统计后累计
+     */
+    public long resizeNanos() {
+        return resizeNanos;
+    }
+
+    /**
+     * 开启统计后的查找次数，add/remove/find中的每次探测都计入
+     */
+    public long lookupCount() {
+        return lookupCount;
+    }
+
+    /**
+     * 开启统计后，每次查找实际比较的平均次数，包括未命中的查找
+     */
+    public double averageLookupProbes() {
+        return lookupCount == 0 ? 0 : (double) lookupProbes / lookupCount;
+    }
+
+    @Override
+    public String toString() {
+        return "HashTableStats{" +
+                "size=" + size +
+                ", capacity=" + capacity +
+                ", loadFactor=" + loadFactor() +
+                ", occupiedBuckets=" + occupiedBuckets +
+                ", averageProbeLength=" + averageProbeLength +
+                ", maxProbeLength=" + maxProbeLength +
+                ", resizeCount=" + resizeCount +
+                ", resizeNanos=" + resizeNanos +
+                ", lookupCount=" + lookupCount +
+                ", averageLookupProbes=" + averageLookupProbes() +
+                '}';
+    }
+}
@@ -0,0 +1,989 @@
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+/**
+ * @author YFCodeDream
+ * @version 1.0.0
+ * @date 2026/10/19
+ * @description 哈希容器的确定性测试，写法与HuffmanTester相同：逐项打印，失败时给出期望值与实际值并退出
+ * 随机操作序列都使用固定的种子，与java.util中的对应容器逐步比较
+ */
+public class HashTableTester {
+    public static final long SEED = 20261019L;
+
+    public static final int RANDOM_OPERATIONS = 200_000;
+
+    public static final int RANDOM_KEY_RANGE = 4096;
+
+    // 每隔多少次操作完整比较一次全部元素
+    public static final int FULL_CHECK_INTERVAL = 997;
+
+    // 渐进式扩容期间每隔多少次操作完整比较一次
+    public static final int MIGRATION_CHECK_INTERVAL = 31;
+
+    // 迁移检查从这个容量的扩容开始，旧表有足够多的桶，迁移要经过几十次操作
+    public static final int MIGRATION_CHECK_CAPACITY = 1024;
+
+    // 预分配容量检查插入的元素个数，以及trimToSize之前保留的元素个数
+    public static final int SIZING_ELEMENTS = 10_000;
+
+    public static final int TRIM_ELEMENTS = 10;
+
+    // 并发merge：少量的段从最小容量开始，各线程不断插入新键，使段在并发写入期间反复扩容
+    public static final int CONCURRENT_THREADS = 8;
+    public static final int CONCURRENT_MERGES = 100_000;
+    public static final int CONCURRENT_KEY_RANGE = 1 << 16;
+    public static final int CONCURRENT_HOT_KEYS = 16;
+    public static final int CONCURRENT_SEGMENTS = 4;
+
+    // 监控快照的缓存时间足够长，测试期间只有resetStats和setInstrumented会让快照失效
+    public static final long MONITOR_SNAPSHOT_MILLIS = 3_600_000L;
+    public static final int MONITOR_ELEMENTS = 100;
+
+    public static void main(String[] args) {
+        System.out.println("Testing OpenHashUSet...");
+        System.out.println("  testing backward-shift deletion...");
+        report(testBackwardShift());
+
+        System.out.println("  testing random operations against java.util.HashSet...");
+        report(testUSetRandom(new DirectOpenHashUSet()) && testUSetRandom(new OpenHashUSet<>()));
+
+        System.out.println("Testing HashUSet...");
+        System.out.println("  testing lookups and updates while migrating to a larger and a smaller table...");
+        report(testMigration());
+
+        System.out.println("  testing random operations against java.util.HashSet...");
+        report(testUSetRandom(new HashUSet<>()) && testUSetRandom(new HashUSet<>(true)));
+
+        System.out.println("  testing forEach, getTotalElements and clear while migrating...");
+        report(testIterationWhileMigrating());
+
+        System.out.println("Testing presizing, trimToSize and automatic shrink...");
+        HashUSet<Integer> chained = new HashUSet<>(SIZING_ELEMENTS);
+        HashUSet<Integer> incremental = new HashUSet<>(SIZING_ELEMENTS, true);
+        OpenHashUSet<Integer> open = new OpenHashUSet<>(SIZING_ELEMENTS);
+        HashSimpleMap<Integer, Integer> map = new HashSimpleMap<>(SIZING_ELEMENTS);
+        System.out.println("  testing HashUSet...");
+        report(testSizing(chained, 0.75, chained::add, chained::remove, x -> chained.find(x) != null,
+                chained::trimToSize));
+        System.out.println("  testing HashUSet with incremental resize...");
+        report(testSizing(incremental, 0.75, incremental::add, incremental::remove,
+                x -> incremental.find(x) != null, incremental::trimToSize));
+        System.out.println("  testing OpenHashUSet...");
+        report(testSizing(open, 0.5, open::add, open::remove, x -> open.find(x) != null, open::trimToSize));
+        System.out.println("  testing HashSimpleMap...");
+        report(testSizing(map, 0.5, x -> map.put(x, x), map::remove, map::contains, map::trimToSize));
+
+        System.out.println("Testing IntIntHashMap...");
+        System.out.println("  testing key 0, extreme keys and addTo...");
+        report(testIntIntBoundaries());
+
+        System.out.println("  testing random operations against java.util.HashMap...");
+        report(testIntIntRandom());
+
+        System.out.println("Testing CharObjectHashMap...");
+        System.out.println("  testing boundary keys and null values...");
+        report(testCharObjectBoundaries());
+
+        System.out.println("  testing random operations against java.util.HashMap...");
+        report(testCharObjectRandom());
+
+        System.out.println("Testing HashSimpleMap...");
+        System.out.println("  testing compute/merge/putIfAbsent against java.util.HashMap...");
+        report(testHashSimpleMapRandom());
+
+        System.out.println("  testing forEach, keys and updating values through the iterator...");
+        report(testMapIteration());
+
+        System.out.println("Testing ConcurrentHashSimpleMap...");
+        System.out.println("  testing concurrent merge counts across segment resizes...");
+        report(testConcurrentMerge());
+
+        System.out.println("Testing HashTableMonitor...");
+        System.out.println("  testing that resetStats and setInstrumented invalidate the cached snapshot...");
+        report(testMonitorSnapshot());
+    }
+
+    static void report(boolean passed) {
+        if (passed) {
+            System.out.println("  ...test passed");
+        } else {
+            System.out.println("  ...test failed");
+            System.exit(0);
+        }
+    }
+
+    /**
+     * 用恒等hash构造一个跨越表尾的探测簇，删除簇中的元素后检查每个元素回移到的位置：
+     * 容量16，14、30、46的home都是14，依次占据14、15、0；15的home是15，被挤到1；0的home是0，被挤到2；3在自己的位置3
+     */
+    static boolean testBackwardShift() {
+        DirectOpenHashUSet set = new DirectOpenHashUSet();
+        int[] keys = {14, 30, 46, 15, 0, 3};
+        for (int key : keys) {
+            set.add(key);
+        }
+        if (!checkSlots(set, new int[][] {{14, 14}, {30, 15}, {46, 0}, {15, 1}, {0, 2}, {3, 3}})) {
+            return false;
+        }
+
+        // 删除簇头，后面的元素整体回移一格，3的home就是3，不动
+        set.remove(14);
+        if (!checkSlots(set, new int[][] {{30, 14}, {46, 15}, {15, 0}, {0, 1}, {3, 3}})) {
+            return false;
+        }
+
+        // 删除表尾的46，15回到home 15，0回到home 0
+        set.remove(46);
+        if (!checkSlots(set, new int[][] {{30, 14}, {15, 15}, {0, 0}, {3, 3}})) {
+            return false;
+        }
+
+        if (set.find(14) != null || set.find(46) != null || set.size() != 4) {
+            System.out.println("  removed keys still present or wrong size: " + set);
+            return false;
+        }
+        for (int key : new int[] {30, 15, 0, 3}) {
+            set.remove(key);
+        }
+        if (!set.isEmpty() || set.iterator().hasNext()) {
+            System.out.println("  set not empty after removing every key: " + set);
+            return false;
+        }
+        return true;
+    }
+
+    static boolean checkSlots(DirectOpenHashUSet set, int[][] expectedSlots) {
+        for (int[] expected : expectedSlots) {
+            int slot = set.slotOf(expected[0]);
+            if (slot != expected[1]) {
+                System.out.println("  key " + expected[0] + " in wrong slot\n" +
+                        "  expected: " + expected[1] + "\n" +
+                        "  returned: " + slot);
+                return false;
+            }
+        }
+        return set.checkProbeInvariant();
+    }
+
+    /**
+     * 渐进式扩容：插入到容量翻倍、开始迁移为止，此后每次操作删除一个尚未迁移的元素、插入一个新元素，
+     * 每一步都检查遍历和查找；迁移必须在oldCapacity / MIGRATION_STEP次操作内完成。
+     * 然后删除到触发缩容，对缩容的迁移做同样的检查
+     */
+    static boolean testMigration() {
+        HashUSet<Integer> set = new HashUSet<>(true);
+        Set<Integer> expected = new HashSet<>();
+        int next = 0;
+        while (!(set.isResizing() && set.capacity() >= MIGRATION_CHECK_CAPACITY)) {
+            set.add(next);
+            expected.add(next);
+            next += 1;
+        }
+        if (!checkMigration(set, expected, next)) {
+            return false;
+        }
+
+        int capacity = set.capacity();
+        for (int x = 0; !set.isResizing(); x++) {
+            if (set.remove(x) != null) {
+                expected.remove(x);
+            }
+        }
+        if (set.capacity() != capacity / 2) {
+            System.out.println("  shrink did not halve the capacity\n" +
+                    "  expected: " + capacity / 2 + "\n" +
+                    "  returned: " + set.capacity());
+            return false;
+        }
+        return checkMigration(set, expected, next + RANDOM_KEY_RANGE);
+    }
+
+    /**
+     * 在一次迁移进行中交替删除和插入，直到迁移完成
+     * @param next 尚未使用过的最小新元素
+     */
+    static boolean checkMigration(HashUSet<Integer> set, Set<Integer> expected, int next) {
+        int oldBuckets = 1 << set.oldLogCapacity;
+        int maxOperations = (oldBuckets + HashUSet.MIGRATION_STEP - 1) / HashUSet.MIGRATION_STEP;
+        int operations = 0;
+        while (set.isResizing()) {
+            if (!sameElements(set, expected)) {
+                return false;
+            }
+            Integer unmigrated = null;
+            for (Integer x : expected) {
+                if (set.getIndex(x, set.oldLogCapacity) >= set.migrateIndex + HashUSet.MIGRATION_STEP) {
+                    unmigrated = x;
+                    break;
+                }
+            }
+            if (unmigrated != null) {
+                // 重复插入旧表中的元素：应当发现它已存在；这次插入本身也会迁移MIGRATION_STEP个桶
+                if (set.add(unmigrated)) {
+                    System.out.println("  add(" + unmigrated + ") inserted an element still in the old table");
+                    return false;
+                }
+                operations += 1;
+            }
+            if (unmigrated != null && set.isResizing()
+                    && set.getIndex(unmigrated, set.oldLogCapacity) >= set.migrateIndex + HashUSet.MIGRATION_STEP) {
+                if (!unmigrated.equals(set.remove(unmigrated)) || set.find(unmigrated) != null) {
+                    System.out.println("  remove(" + unmigrated + ") failed on the old table");
+                    return false;
+                }
+                expected.remove(unmigrated);
+                operations += 1;
+            }
+            set.add(next);
+            expected.add(next);
+            next += 1;
+            operations += 1;
+            if (set.size() != expected.size()) {
+                System.out.println("  size disagrees during migration\n" +
+                        "  expected: " + expected.size() + "\n" +
+                        "  returned: " + set.size());
+                return false;
+            }
+        }
+        if (operations > maxOperations) {
+            System.out.println("  migration of " + oldBuckets + " buckets took " + operations +
+                    " operations, expected at most " + maxOperations);
+            return false;
+        }
+        return sameElements(set, expected);
+    }
+
+    /**
+     * 预分配SIZING_ELEMENTS个元素的容量后插入同样多的元素，不应发生扩容；
+     * 然后删除到只剩TRIM_ELEMENTS个元素，每次缩容都必须恰好减半，且缩容后插入再删除一个元素不会引起扩容（不抖动）；
+     * trimToSize把容量降到能容纳剩余元素的最小值且不丢元素；最后全部删除，容量回到初始的最小值
+     * @param table 以容量SIZING_ELEMENTS构造的空表
+     * @param loadFactor 表的装载率上限，用来计算期望的容量
+     */
+    static boolean testSizing(InstrumentedHashTable table, double loadFactor, IntConsumer add, IntConsumer remove,
+                              IntPredicate contains, Runnable trimToSize) {
+        for (int x = 0; x < SIZING_ELEMENTS; x++) {
+            add.accept(x);
+        }
+        HashTableStats stats = table.stats();
+        if (stats.capacity() != capacityFor(SIZING_ELEMENTS, loadFactor) || stats.resizeCount() != 0) {
+            System.out.println("  presized table resized or has the wrong capacity: " + stats);
+            return false;
+        }
+
+        if (!removeAndCheckShrink(table, add, remove, SIZING_ELEMENTS - 1, TRIM_ELEMENTS)) {
+            return false;
+        }
+        trimToSize.run();
+        int trimmedCapacity = table.stats().capacity();
+        if (trimmedCapacity != capacityFor(TRIM_ELEMENTS, loadFactor)) {
+            System.out.println("  trimToSize left the wrong capacity\n" +
+                    "  expected: " + capacityFor(TRIM_ELEMENTS, loadFactor) + "\n" +
+                    "  returned: " + trimmedCapacity);
+            return false;
+        }
+        for (int x = 0; x < TRIM_ELEMENTS; x++) {
+            if (!contains.test(x)) {
+                System.out.println("  element " + x + " lost by trimToSize");
+                return false;
+            }
+        }
+
+        if (!removeAndCheckShrink(table, add, remove, TRIM_ELEMENTS - 1, 0)) {
+            return false;
+        }
+        if (table.stats().capacity() != 1 << HashUSet.DEFAULT_LOG_CAPACITY) {
+            System.out.println("  empty table did not shrink to the minimum capacity: " + table.stats());
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 从from开始倒序删除，直到只剩remaining个元素，检查每一次缩容
+     */
+    static boolean removeAndCheckShrink(InstrumentedHashTable table, IntConsumer add, IntConsumer remove,
+                                       int from, int remaining) {
+        for (int x = from; x >= remaining; x--) {
+            int capacity = table.stats().capacity();
+            remove.accept(x);
+            int shrunkCapacity = table.stats().capacity();
+            if (shrunkCapacity == capacity) {
+                continue;
+            }
+            if (shrunkCapacity != capacity / 2) {
+                System.out.println("  capacity changed from " + capacity + " to " + shrunkCapacity +
+                        " after removing " + x);
+                return false;
+            }
+            add.accept(x);
+            remove.accept(x);
+            if (table.stats().capacity() != shrunkCapacity) {
+                System.out.println("  capacity thrashes around " + shrunkCapacity + " after removing " + x);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return 装载率不超过loadFactor时容纳size个元素的最小容量，不小于初始容量
+     */
+    static int capacityFor(int size, double loadFactor) {
+        int capacity = 1 << HashUSet.DEFAULT_LOG_CAPACITY;
+        while (loadFactor * capacity < size) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /**
+     * 渐进式扩容进行到一半时，迭代器、forEach和getTotalElements都要同时覆盖新表和旧表；
+     * 迁移中clear之后集合为空，旧表被丢弃，之后还能正常插入
+     */
+    static boolean testIterationWhileMigrating() {
+        HashUSet<Integer> set = new HashUSet<>(true);
+        Set<Integer> expected = new HashSet<>();
+        for (int x = 0; !(set.isResizing() && set.capacity() >= MIGRATION_CHECK_CAPACITY); x++) {
+            set.add(x);
+            expected.add(x);
+        }
+        // 再插入几个元素，让一部分桶已经迁移、一部分还在旧表中
+        for (int x = -1; set.migrateIndex == 0; x--) {
+            set.add(x);
+            expected.add(x);
+        }
+        if (!set.isResizing() || !sameElements(set, expected)) {
+            System.out.println("  iteration over both tables failed");
+            return false;
+        }
+
+        Set<Integer> visited = new HashSet<>();
+        int[] visits = {0};
+        set.forEach(x -> {
+            visited.add(x);
+            visits[0] += 1;
+        });
+        Set<Integer> collected = new HashSet<>();
+        for (Integer x : set.getTotalElements()) {
+            collected.add(x);
+        }
+        if (!visited.equals(expected) || visits[0] != expected.size() || !collected.equals(expected)
+                || set.getTotalElements().size() != expected.size()) {
+            System.out.println("  forEach or getTotalElements missed elements during migration\n" +
+                    "  expected: " + expected.size() + "\n" +
+                    "  returned: " + visits[0] + "/" + set.getTotalElements().size());
+            return false;
+        }
+
+        int capacity = set.capacity();
+        set.clear();
+        if (!set.isEmpty() || set.isResizing() || set.iterator().hasNext() || set.capacity() != capacity
+                || set.find(0) != null) {
+            System.out.println("  clear during migration left elements behind: " + set.size());
+            return false;
+        }
+        expected.clear();
+        for (int x = 0; x < RANDOM_KEY_RANGE; x++) {
+            set.add(x);
+            expected.add(x);
+        }
+        return sameElements(set, expected);
+    }
+
+    /**
+     * 比较HashSimpleMap的forEach、keys、getTotalEntries，以及通过迭代器中的Entry修改值
+     */
+    static boolean testMapIteration() {
+        HashSimpleMap<Integer, Integer> map = new HashSimpleMap<>();
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(SEED);
+        for (int i = 0; i < RANDOM_KEY_RANGE; i++) {
+            int key = random.nextInt(RANDOM_KEY_RANGE);
+            map.put(key, i);
+            expected.put(key, i);
+        }
+
+        Map<Integer, Integer> visited = new HashMap<>();
+        map.forEach(visited::put);
+        Set<Integer> keys = new HashSet<>();
+        for (Integer key : map.keys()) {
+            keys.add(key);
+        }
+        Map<Integer, Integer> entries = new HashMap<>();
+        for (HashSimpleMap.Entry<Integer, Integer> entry : map.getTotalEntries()) {
+            entries.put(entry.getKey(), entry.getValue());
+        }
+        if (!visited.equals(expected) || !keys.equals(expected.keySet()) || map.keys().size() != expected.size()
+                || !entries.equals(expected) || map.getTotalEntries().size() != expected.size()) {
+            System.out.println("  forEach, keys or getTotalEntries disagrees with the map contents");
+            return false;
+        }
+
+        for (HashSimpleMap.Entry<Integer, Integer> entry : map) {
+            entry.setValue(-entry.getValue());
+        }
+        expected.replaceAll((k, v) -> -v);
+        if (!sameEntries(map, expected)) {
+            return false;
+        }
+
+        map.clear();
+        expected.clear();
+        map.put(1, 1);
+        expected.put(1, 1);
+        return sameEntries(map, expected);
+    }
+
+    /**
+     * 固定种子的随机增删，每一步比较返回值和大小，定期比较全部元素；
+     * 恒等hash的版本同时检查探测不变式（元素与其home之间没有空位），
+     * 渐进式扩容的版本在迁移期间更频繁地比较全部元素
+     */
+    static <S extends SimpleUSet<Integer> & Iterable<Integer>> boolean testUSetRandom(S set) {
+        Set<Integer> expected = new HashSet<>();
+        Random random = new Random(SEED);
+        for (int i = 0; i < RANDOM_OPERATIONS; i++) {
+            Integer key = random.nextInt(RANDOM_KEY_RANGE);
+            // 前半段以插入为主，让表逐步扩容；后半段以删除为主，让表逐步缩容
+            boolean insert = random.nextInt(100) < (i < RANDOM_OPERATIONS / 2 ? 70 : 30);
+            if (insert) {
+                if (set.add(key) != expected.add(key)) {
+                    System.out.println("  add(" + key + ") disagrees at operation " + i);
+                    return false;
+                }
+            } else {
+                Integer removed = set.remove(key);
+                if ((removed != null) != expected.remove(key)) {
+                    System.out.println("  remove(" + key + ") disagrees at operation " + i);
+                    return false;
+                }
+            }
+            if (set.size() != expected.size()) {
+                System.out.println("  size disagrees at operation " + i + "\n" +
+                        "  expected: " + expected.size() + "\n" +
+                        "  returned: " + set.size());
+                return false;
+            }
+            boolean resizing = set instanceof HashUSet && ((HashUSet<Integer>) set).isResizing();
+            if (i % FULL_CHECK_INTERVAL == 0 || resizing && i % MIGRATION_CHECK_INTERVAL == 0) {
+                if (!sameElements(set, expected)) {
+                    return false;
+                }
+                if (set instanceof DirectOpenHashUSet && !((DirectOpenHashUSet) set).checkProbeInvariant()) {
+                    return false;
+                }
+            }
+        }
+        return sameElements(set, expected);
+    }
+
+    /**
+     * 键0由单独的字段存放，与空位的表示无关；addTo在键不存在时从0开始累加，结果为0时键仍然存在
+     */
+    static boolean testIntIntBoundaries() {
+        IntIntHashMap map = new IntIntHashMap();
+        int[] keys = {0, Integer.MIN_VALUE, Integer.MAX_VALUE, -1, 1};
+        Map<Integer, Integer> expected = new HashMap<>();
+        for (int key : keys) {
+            if (map.addTo(key, 5) != 5 || map.addTo(key, -2) != 3) {
+                System.out.println("  addTo on new key " + key + " did not start from 0, map: " + map);
+                return false;
+            }
+            expected.put(key, 3);
+        }
+        if (map.put(0, 7) != 3 || map.getOrDefault(0, -1) != 7 || map.getOrDefault(2, -1) != -1) {
+            System.out.println("  put or getOrDefault on key 0 failed, map: " + map);
+            return false;
+        }
+        expected.put(0, 7);
+        if (map.addTo(-1, -3) != 0 || !map.containsKey(-1)) {
+            System.out.println("  key -1 disappeared when its value reached 0, map: " + map);
+            return false;
+        }
+        expected.put(-1, 0);
+        if (!map.remove(0) || map.remove(0) || map.containsKey(0) || map.getOrDefault(0, -1) != -1) {
+            System.out.println("  remove(0) failed, map: " + map);
+            return false;
+        }
+        expected.remove(0);
+        if (!sameEntries(map, expected)) {
+            return false;
+        }
+        map.clear();
+        return map.isEmpty() && sameEntries(map, new HashMap<>());
+    }
+
+    /**
+     * 固定种子的put、addTo、remove、getOrDefault，键既有连续的小整数也有分散的大整数，包括0
+     */
+    static boolean testIntIntRandom() {
+        IntIntHashMap map = new IntIntHashMap();
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(SEED);
+        for (int i = 0; i < RANDOM_OPERATIONS; i++) {
+            int key = random.nextBoolean() ? random.nextInt(RANDOM_KEY_RANGE) : random.nextInt() | 1;
+            if (random.nextInt(8) == 0) {
+                key = random.nextInt(16) - 8;
+            }
+            int operation = random.nextInt(4);
+            int actual;
+            int reference;
+            if (operation == 0) {
+                actual = map.put(key, i);
+                Integer previous = expected.put(key, i);
+                reference = previous == null ? 0 : previous;
+            } else if (operation == 1) {
+                int delta = random.nextInt(9) - 4;
+                actual = map.addTo(key, delta);
+                reference = expected.merge(key, delta, Integer::sum);
+            } else if (operation == 2) {
+                actual = map.remove(key) ? 1 : 0;
+                reference = expected.remove(key) != null ? 1 : 0;
+            } else {
+                actual = map.getOrDefault(key, -1);
+                reference = expected.getOrDefault(key, -1);
+            }
+            if (actual != reference || map.containsKey(key) != expected.containsKey(key)) {
+                System.out.println("  operation " + operation + " on key " + key + " disagrees at step " + i + "\n" +
+                        "  expected: " + reference + "\n" +
+                        "  returned: " + actual);
+                return false;
+            }
+            if (map.size() != expected.size()) {
+                System.out.println("  size disagrees at step " + i);
+                return false;
+            }
+            if (i % FULL_CHECK_INTERVAL == 0 && !sameEntries(map, expected)) {
+                return false;
+            }
+        }
+        return sameEntries(map, expected);
+    }
+
+    /**
+     * 游标恰好遍历expected中的每个键值对一次
+     */
+    static boolean sameEntries(IntIntHashMap map, Map<Integer, Integer> expected) {
+        int count = 0;
+        IntIntHashMap.Cursor cursor = map.cursor();
+        while (cursor.advance()) {
+            count += 1;
+            Integer value = expected.get(cursor.key());
+            if (value == null || value != cursor.value()) {
+                System.out.println("  cursor returned " + cursor.key() + "=" + cursor.value() + ", expected " + value);
+                return false;
+            }
+        }
+        if (count != expected.size()) {
+            System.out.println("  cursor returned " + count + " entries, expected " + expected.size());
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 键'\u0000'与空位的表示无关（空位由null值表示），'\uffff'是最大的键；不允许null值；
+     * merge在结果为null时删除键
+     */
+    static boolean testCharObjectBoundaries() {
+        CharObjectHashMap<String> map = new CharObjectHashMap<>();
+        char[] keys = {'\u0000', '\uffff', 'a', '\u00ff', '\u0100'};
+        for (char key : keys) {
+            map.put(key, "v" + (int) key);
+        }
+        for (char key : keys) {
+            if (!map.containsKey(key) || !("v" + (int) key).equals(map.get(key))) {
+                System.out.println("  key " + (int) key + " not found, map: " + map);
+                return false;
+            }
+        }
+        String previous = map.put('\u0000', "new");
+        if (!"v0".equals(previous) || !"new".equals(map.get('\u0000'))) {
+            System.out.println("  put did not replace the value of key 0, map: " + map);
+            return false;
+        }
+        if (!"v97".equals(map.remove('a')) || map.containsKey('a') || !"x".equals(map.getOrDefault('a', "x"))) {
+            System.out.println("  remove('a') failed, map: " + map);
+            return false;
+        }
+        if (!"new!".equals(map.merge('\u0000', "!", String::concat)) || !"new!".equals(map.get('\u0000'))
+                || map.merge('\u0000', "?", (a, b) -> null) != null || map.containsKey('\u0000')) {
+            System.out.println("  merge on key 0 failed, map: " + map);
+            return false;
+        }
+        if (!"new".equals(map.merge('\u0000', "new", String::concat))) {
+            System.out.println("  merge on an absent key did not store the value, map: " + map);
+            return false;
+        }
+        try {
+            map.put('b', null);
+            System.out.println("  put with a null value was accepted");
+            return false;
+        } catch (NullPointerException e) {
+            // 期望的行为
+        }
+        Map<Character, String> expected = new HashMap<>();
+        for (char key : keys) {
+            expected.put(key, "v" + (int) key);
+        }
+        expected.put('\u0000', "new");
+        expected.remove('a');
+        return sameEntries(map, expected);
+    }
+
+    /**
+     * 键集中在少数几个字符附近，增删交替，比较每次的返回值，定期比较游标遍历到的全部键值对；
+     * merge的结果有一部分为0，映射为null，用来覆盖"结果为null时删除该键"的分支
+     */
+    static boolean testCharObjectRandom() {
+        CharObjectHashMap<Integer> map = new CharObjectHashMap<>();
+        Map<Character, Integer> expected = new HashMap<>();
+        Random random = new Random(SEED);
+        for (int i = 0; i < RANDOM_OPERATIONS; i++) {
+            char key = (char) (random.nextBoolean() ? random.nextInt(RANDOM_KEY_RANGE) : 0xFFFF - random.nextInt(16));
+            int operation = random.nextInt(4);
+            Integer actual;
+            Integer reference;
+            if (operation == 0) {
+                actual = map.put(key, i);
+                reference = expected.put(key, i);
+            } else if (operation == 1) {
+                actual = map.remove(key);
+                reference = expected.remove(key);
+            } else if (operation == 2) {
+                Integer delta = random.nextInt(5) - 2;
+                actual = map.merge(key, delta, HashTableTester::add);
+                reference = expected.merge(key, delta, HashTableTester::add);
+            } else {
+                actual = map.get(key);
+                reference = expected.get(key);
+            }
+            if (actual == null ? reference != null : !actual.equals(reference)) {
+                System.out.println("  operation " + operation + " on key " + (int) key + " disagrees at step " + i + "\n" +
+                        "  expected: " + reference + "\n" +
+                        "  returned: " + actual);
+                return false;
+            }
+            if (map.size() != expected.size()) {
+                System.out.println("  size disagrees at step " + i);
+                return false;
+            }
+            if (i % FULL_CHECK_INTERVAL == 0 && !sameEntries(map, expected)) {
+                return false;
+            }
+        }
+        return sameEntries(map, expected);
+    }
+
+    /**
+     * 随机混合put、get、getOrDefault、putIfAbsent、compute、merge和remove，比较每次的返回值；
+     * compute和merge有一部分返回null，用来覆盖"结果为null时删除该键"的分支
+     */
+    static boolean testHashSimpleMapRandom() {
+        HashSimpleMap<Integer, Integer> map = new HashSimpleMap<>();
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(SEED);
+        for (int i = 0; i < RANDOM_OPERATIONS; i++) {
+            Integer key = random.nextInt(RANDOM_KEY_RANGE);
+            Integer value = random.nextInt(8);
+            int operation = random.nextInt(7);
+            Integer actual;
+            Integer reference;
+            switch (operation) {
+                case 0:
+                    actual = map.put(key, value);
+                    reference = expected.put(key, value);
+                    break;
+                case 1:
+                    actual = map.get(key);
+                    reference = expected.get(key);
+                    break;
+                case 2:
+                    actual = map.getOrDefault(key, -1);
+                    reference = expected.getOrDefault(key, -1);
+                    break;
+                case 3:
+                    actual = map.putIfAbsent(key, value);
+                    reference = expected.putIfAbsent(key, value);
+                    break;
+                case 4:
+                    // 原值加value，结果为0时删除
+                    actual = map.compute(key, (k, v) -> add(v, value));
+                    reference = expected.compute(key, (k, v) -> add(v, value));
+                    break;
+                case 5:
+                    // 合并结果超过10时删除
+                    actual = map.merge(key, value, (a, b) -> a + b > 10 ? null : a + b);
+                    reference = expected.merge(key, value, (a, b) -> a + b > 10 ? null : a + b);
+                    break;
+                default:
+                    actual = map.remove(key);
+                    reference = expected.remove(key);
+                    break;
+            }
+            if (actual == null ? reference != null : !actual.equals(reference)) {
+                System.out.println("  operation " + operation + " on key " + key + " disagrees at step " + i + "\n" +
+                        "  expected: " + reference + "\n" +
+                        "  returned: " + actual);
+                return false;
+            }
+            if (map.size() != expected.size() || map.contains(key) != expected.containsKey(key)) {
+                System.out.println("  size or contains(" + key + ") disagrees at step " + i);
+                return false;
+            }
+            if (i % FULL_CHECK_INTERVAL == 0 && !sameEntries(map, expected)) {
+                return false;
+            }
+        }
+        return sameEntries(map, expected);
+    }
+
+    static Integer add(Integer v, int delta) {
+        int sum = (v == null ? 0 : v) + delta;
+        return sum == 0 ? null : sum;
+    }
+
+    /**
+     * 迭代器恰好遍历expected中的每个键值对一次
+     */
+    static boolean sameEntries(HashSimpleMap<Integer, Integer> map, Map<Integer, Integer> expected) {
+        int count = 0;
+        for (HashSimpleMap.Entry<Integer, Integer> entry : map) {
+            count += 1;
+            if (!entry.getValue().equals(expected.get(entry.getKey()))) {
+                System.out.println("  iteration returned " + entry + ", expected " + expected.get(entry.getKey()));
+                return false;
+            }
+        }
+        if (count != expected.size()) {
+            System.out.println("  iteration returned " + count + " entries, expected " + expected.size());
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 游标恰好遍历expected中的每个键值对一次
+     */
+    static <V> boolean sameEntries(CharObjectHashMap<V> map, Map<Character, V> expected) {
+        int count = 0;
+        CharObjectHashMap<V>.Cursor cursor = map.cursor();
+        while (cursor.advance()) {
+            count += 1;
+            if (!cursor.value().equals(expected.get(cursor.key()))) {
+                System.out.println("  cursor returned " + (int) cursor.key() + "=" + cursor.value() +
+                        ", expected " + expected.get(cursor.key()));
+                return false;
+            }
+        }
+        if (count != expected.size()) {
+            System.out.println("  cursor returned " + count + " entries, expected " + expected.size());
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * CONCURRENT_THREADS个线程同时merge(key, 1L, Long::sum)，一半落在少数几个热点键上制造锁竞争，
+     * 另一半分散在整个键空间，不断插入新键触发段内扩容；结束后每个键的值都等于各线程对它的计数之和，
+     * 总和恰好为线程数 x 每个线程的merge次数，扩容期间没有丢失或重复的更新
+     */
+    static boolean testConcurrentMerge() {
+        ConcurrentHashSimpleMap<Integer, Long> map = new ConcurrentHashSimpleMap<>(CONCURRENT_SEGMENTS, 0);
+        long[][] counts = new long[CONCURRENT_THREADS][CONCURRENT_KEY_RANGE];
+        Throwable[] failure = new Throwable[CONCURRENT_THREADS];
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[CONCURRENT_THREADS];
+        for (int t = 0; t < CONCURRENT_THREADS; t++) {
+            int id = t;
+            threads[t] = new Thread(() -> {
+                Random random = new Random(SEED + id);
+                try {
+                    start.await();
+                    for (int i = 0; i < CONCURRENT_MERGES; i++) {
+                        int key = random.nextBoolean() ? random.nextInt(CONCURRENT_HOT_KEYS)
+                                : random.nextInt(CONCURRENT_KEY_RANGE);
+                        map.merge(key, 1L, Long::sum);
+                        counts[id][key] += 1;
+                    }
+                } catch (Throwable e) {
+                    failure[id] = e;
+                }
+            });
+            threads[t].start();
+        }
+        start.countDown();
+        try {
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            System.out.println("  interrupted while waiting for the writers");
+            return false;
+        }
+        for (Throwable e : failure) {
+            if (e != null) {
+                System.out.println("  writer failed: " + e);
+                return false;
+            }
+        }
+
+        int keys = 0;
+        for (int key = 0; key < CONCURRENT_KEY_RANGE; key++) {
+            long expected = 0;
+            for (long[] threadCounts : counts) {
+                expected += threadCounts[key];
+            }
+            Long actual = map.get(key);
+            if (expected == 0 ? actual != null : actual == null || actual != expected) {
+                System.out.println("  count of key " + key + " disagrees\n" +
+                        "  expected: " + expected + "\n" +
+                        "  returned: " + actual);
+                return false;
+            }
+            if (expected != 0) {
+                keys += 1;
+            }
+        }
+        long[] total = {0};
+        map.forEach((key, value) -> total[0] += value);
+        if (map.size() != keys || total[0] != (long) CONCURRENT_THREADS * CONCURRENT_MERGES) {
+            System.out.println("  incorrect size or total\n" +
+                    "  expected: " + keys + " keys, " + (long) CONCURRENT_THREADS * CONCURRENT_MERGES + " merges\n" +
+                    "  returned: " + map.size() + " keys, " + total[0] + " merges");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 缓存时间内表的变化不会反映到监控的属性上；resetStats和setInstrumented之后，
+     * 下一次读取的属性必须来自新的快照，与表当前的统计一致
+     */
+    static boolean testMonitorSnapshot() {
+        OpenHashUSet<Integer> table = new OpenHashUSet<>();
+        HashTableMonitor monitor = new HashTableMonitor(table, MONITOR_SNAPSHOT_MILLIS);
+        monitor.setInstrumented(true);
+        addAndFind(table, 0, MONITOR_ELEMENTS);
+        long lookups = table.stats().lookupCount();
+        long resizes = table.stats().resizeCount();
+        if (!sameMonitorStats(monitor, MONITOR_ELEMENTS, lookups, resizes)) {
+            return false;
+        }
+
+        // 缓存期间的修改不可见
+        addAndFind(table, MONITOR_ELEMENTS, 2 * MONITOR_ELEMENTS);
+        if (!sameMonitorStats(monitor, MONITOR_ELEMENTS, lookups, resizes)) {
+            System.out.println("  snapshot was not cached");
+            return false;
+        }
+
+        monitor.resetStats();
+        if (!sameMonitorStats(monitor, 2 * MONITOR_ELEMENTS, 0, 0)) {
+            System.out.println("  resetStats did not invalidate the snapshot");
+            return false;
+        }
+
+        for (int x = 0; x < 2 * MONITOR_ELEMENTS; x++) {
+            table.find(x);
+        }
+        monitor.setInstrumented(false);
+        if (monitor.isInstrumented() || !sameMonitorStats(monitor, 2 * MONITOR_ELEMENTS, 2 * MONITOR_ELEMENTS, 0)) {
+            System.out.println("  setInstrumented did not invalidate the snapshot");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 插入[from, to)中的整数，并逐个查找一次
+     */
+    static void addAndFind(OpenHashUSet<Integer> table, int from, int to) {
+        for (int x = from; x < to; x++) {
+            table.add(x);
+            table.find(x);
+        }
+    }
+
+    static boolean sameMonitorStats(HashTableMonitor monitor, int size, long lookupCount, long resizeCount) {
+        if (monitor.getSize() != size || monitor.getLookupCount() != lookupCount ||
+                monitor.getResizeCount() != resizeCount) {
+            System.out.println("  monitor reported the wrong statistics\n" +
+                    "  expected: size=" + size + ", lookups=" + lookupCount + ", resizes=" + resizeCount + "\n" +
+                    "  returned: size=" + monitor.getSize() + ", lookups=" + monitor.getLookupCount() +
+                    ", resizes=" + monitor.getResizeCount());
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 遍历恰好得到expected中的每个元素一次，且每个元素都能找到
+     */
+    static boolean sameElements(Iterable<Integer> actual, Set<Integer> expected) {
+        Set<Integer> seen = new HashSet<>();
+        for (Integer x : actual) {
+            if (!expected.contains(x) || !seen.add(x)) {
+                System.out.println("  iteration returned " + (expected.contains(x) ? "duplicate " : "unexpected ") + x);
+                return false;
+            }
+        }
+        if (seen.size() != expected.size()) {
+            System.out.println("  iteration returned " + seen.size() + " elements, expected " + expected.size());
+            return false;
+        }
+        if (actual instanceof SimpleUSet) {
+            @SuppressWarnings("unchecked")
+            SimpleUSet<Integer> set = (SimpleUSet<Integer>) actual;
+            for (Integer x : expected) {
+                if (set.find(x) == null) {
+                    System.out.println("  element " + x + " not found");
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 以键本身作为hash的OpenHashUSet，元素所在的位置完全确定
+     */
+    static class DirectOpenHashUSet extends OpenHashUSet<Integer> {
+        @Override
+        protected int hash(Object x) {
+            return x.hashCode() & (capacity - 1);
+        }
+
+        int slotOf(int key) {
+            return indexOf(key);
+        }
+
+        /**
+         * 每个元素从home到所在位置的探测路径上都没有空位，否则查找会在空位处提前停止
+         */
+        boolean checkProbeInvariant() {
+            int mask = capacity - 1;
+            for (int j = 0; j < capacity; j++) {
+                if (table[j] == null) {
+                    continue;
+                }
+                for (int i = hash(table[j]); i != j; i = (i + 1) & mask) {
+                    if (table[i] == null) {
+                        System.out.println("  empty slot " + i + " between home " + hash(table[j]) +
+                                " and slot " + j + " of " + table[j]);
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+    }
+}
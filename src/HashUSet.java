@@ -1,13 +1,24 @@
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Random;
+import java.util.function.Consumer;
 
 @SuppressWarnings("unchecked")
-public class HashUSet<E> implements SimpleUSet<E> {
+public class HashUSet<E> implements SimpleUSet<E>, Iterable<E>, InstrumentedHashTable {
     public static final int DEFAULT_LOG_CAPACITY = 4;
 
+    /**
+     * 渐进式扩容时，每次操作最多迁移的桶数
+     * 扩容后至少还要插入capacity * loadFactor / 2个元素才会再次扩容，
+     * 而旧表只有capacity / 2个桶，所以每次迁移2个以上的桶就能在下次扩容前迁移完毕
+     */
+    public static final int MIGRATION_STEP = 8;
+
     protected int logCapacity = DEFAULT_LOG_CAPACITY; // value d from lecture
     protected int capacity = 1 << logCapacity;        // n = 2^d
     protected int size = 0;
-    protected Object[] table;                         // array of heads of linked lists
+    protected Object[] table;                         // array of heads of linked lists, null = empty list
 
     // final = can't be changed after initial assignment!
     protected final int z;
@@ -15,17 +26,52 @@ public class HashUSet<E> implements SimpleUSet<E> {
     protected double loadFactor = 0.75;
     protected double uploadFactor = 0.25;
 
+    /**
+     * 是否启用渐进式扩容
+     */
+    protected final boolean incrementalResize;
+
+    // 渐进式扩容中的旧表，以及下一个待迁移的桶，没有在迁移时oldTable为null
+    protected Object[] oldTable;
+    protected int oldLogCapacity;
+    protected int migrateIndex;
+
+    // 统计信息，运行时计数只在instrumented为true时累计
+    protected boolean instrumented;
+    protected long resizeCount;
+    protected long resizeNanos;
+    protected long lookupCount;
+    protected long lookupProbes;
+
     public HashUSet() {
-        // set capacity to 2^logCapacity
-        int capacity = 1 << logCapacity;
+        this(0, false);
+    }
 
-        table = new Object[capacity];
+    public HashUSet(boolean incrementalResize) {
+        this(0, incrementalResize);
+    }
 
-        // add a sentinel node to each list in the table
-        for (int i = 0; i < capacity; ++i) {
-            table[i] = new Node<E>(null);
-//            table[i] = null; wrong
-        }
+    /**
+     * @param expectedSize 预计的元素个数，直接分配足够的容量，批量加载时不需要逐次翻倍扩容
+     */
+    public HashUSet(int expectedSize) {
+        this(expectedSize, false);
+    }
+
+    /**
+     * @param expectedSize 预计的元素个数，直接分配足够的容量，批量加载时不需要逐次翻倍扩容
+     * @param incrementalResize 为true时，扩容和缩容不再一次性迁移所有元素，
+     *                          而是在之后的每次操作中迁移至多MIGRATION_STEP个桶，
+     *                          迁移期间的查找同时检查新表和旧表
+     */
+    public HashUSet(int expectedSize, boolean incrementalResize) {
+        this.incrementalResize = incrementalResize;
+
+        logCapacity = logCapacityFor(expectedSize);
+        capacity = 1 << logCapacity;
+
+        // 空桶直接为null，不需要为每个桶分配哨兵节点
+        table = new Object[capacity];
 
         // fix a random odd integer
         Random r = new Random();
@@ -44,24 +90,17 @@ public class HashUSet<E> implements SimpleUSet<E> {
 
     @Override
 	public boolean add(E x) {
-        int currentTableIndex = getIndex(x);
-        Node<E> currentTableNode = (Node<E>) table[currentTableIndex];
+        migrateBuckets(MIGRATION_STEP);
 
-        if (currentTableNode.value == null) {
-            currentTableNode.value = x;
-            size += 1;
-            return true;
+        if (findNode(x) != null) {
+            return false;
         }
 
-        Node<E> currentIndexLastNode = null;
-        for (Node<E> node = currentTableNode; node != null; node = node.next) {
-            if (x.equals(node.value)) {
-                return false;
-            }
-            currentIndexLastNode = node;
-        }
-
-        currentIndexLastNode.next = new Node<>(x);
+        // 新元素总是插入新表的链表头部
+        int currentTableIndex = getIndex(x);
+        Node<E> addNode = new Node<>(x);
+        addNode.next = (Node<E>) table[currentTableIndex];
+        table[currentTableIndex] = addNode;
         size += 1;
 
         if (loadFactor * capacity < size) {
@@ -73,123 +112,333 @@ public class HashUSet<E> implements SimpleUSet<E> {
 
     @Override
 	public E remove(E x) {
-        int currentTableIndex = getIndex(x);
-        Node<E> currentTableNode = (Node<E>) table[currentTableIndex];
+        migrateBuckets(MIGRATION_STEP);
 
-        if (currentTableNode.value == null) {
-            return null;
+        E removedValue = removeFromBucket(table, getIndex(x), x);
+        if (removedValue == null && oldTable != null) {
+            removedValue = removeFromBucket(oldTable, getIndex(x, oldLogCapacity), x);
         }
 
-        if (x.equals(currentTableNode.value)) {
-            E removedValue = currentTableNode.value;
-            table[currentTableIndex] = currentTableNode.next != null ?
-                    currentTableNode.next : new Node<E>(null);
+        if (removedValue != null) {
             size -= 1;
-//            if (uploadFactor * capacity > size) {
-//                decreaseCapacity();
-//            }
-            return removedValue;
-        }
-
-        Node<E> aheadNode = currentTableNode;
-        for (Node<E> node = currentTableNode; node != null; node = node.next) {
-            if (x.equals(node.value)) {
-                E removedValue = node.value;
-                aheadNode.next = node.next;
-                size -= 1;
-//                if (uploadFactor * capacity > size) {
-//                    decreaseCapacity();
-//                }
-                return removedValue;
+            // 装载率低于uploadFactor时缩容，缩容后装载率低于loadFactor的一半，
+            // 不会在扩容和缩容之间来回抖动
+            if (uploadFactor * capacity > size && logCapacity > DEFAULT_LOG_CAPACITY) {
+                decreaseCapacity();
             }
-            aheadNode = node;
         }
 
-        return null;
+        return removedValue;
     }
 
     @Override
 	public E find(E x) {
-        int currentTableIndex = getIndex(x);
-        Node<E> currentTableNode = (Node<E>) table[currentTableIndex];
+        Node<E> node = findNode(x);
+        return node != null ? node.value : null;
+    }
+
+    public ArraySimpleList<E> getTotalElements() {
+        ArraySimpleList<E> totalElements = new ArraySimpleList<>(size);
+        forEach(totalElements::add);
+        return totalElements;
+    }
 
-        if (x.equals(currentTableNode.value)) {
-            return currentTableNode.value;
+    /**
+     * 直接在桶数组上遍历所有元素，不拷贝到新的列表中
+     * 遍历期间不能修改集合
+     * @return 迭代器
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new HashUSetItr();
+    }
+
+    /**
+     * 对每个元素执行action，不分配任何对象
+     * @param action 回调
+     */
+    @Override
+    public void forEach(Consumer<? super E> action) {
+        forEachInTable(table, action);
+        if (oldTable != null) {
+            forEachInTable(oldTable, action);
         }
+    }
 
-        for (Node<E> node = currentTableNode; node != null; node = node.next) {
-            if (x.equals(node.value)) {
-                return node.value;
-            }
+    /**
+     * 清空集合，只需将桶数组置空，容量保持不变
+     */
+    public void clear() {
+        Arrays.fill(table, null);
+        oldTable = null;
+        size = 0;
+    }
+
+    /**
+     * 将容量缩小到能容纳当前元素的最小值，释放批量删除后多余的桶
+     */
+    public void trimToSize() {
+        finishMigration();
+
+        int trimmedLogCapacity = logCapacityFor(size);
+        if (trimmedLogCapacity < logCapacity) {
+            logCapacity = trimmedLogCapacity;
+            capacity = 1 << logCapacity;
+            copyTableValues();
         }
+    }
 
-        return null;
+    public int capacity() {
+        return capacity;
     }
 
-    public LinkedSimpleList<E> getTotalElements() {
-        LinkedSimpleList<E> totalElements = new LinkedSimpleList<>();
-        int count = 0;
-        for (Object o : table) {
-            for (Node<E> node = (Node<E>) o; node != null; node = node.next) {
-                if (node.value != null) {
-                    totalElements.add(count, node.value);
-                }
-            }
+    /**
+     * 是否正在进行渐进式扩容
+     * @return 旧表中是否还有未迁移的桶
+     */
+    public boolean isResizing() {
+        return oldTable != null;
+    }
+
+    /**
+     * 遍历新表和旧表，统计链表长度；渐进式扩容期间capacity为新表的容量
+     * @return 统计快照
+     */
+    @Override
+    public HashTableStats stats() {
+        long[] chainStats = new long[3]; // 非空桶数, 元素位置之和, 最长链表
+        collectChainStats(table, chainStats);
+        if (oldTable != null) {
+            collectChainStats(oldTable, chainStats);
         }
-        return totalElements;
+        return new HashTableStats(size, capacity, (int) chainStats[0],
+                size == 0 ? 0 : (double) chainStats[1] / size, (int) chainStats[2],
+                resizeCount, resizeNanos, lookupCount, lookupProbes);
+    }
+
+    @Override
+    public void setInstrumented(boolean instrumented) {
+        this.instrumented = instrumented;
+    }
+
+    @Override
+    public boolean isInstrumented() {
+        return instrumented;
+    }
+
+    @Override
+    public void resetStats() {
+        resizeCount = 0;
+        resizeNanos = 0;
+        lookupCount = 0;
+        lookupProbes = 0;
     }
 
     /**
-     * hash算法
+     * hash算法：取 z * hashCode 的高logCapacity位
+     * 直接对capacity取模时，负的hashCode会得到负的下标
      * @param x 输入的数值
      * @return 0-capacity的数值
      */
     protected int getIndex(E x) {
+        return getIndex(x, logCapacity);
+    }
+
+    protected int getIndex(E x, int logCapacity) {
         // get the first logCapacity bits of z * x.hashCode()
-//        return ((z * x.hashCode()) >>> 32 - logCapacity);
-        // raw hash function cause ArrayIndexOutOfBoundsException
-//        System.out.println(capacity);
-        return x.hashCode() % capacity;
+        return (z * x.hashCode()) >>> (32 - logCapacity);
     }
 
     protected void increaseCapacity() {
+        // 上一次渐进式扩容还没有完成时，先一次性迁移完剩余的桶
+        finishMigration();
+
+        int previousLogCapacity = logCapacity;
         logCapacity += 1;
         capacity = capacity << 1;
 
-        copyTableValues();
+        if (incrementalResize) {
+            startMigration(previousLogCapacity);
+        } else {
+            copyTableValues();
+        }
     }
 
     protected void decreaseCapacity() {
+        finishMigration();
+
+        int previousLogCapacity = logCapacity;
         logCapacity -= 1;
         capacity = capacity >> 1;
 
-        copyTableValues();
+        if (incrementalResize) {
+            startMigration(previousLogCapacity);
+        } else {
+            copyTableValues();
+        }
+    }
+
+    /**
+     * 计算容纳expectedSize个元素且装载率不超过loadFactor的最小logCapacity
+     * @param expectedSize 元素个数
+     * @return logCapacity，不小于DEFAULT_LOG_CAPACITY
+     */
+    private int logCapacityFor(int expectedSize) {
+        int log = DEFAULT_LOG_CAPACITY;
+        while (loadFactor * (1L << log) < expectedSize) {
+            log += 1;
+        }
+        return log;
+    }
+
+    /**
+     * 在新表和旧表中查找元素所在的节点
+     * @param x 待查找的元素
+     * @return 元素所在的节点，不存在时返回null
+     */
+    private Node<E> findNode(E x) {
+        int probes = 0;
+        Node<E> found = null;
+        for (Node<E> node = (Node<E>) table[getIndex(x)]; node != null; node = node.next) {
+            probes += 1;
+            if (x.equals(node.value)) {
+                found = node;
+                break;
+            }
+        }
+
+        if (found == null && oldTable != null) {
+            for (Node<E> node = (Node<E>) oldTable[getIndex(x, oldLogCapacity)]; node != null; node = node.next) {
+                probes += 1;
+                if (x.equals(node.value)) {
+                    found = node;
+                    break;
+                }
+            }
+        }
+
+        if (instrumented) {
+            lookupCount += 1;
+            lookupProbes += probes;
+        }
+        return found;
+    }
+
+    private void collectChainStats(Object[] buckets, long[] chainStats) {
+        for (Object o : buckets) {
+            int position = 0;
+            for (Node<E> node = (Node<E>) o; node != null; node = node.next) {
+                position += 1;
+                chainStats[1] += position;
+            }
+            if (position > 0) {
+                chainStats[0] += 1;
+                chainStats[2] = Math.max(chainStats[2], position);
+            }
+        }
+    }
+
+    private void forEachInTable(Object[] buckets, Consumer<? super E> action) {
+        for (Object o : buckets) {
+            for (Node<E> node = (Node<E>) o; node != null; node = node.next) {
+                action.accept(node.value);
+            }
+        }
+    }
+
+    /**
+     * 从指定表的指定桶中删除元素
+     * @return 被删除的元素，不存在时返回null
+     */
+    private E removeFromBucket(Object[] buckets, int index, E x) {
+        Node<E> aheadNode = null;
+        for (Node<E> node = (Node<E>) buckets[index]; node != null; node = node.next) {
+            if (x.equals(node.value)) {
+                if (aheadNode == null) {
+                    buckets[index] = node.next;
+                } else {
+                    aheadNode.next = node.next;
+                }
+                return node.value;
+            }
+            aheadNode = node;
+        }
+        return null;
+    }
+
+    /**
+     * 开始渐进式扩容（或缩容）：当前表成为旧表，按新的容量分配空的新表
+     * @param previousLogCapacity 旧表的logCapacity
+     */
+    private void startMigration(int previousLogCapacity) {
+        resizeCount += 1;
+        oldTable = table;
+        oldLogCapacity = previousLogCapacity;
+        migrateIndex = 0;
+        table = new Object[capacity];
+    }
+
+    /**
+     * 从旧表中迁移至多maxBuckets个桶到新表
+     * @param maxBuckets 最多迁移的桶数
+     */
+    private void migrateBuckets(int maxBuckets) {
+        if (oldTable == null) {
+            return;
+        }
+
+        long startNanos = instrumented ? System.nanoTime() : 0;
+        int end = Math.min(oldTable.length, migrateIndex + maxBuckets);
+        for (; migrateIndex < end; migrateIndex++) {
+            relinkNodes((Node<E>) oldTable[migrateIndex]);
+            oldTable[migrateIndex] = null;
+        }
+        if (instrumented) {
+            resizeNanos += System.nanoTime() - startNanos;
+        }
+
+        if (migrateIndex == oldTable.length) {
+            oldTable = null;
+        }
+    }
+
+    private void finishMigration() {
+        if (oldTable != null) {
+            migrateBuckets(oldTable.length);
+        }
+    }
+
+    /**
+     * 将一条链表上的节点重新挂到当前表中，复用节点对象，不分配新节点
+     * @param node 链表头
+     */
+    private void relinkNodes(Node<E> node) {
+        while (node != null) {
+            Node<E> nextNode = node.next;
+            int index = getIndex(node.value);
+            node.next = (Node<E>) table[index];
+            table[index] = node;
+            node = nextNode;
+        }
     }
 
     private void copyTableValues() {
+        resizeCount += 1;
+        long startNanos = instrumented ? System.nanoTime() : 0;
+
         // store the old hash table
         Object[] oldTable = table;
 
-        // make a new has table and initialize it
+        // make a new hash table, empty buckets stay null
         table = new Object[capacity];
 
-        for (int i = 0; i < table.length; ++i) {
-            table[i] = new Node<E>(null);
+        // iterate over lists in oldTable and move their nodes to the new table
+        for (Object o : oldTable) {
+            relinkNodes((Node<E>) o);
         }
 
-        // reset the size to 0 since it will get incremented when we
-        // add elements to the new table
-        size = 0;
-
-        // iterate over lists in oldTable and add elements to new table
-        for (Object o : oldTable) {
-            Node<E> nd = ((Node<E>) o);
-            while (nd != null) {
-                if (nd.value != null) {
-                    this.add(nd.value);
-                }
-                nd = nd.next;
-            }
+        if (instrumented) {
+            resizeNanos += System.nanoTime() - startNanos;
         }
     }
 
@@ -202,20 +451,75 @@ public class HashUSet<E> implements SimpleUSet<E> {
         }
     }
 
+    /**
+     * 桶数组迭代器，先遍历新表，渐进式扩容期间再遍历旧表
+     */
+    private class HashUSetItr implements Iterator<E> {
+        private Object[] buckets = table;
+
+        private int bucketIndex = 0;
+
+        private Node<E> nextNode;
+
+        public HashUSetItr() {
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextNode != null;
+        }
+
+        @Override
+        public E next() {
+            if (nextNode == null) {
+                throw new NoSuchElementException();
+            }
+            E currentValue = nextNode.value;
+            advance();
+            return currentValue;
+        }
+
+        private void advance() {
+            if (nextNode != null) {
+                nextNode = nextNode.next;
+            }
+            while (nextNode == null) {
+                if (bucketIndex < buckets.length) {
+                    nextNode = (Node<E>) buckets[bucketIndex];
+                    bucketIndex += 1;
+                } else if (buckets == table && oldTable != null) {
+                    buckets = oldTable;
+                    bucketIndex = 0;
+                } else {
+                    return;
+                }
+            }
+        }
+    }
+
     @Override
     public String toString() {
         StringBuilder resStr = new StringBuilder("HashUSet{\n");
-        String[] resStrArr = new String[table.length];
-        for (int i = 0; i < table.length; i++) {
+        appendTable(resStr, table);
+        if (oldTable != null) {
+            resStr.append("\t(resizing, old table)\n");
+            appendTable(resStr, oldTable);
+        }
+        resStr.append("}");
+        return resStr.toString();
+    }
+
+    private void appendTable(StringBuilder resStr, Object[] buckets) {
+        String[] resStrArr = new String[buckets.length];
+        for (int i = 0; i < buckets.length; i++) {
             resStrArr[i] = "index: " + i + " ; values: ";
-            for (Node<E> node = (Node<E>) table[i]; node != null; node = node.next) {
+            for (Node<E> node = (Node<E>) buckets[i]; node != null; node = node.next) {
                 resStrArr[i] += (node.value + " ");
             }
         }
         for (int i = 0; i < resStrArr.length; i++) {
             resStr.append("\t").append(resStrArr[i]).append("\n");
         }
-        resStr.append("}");
-        return resStr.toString();
     }
 }
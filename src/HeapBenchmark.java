@@ -0,0 +1,294 @@
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * @author YFCodeDream
+ * @version 1.0.0
+ * @date 2026/10/19
+ * @description 优先队列的性能对比
+ * 1. 双端：先插入n个随机优先级，再重复“插入两个、removeMin、removeMax”，队列大小保持为n；
+ *    比较最小-最大堆与“一个最小堆加一个最大堆、删除时在另一个堆里做惰性标记”的做法
+ * 2. 建堆：逐个insert与Floyd批量建堆
+ * 3. 分叉数：批量建堆后全部removeMin，比较2叉、4叉、8叉
+ * 用法：java HeapBenchmark [操作轮数]
+ */
+public class HeapBenchmark {
+    public static final int DEFAULT_ROUNDS = 1_000_000;
+
+    private static final int[] SIZES = {1_000, 100_000, 1_000_000};
+
+    private static final int[] BUILD_SIZES = {1_000, 10_000, 100_000, 1_000_000, 10_000_000};
+
+    private static final int[] ARITIES = {2, 4, 8};
+
+    public static void main(String[] args) {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ROUNDS;
+
+        // 预热
+        runMinMaxHeap(SIZES[0], rounds, 1);
+        runTwoHeaps(SIZES[0], rounds, 1);
+
+        System.out.printf("%-10s %16s %16s%n", "size", "min-max(ms)", "two heaps(ms)");
+        for (int n : SIZES) {
+            long minMax = runMinMaxHeap(n, rounds, 42);
+            long twoHeaps = runTwoHeaps(n, rounds, 42);
+            System.out.printf("%-10d %16d %16d%n", n, minMax, twoHeaps);
+        }
+
+        System.out.println();
+        System.out.printf("%-10s %16s %16s%n", "size", "insert(ms)", "heapify(ms)");
+        for (int n : BUILD_SIZES) {
+            long[] priorities = randomPriorities(n, 7);
+            long inserted = runInsertBuild(priorities);
+            long heapified = runHeapify(priorities, CompleteBinaryHeapPriorityDeque.DEFAULT_ARITY);
+            System.out.printf("%-10d %16d %16d%n", n, inserted, heapified);
+        }
+
+        System.out.println();
+        System.out.printf("%-10s", "size");
+        for (int arity : ARITIES) {
+            System.out.printf(" %13s", arity + "-ary(ms)");
+        }
+        System.out.println();
+        for (int n : BUILD_SIZES) {
+            long[] priorities = randomPriorities(n, 11);
+            System.out.printf("%-10d", n);
+            for (int arity : ARITIES) {
+                System.out.printf(" %13d", runDrain(priorities, arity));
+            }
+            System.out.println();
+        }
+    }
+
+    private static long[] randomPriorities(int n, long seed) {
+        Random random = new Random(seed);
+        long[] priorities = new long[n];
+        for (int i = 0; i < n; i++) {
+            priorities[i] = random.nextInt();
+        }
+        return priorities;
+    }
+
+    private static Integer[] sameValues(int n) {
+        Integer[] values = new Integer[n];
+        Arrays.fill(values, 0);
+        return values;
+    }
+
+    private static long runInsertBuild(long[] priorities) {
+        Integer value = 0;
+        RunTimer timer = new RunTimer();
+        timer.start();
+        CompleteBinaryHeapPriorityDeque<Integer> deque = new CompleteBinaryHeapPriorityDeque<>();
+        for (long priority : priorities) {
+            deque.insert(priority, value);
+        }
+        timer.stop();
+        consume(deque.minPriority());
+        return timer.getElapsedMillis();
+    }
+
+    private static long runHeapify(long[] priorities, int arity) {
+        Integer[] values = sameValues(priorities.length);
+        RunTimer timer = new RunTimer();
+        timer.start();
+        CompleteBinaryHeapPriorityDeque<Integer> deque = new CompleteBinaryHeapPriorityDeque<>(priorities, values, arity);
+        timer.stop();
+        consume(deque.minPriority());
+        return timer.getElapsedMillis();
+    }
+
+    /**
+     * 批量建堆后依次removeMin直到为空，下滤占了绝大部分时间
+     */
+    private static long runDrain(long[] priorities, int arity) {
+        CompleteBinaryHeapPriorityDeque<Integer> deque =
+                new CompleteBinaryHeapPriorityDeque<>(priorities, sameValues(priorities.length), arity);
+        RunTimer timer = new RunTimer();
+        timer.start();
+        long checksum = 0;
+        while (!deque.isEmpty()) {
+            checksum += deque.minPriority();
+            deque.removeMin();
+        }
+        timer.stop();
+        consume(checksum);
+        return timer.getElapsedMillis();
+    }
+
+    private static long runMinMaxHeap(int n, int rounds, long seed) {
+        Random random = new Random(seed);
+        CompleteBinaryHeapPriorityDeque<Integer> deque = new CompleteBinaryHeapPriorityDeque<>();
+        Integer value = 0;
+
+        RunTimer timer = new RunTimer();
+        timer.start();
+        for (int i = 0; i < n; i++) {
+            deque.insert(random.nextInt(), value);
+        }
+        long checksum = 0;
+        for (int r = 0; r < rounds; r++) {
+            deque.insert(random.nextInt(), value);
+            deque.insert(random.nextInt(), value);
+            checksum += deque.minPriority();
+            deque.removeMin();
+            checksum -= deque.maxPriority();
+            deque.removeMax();
+        }
+        timer.stop();
+
+        consume(checksum);
+        return timer.getElapsedMillis();
+    }
+
+    private static long runTwoHeaps(int n, int rounds, long seed) {
+        Random random = new Random(seed);
+        TwoHeapDeque deque = new TwoHeapDeque(n + 2);
+
+        RunTimer timer = new RunTimer();
+        timer.start();
+        for (int i = 0; i < n; i++) {
+            deque.insert(random.nextInt());
+        }
+        long checksum = 0;
+        for (int r = 0; r < rounds; r++) {
+            deque.insert(random.nextInt());
+            deque.insert(random.nextInt());
+            checksum += deque.removeMin();
+            checksum -= deque.removeMax();
+        }
+        timer.stop();
+
+        consume(checksum);
+        return timer.getElapsedMillis();
+    }
+
+    private static volatile long sink;
+
+    private static void consume(long value) {
+        sink += value;
+    }
+
+    /**
+     * 对照组：最小堆和最大堆各存一份(优先级, 编号)，编号对应的槽位记录是否已被另一个堆删除
+     * 被删除的槽位放回空闲栈中复用
+     */
+    private static class TwoHeapDeque {
+        private final LongBinaryHeap minHeap;
+
+        private final LongBinaryHeap maxHeap;
+
+        private boolean[] removed;
+
+        private int[] freeSlots;
+
+        private int freeCount;
+
+        private int nextSlot;
+
+        TwoHeapDeque(int capacity) {
+            minHeap = new LongBinaryHeap(capacity);
+            maxHeap = new LongBinaryHeap(capacity);
+            removed = new boolean[capacity];
+            freeSlots = new int[capacity];
+        }
+
+        void insert(int priority) {
+            int slot;
+            if (freeCount > 0) {
+                freeCount -= 1;
+                slot = freeSlots[freeCount];
+            } else {
+                if (nextSlot == removed.length) {
+                    removed = Arrays.copyOf(removed, nextSlot * 2);
+                    freeSlots = Arrays.copyOf(freeSlots, nextSlot * 2);
+                }
+                slot = nextSlot;
+                nextSlot += 1;
+            }
+            removed[slot] = false;
+            // 高32位为优先级，低32位为槽位，按long比较即先按优先级比较
+            long key = (long) priority << 32 | slot;
+            minHeap.push(key);
+            maxHeap.push(~key);
+        }
+
+        int removeMin() {
+            return removeFrom(minHeap, false);
+        }
+
+        int removeMax() {
+            return removeFrom(maxHeap, true);
+        }
+
+        private int removeFrom(LongBinaryHeap heap, boolean inverted) {
+            while (true) {
+                long key = heap.pop();
+                if (inverted) {
+                    key = ~key;
+                }
+                int slot = (int) key;
+                if (removed[slot]) {
+                    // 已被另一个堆删除，槽位在两个堆中都不再出现后才能复用
+                    removed[slot] = false;
+                    freeSlots[freeCount] = slot;
+                    freeCount += 1;
+                    continue;
+                }
+                removed[slot] = true;
+                return (int) (key >> 32);
+            }
+        }
+    }
+
+    /**
+     * long[]上的二叉最小堆
+     */
+    private static class LongBinaryHeap {
+        private long[] heap;
+
+        private int size;
+
+        LongBinaryHeap(int capacity) {
+            heap = new long[Math.max(1, capacity)];
+        }
+
+        void push(long key) {
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, size * 2);
+            }
+            int i = size;
+            size += 1;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (key >= heap[parent]) {
+                    break;
+                }
+                heap[i] = heap[parent];
+                i = parent;
+            }
+            heap[i] = key;
+        }
+
+        long pop() {
+            long top = heap[0];
+            size -= 1;
+            long key = heap[size];
+            int i = 0;
+            int half = size >>> 1;
+            while (i < half) {
+                int child = 2 * i + 1;
+                if (child + 1 < size && heap[child + 1] < heap[child]) {
+                    child += 1;
+                }
+                if (key <= heap[child]) {
+                    break;
+                }
+                heap[i] = heap[child];
+                i = child;
+            }
+            heap[i] = key;
+            return top;
+        }
+    }
+}
@@ -0,0 +1,551 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * @author YFCodeDream
+ * @version 1.0.0
+ * @date 2026/10/19
+ * @description CompleteBinaryHeapPriorityDeque的确定性测试，写法与HuffmanTester相同：逐项打印，失败时给出期望值与实际值并退出
+ * 随机操作序列都使用固定的种子，与按优先级排序的多重集合逐步比较
+ */
+public class HeapTester {
+    public static final long SEED = 20261019L;
+
+    public static final int RANDOM_OPERATIONS = 200_000;
+
+    // 增长阶段和缩短阶段交替，每个阶段的操作数
+    public static final int PHASE_LENGTH = 5_000;
+
+    // 优先级的取值范围较小，保证有大量相同的优先级
+    public static final int PRIORITY_RANGE = 1000;
+
+    public static final int[] ARITIES = {3, 4, 8};
+
+    // 批量建堆测试覆盖0到MAX_HEAPIFY_SIZE的每个大小，最后一层从空到满的各种情况都会出现
+    public static final int MAX_HEAPIFY_SIZE = 600;
+
+    // MultiQueue：生产者和消费者同时运行，每个生产者插入的值互不相同
+    public static final int MULTIQUEUE_PRODUCERS = 4;
+    public static final int MULTIQUEUE_CONSUMERS = 4;
+    public static final int MULTIQUEUE_INSERTS = 50_000;
+
+    public static void main(String[] args) {
+        System.out.println("Testing min-max heap...");
+        System.out.println("  testing random insert/removeMin/removeMax against a sorted multiset...");
+        report(testRandom(CompleteBinaryHeapPriorityDeque.DEFAULT_ARITY));
+
+        System.out.println("  testing an empty heap...");
+        report(testEmpty());
+
+        System.out.println("Testing d-ary heaps...");
+        System.out.println("  testing random operations with arity 3, 4 and 8...");
+        boolean passed = true;
+        for (int arity : ARITIES) {
+            passed = passed && testRandom(arity);
+        }
+        report(passed);
+
+        System.out.println("  testing bulk heapify of every size up to " + MAX_HEAPIFY_SIZE + "...");
+        report(testHeapify());
+
+        System.out.println("  testing invalid arguments...");
+        report(rejects(() -> new CompleteBinaryHeapPriorityDeque<Integer>(1))
+                && rejects(() -> new CompleteBinaryHeapPriorityDeque<>(new long[2], new Integer[1], 2))
+                && rejects(() -> new CompleteBinaryHeapPriorityDeque<>(new long[0], new Integer[0], 0)));
+
+        System.out.println("Testing addressable heap...");
+        System.out.println("  testing decreaseKey, increaseKey and remove by handle...");
+        report(testAddressable(CompleteBinaryHeapPriorityDeque.DEFAULT_ARITY) && testAddressable(4));
+
+        System.out.println("  testing handle invalidation and reuse after removal...");
+        report(testHandleInvalidation());
+
+        System.out.println("  testing handles of a bulk-built heap...");
+        report(testAddressableHeapify());
+
+        System.out.println("Testing MultiQueue...");
+        System.out.println("  testing that concurrent producers and consumers see every element exactly once...");
+        report(testMultiQueueDrain());
+    }
+
+    static void report(boolean passed) {
+        if (passed) {
+            System.out.println("  ...test passed");
+        } else {
+            System.out.println("  ...test failed");
+            System.exit(0);
+        }
+    }
+
+    /**
+     * 固定种子的随机插入、removeMin、removeMax，每一步比较最小和最大优先级；
+     * 值是插入的序号，删除时检查值对应的优先级就是被删除的优先级，即优先级和值没有错位
+     * 优先级中混入Long.MIN_VALUE和Long.MAX_VALUE
+     */
+    static boolean testRandom(int arity) {
+        CompleteBinaryHeapPriorityDeque<Integer> heap = new CompleteBinaryHeapPriorityDeque<>(arity);
+        Multiset expected = new Multiset();
+        Random random = new Random(SEED);
+        for (int step = 0; step < RANDOM_OPERATIONS; step++) {
+            boolean growing = (step / PHASE_LENGTH) % 2 == 0;
+            int operation = random.nextInt(10);
+            if (expected.isEmpty() || operation < (growing ? 6 : 4)) {
+                long priority = randomPriority(random);
+                heap.insert(priority, step);
+                expected.add(step, priority);
+            } else if (operation < 7) {
+                if (!expected.removeMin(heap.minPriority(), heap.removeMin(), step)) {
+                    return false;
+                }
+            } else {
+                if (!expected.removeMax(heap.maxPriority(), heap.removeMax(), step)) {
+                    return false;
+                }
+            }
+            if (!expected.matches(heap, step)) {
+                return false;
+            }
+        }
+        while (!heap.isEmpty()) {
+            if (!expected.removeMax(heap.maxPriority(), heap.removeMax(), RANDOM_OPERATIONS)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 空堆上取最小最大值抛出IllegalStateException；只有一个元素时它既是最小值也是最大值
+     */
+    static boolean testEmpty() {
+        CompleteBinaryHeapPriorityDeque<Integer> heap = new CompleteBinaryHeapPriorityDeque<>();
+        if (!throwsIllegalState(heap::removeMin) || !throwsIllegalState(heap::removeMax)
+                || !throwsIllegalState(heap::min) || !throwsIllegalState(heap::max)) {
+            return false;
+        }
+        heap.insert(5, 5);
+        if (heap.min() != 5 || heap.max() != 5 || heap.removeMax() != 5 || !heap.isEmpty()) {
+            System.out.println("  single element is not both min and max: " + heap);
+            return false;
+        }
+        return throwsIllegalState(heap::minPriority) && throwsIllegalState(heap::maxPriority);
+    }
+
+    static boolean throwsIllegalState(Runnable operation) {
+        try {
+            operation.run();
+        } catch (IllegalStateException e) {
+            return true;
+        }
+        System.out.println("  operation on an empty heap did not throw");
+        return false;
+    }
+
+    /**
+     * 对每个arity（包括2）和每个大小n，用随机优先级批量建堆，检查最小最大值，
+     * 再插入一个元素（大小不小于默认容量时数组恰好已满，这次插入需要扩容），然后交替removeMin和removeMax取空
+     */
+    static boolean testHeapify() {
+        Random random = new Random(SEED);
+        int[] arities = new int[ARITIES.length + 1];
+        arities[0] = CompleteBinaryHeapPriorityDeque.DEFAULT_ARITY;
+        System.arraycopy(ARITIES, 0, arities, 1, ARITIES.length);
+        for (int arity : arities) {
+            for (int n = 0; n <= MAX_HEAPIFY_SIZE; n++) {
+                long[] priorities = new long[n];
+                Integer[] values = new Integer[n];
+                Multiset expected = new Multiset();
+                for (int j = 0; j < n; j++) {
+                    priorities[j] = randomPriority(random);
+                    values[j] = j;
+                    expected.add(j, priorities[j]);
+                }
+                CompleteBinaryHeapPriorityDeque<Integer> heap =
+                        new CompleteBinaryHeapPriorityDeque<>(priorities, values, arity);
+                if (heap.arity() != arity || !expected.matches(heap, n)) {
+                    System.out.println("  heapify failed with arity " + arity + " and size " + n);
+                    return false;
+                }
+                long priority = randomPriority(random);
+                heap.insert(priority, n);
+                expected.add(n, priority);
+                for (int step = 0; !heap.isEmpty(); step++) {
+                    boolean removed = step % 2 == 0
+                            ? expected.removeMin(heap.minPriority(), heap.removeMin(), step)
+                            : expected.removeMax(heap.maxPriority(), heap.removeMax(), step);
+                    if (!removed || !expected.matches(heap, step)) {
+                        System.out.println("  draining failed with arity " + arity + " and size " + n);
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 可寻址模式下的随机操作：插入、按句柄减小或增大优先级、按句柄删除、removeMin、removeMax
+     * 每一步检查一个随机的存活句柄仍然指向它的值和优先级，被删除元素的句柄立即失效
+     */
+    static boolean testAddressable(int arity) {
+        CompleteBinaryHeapPriorityDeque<Integer> heap = new CompleteBinaryHeapPriorityDeque<>(arity, true);
+        Multiset expected = new Multiset();
+        // 存活的值，以及每个值的句柄
+        List<Integer> live = new ArrayList<>();
+        Map<Integer, Integer> handles = new HashMap<>();
+        Random random = new Random(SEED);
+        for (int step = 0; step < RANDOM_OPERATIONS; step++) {
+            boolean growing = (step / PHASE_LENGTH) % 2 == 0;
+            int operation = random.nextInt(10);
+            Integer removed = null;
+            if (live.isEmpty() || operation < (growing ? 5 : 3)) {
+                long priority = randomPriority(random);
+                int handle = heap.insert(priority, step);
+                if (!Integer.valueOf(step).equals(heap.get(handle)) || heap.priority(handle) != priority) {
+                    System.out.println("  new handle " + handle + " does not refer to the inserted element at step " + step);
+                    return false;
+                }
+                expected.add(step, priority);
+                live.add(step);
+                handles.put(step, handle);
+            } else if (operation < 7) {
+                int value = live.get(random.nextInt(live.size()));
+                int handle = handles.get(value);
+                long priority = expected.priorities.get(value);
+                // 取到边界值时不能再减小或增大
+                long delta = random.nextInt(PRIORITY_RANGE);
+                boolean decrease = operation < 5 ? priority != Long.MIN_VALUE : priority == Long.MAX_VALUE;
+                long newPriority = decrease ? Math.max(Long.MIN_VALUE + delta, priority) - delta
+                        : Math.min(Long.MAX_VALUE - delta, priority) + delta;
+                if (decrease) {
+                    heap.decreaseKey(handle, newPriority);
+                } else {
+                    heap.increaseKey(handle, newPriority);
+                }
+                expected.remove(value, priority, step);
+                expected.add(value, newPriority);
+            } else if (operation == 7) {
+                int value = live.get(random.nextInt(live.size()));
+                long priority = heap.priority(handles.get(value));
+                removed = heap.remove(handles.get(value));
+                if (removed != value || !expected.remove(value, priority, step)) {
+                    System.out.println("  remove by handle returned " + removed + ", expected " + value);
+                    return false;
+                }
+            } else if (operation == 8) {
+                long priority = heap.minPriority();
+                removed = heap.removeMin();
+                if (!expected.removeMin(priority, removed, step)) {
+                    return false;
+                }
+            } else {
+                long priority = heap.maxPriority();
+                removed = heap.removeMax();
+                if (!expected.removeMax(priority, removed, step)) {
+                    return false;
+                }
+            }
+
+            if (removed != null) {
+                live.remove(removed);
+                int handle = handles.remove(removed);
+                if (heap.contains(handle)) {
+                    System.out.println("  handle " + handle + " still valid after its element was removed at step " + step);
+                    return false;
+                }
+            }
+            if (!live.isEmpty()) {
+                int value = live.get(random.nextInt(live.size()));
+                int handle = handles.get(value);
+                if (!heap.contains(handle) || !Integer.valueOf(value).equals(heap.get(handle))
+                        || heap.priority(handle) != expected.priorities.get(value)) {
+                    System.out.println("  handle " + handle + " no longer refers to value " + value + " at step " + step);
+                    return false;
+                }
+            }
+            if (!expected.matches(heap, step)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 删除后的句柄在contains中返回false，按句柄访问抛出IllegalArgumentException；
+     * 优先级朝错误方向修改时抛出IllegalArgumentException且堆不变；
+     * 之后的insert复用该句柄，它指向新插入的元素；非可寻址的堆不支持句柄
+     */
+    static boolean testHandleInvalidation() {
+        CompleteBinaryHeapPriorityDeque<Integer> heap = new CompleteBinaryHeapPriorityDeque<>(2, true);
+        int a = heap.insert(10, 10);
+        int b = heap.insert(20, 20);
+        int c = heap.insert(30, 30);
+        if (heap.removeMin() != 10 || heap.remove(c) != 30) {
+            System.out.println("  wrong elements removed: " + heap);
+            return false;
+        }
+        for (int stale : new int[] {a, c}) {
+            if (heap.contains(stale) || !rejects(() -> heap.get(stale)) || !rejects(() -> heap.priority(stale))
+                    || !rejects(() -> heap.remove(stale)) || !rejects(() -> heap.decreaseKey(stale, 0))
+                    || !rejects(() -> heap.increaseKey(stale, 100))) {
+                System.out.println("  removed handle " + stale + " is still usable");
+                return false;
+            }
+        }
+        if (heap.contains(-1) || heap.contains(3) || !rejects(() -> heap.get(3))) {
+            System.out.println("  handle that was never issued is usable");
+            return false;
+        }
+
+        if (!rejects(() -> heap.decreaseKey(b, 21)) || !rejects(() -> heap.increaseKey(b, 19))
+                || heap.priority(b) != 20 || heap.size() != 1) {
+            System.out.println("  priority changed in the wrong direction was accepted: " + heap);
+            return false;
+        }
+
+        int d = heap.insert(5, 5);
+        int e = heap.insert(40, 40);
+        if ((d != a && d != c) || (e != a && e != c) || d == e) {
+            System.out.println("  released handles " + a + " and " + c + " were not reused: " + d + ", " + e);
+            return false;
+        }
+        if (heap.get(d) != 5 || heap.get(e) != 40 || heap.get(b) != 20 || heap.min() != 5 || heap.max() != 40) {
+            System.out.println("  reused handles refer to the wrong elements: " + heap);
+            return false;
+        }
+
+        CompleteBinaryHeapPriorityDeque<Integer> plain = new CompleteBinaryHeapPriorityDeque<>();
+        if (plain.insert(1, 1) != CompleteBinaryHeapPriorityDeque.NO_HANDLE) {
+            System.out.println("  non-addressable insert returned a handle");
+            return false;
+        }
+        try {
+            plain.contains(0);
+            System.out.println("  non-addressable heap accepted a handle");
+            return false;
+        } catch (UnsupportedOperationException ex) {
+            return true;
+        }
+    }
+
+    /**
+     * 批量建堆时第j个元素的句柄就是j，建堆移动元素之后句柄仍然指向原来的元素
+     */
+    static boolean testAddressableHeapify() {
+        Random random = new Random(SEED);
+        for (int arity : new int[] {2, 3, 4, 8}) {
+            int n = MAX_HEAPIFY_SIZE;
+            long[] priorities = new long[n];
+            Integer[] values = new Integer[n];
+            for (int j = 0; j < n; j++) {
+                priorities[j] = randomPriority(random);
+                values[j] = j;
+            }
+            CompleteBinaryHeapPriorityDeque<Integer> heap =
+                    new CompleteBinaryHeapPriorityDeque<>(priorities, values, arity, true);
+            for (int j = 0; j < n; j++) {
+                if (!heap.contains(j) || heap.get(j) != j || heap.priority(j) != priorities[j]) {
+                    System.out.println("  handle " + j + " of the bulk-built heap is wrong with arity " + arity);
+                    return false;
+                }
+            }
+            // 句柄j的元素值也是j，删除后句柄失效，下一次插入复用它
+            int removed = heap.removeMin();
+            int handle = heap.insert(0, n);
+            if (heap.contains(n) || handle != removed || heap.get(handle) != n) {
+                System.out.println("  handle " + removed + " was not invalidated and reused with arity " + arity);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static boolean rejects(Runnable operation) {
+        try {
+            operation.run();
+        } catch (IllegalArgumentException e) {
+            return true;
+        }
+        System.out.println("  invalid argument was accepted");
+        return false;
+    }
+
+    /**
+     * 生产者并发插入互不相同的值，消费者同时removeMin，直到生产者全部结束且队列取空；
+     * 所有消费者取到的值合起来恰好是插入的每个值各一次，结束时队列为空
+     */
+    static boolean testMultiQueueDrain() {
+        MultiQueue<Integer> queue = new MultiQueue<>(MULTIQUEUE_PRODUCERS + MULTIQUEUE_CONSUMERS,
+                MultiQueue.DEFAULT_QUEUES_PER_THREAD);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch producersDone = new CountDownLatch(MULTIQUEUE_PRODUCERS);
+        List<List<Integer>> taken = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        Throwable[] failure = new Throwable[1];
+
+        for (int p = 0; p < MULTIQUEUE_PRODUCERS; p++) {
+            int id = p;
+            threads.add(new Thread(() -> {
+                Random random = new Random(SEED + id);
+                try {
+                    start.await();
+                    for (int i = 0; i < MULTIQUEUE_INSERTS; i++) {
+                        queue.insert(randomPriority(random), id * MULTIQUEUE_INSERTS + i);
+                    }
+                } catch (Throwable e) {
+                    failure[0] = e;
+                } finally {
+                    producersDone.countDown();
+                }
+            }));
+        }
+        for (int c = 0; c < MULTIQUEUE_CONSUMERS; c++) {
+            List<Integer> values = new ArrayList<>();
+            taken.add(values);
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                    while (true) {
+                        // 先确认生产者已全部结束，再看到null才说明元素已经取完
+                        boolean finished = producersDone.getCount() == 0;
+                        Integer value = queue.removeMin();
+                        if (value != null) {
+                            values.add(value);
+                        } else if (finished) {
+                            return;
+                        }
+                    }
+                } catch (Throwable e) {
+                    failure[0] = e;
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        start.countDown();
+        try {
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            System.out.println("  interrupted while waiting for the workers");
+            return false;
+        }
+        if (failure[0] != null) {
+            System.out.println("  worker failed: " + failure[0]);
+            return false;
+        }
+
+        int total = MULTIQUEUE_PRODUCERS * MULTIQUEUE_INSERTS;
+        boolean[] seen = new boolean[total];
+        int count = 0;
+        for (List<Integer> values : taken) {
+            for (int value : values) {
+                if (value < 0 || value >= total || seen[value]) {
+                    System.out.println("  value " + value + " was removed twice or never inserted");
+                    return false;
+                }
+                seen[value] = true;
+                count += 1;
+            }
+        }
+        if (count != total || !queue.isEmpty() || queue.size() != 0) {
+            System.out.println("  drain returned " + count + " of " + total + " values, " +
+                    queue.size() + " left in the queue");
+            return false;
+        }
+        return true;
+    }
+
+    static long randomPriority(Random random) {
+        int r = random.nextInt(100);
+        if (r == 0) {
+            return Long.MIN_VALUE;
+        } else if (r == 1) {
+            return Long.MAX_VALUE;
+        }
+        return random.nextInt(PRIORITY_RANGE) - PRIORITY_RANGE / 2;
+    }
+
+    /**
+     * 参照模型：每个优先级出现的次数，以及仍在堆中的每个值的优先级
+     */
+    static class Multiset {
+        final TreeMap<Long, Integer> counts = new TreeMap<>();
+
+        final Map<Integer, Long> priorities = new HashMap<>();
+
+        boolean isEmpty() {
+            return priorities.isEmpty();
+        }
+
+        void add(int value, long priority) {
+            counts.merge(priority, 1, Integer::sum);
+            priorities.put(value, priority);
+        }
+
+        /**
+         * 删除堆中的一个值，检查它确实在堆中且优先级为priority
+         */
+        boolean remove(int value, long priority, int step) {
+            Long expectedPriority = priorities.remove(value);
+            if (expectedPriority == null || expectedPriority != priority) {
+                System.out.println("  removed value " + value + " with priority " + priority + " at step " + step + "\n" +
+                        "  expected: " + expectedPriority + "\n" +
+                        "  returned: " + priority);
+                return false;
+            }
+            counts.merge(priority, -1, (a, b) -> a + b == 0 ? null : a + b);
+            return true;
+        }
+
+        boolean removeMin(long minPriority, int value, int step) {
+            if (minPriority != counts.firstKey()) {
+                System.out.println("  min priority disagrees at step " + step + "\n" +
+                        "  expected: " + counts.firstKey() + "\n" +
+                        "  returned: " + minPriority);
+                return false;
+            }
+            return remove(value, minPriority, step);
+        }
+
+        boolean removeMax(long maxPriority, int value, int step) {
+            if (maxPriority != counts.lastKey()) {
+                System.out.println("  max priority disagrees at step " + step + "\n" +
+                        "  expected: " + counts.lastKey() + "\n" +
+                        "  returned: " + maxPriority);
+                return false;
+            }
+            return remove(value, maxPriority, step);
+        }
+
+        /**
+         * 大小一致，非空时最小、最大优先级一致，且min()/max()返回的值确实具有这个优先级
+         */
+        boolean matches(CompleteBinaryHeapPriorityDeque<Integer> heap, int step) {
+            if (heap.size() != priorities.size() || heap.isEmpty() != priorities.isEmpty()) {
+                System.out.println("  size disagrees at step " + step + "\n" +
+                        "  expected: " + priorities.size() + "\n" +
+                        "  returned: " + heap.size());
+                return false;
+            }
+            if (heap.isEmpty()) {
+                return true;
+            }
+            if (heap.minPriority() != counts.firstKey() || !counts.firstKey().equals(priorities.get(heap.min()))
+                    || heap.maxPriority() != counts.lastKey() || !counts.lastKey().equals(priorities.get(heap.max()))) {
+                System.out.println("  min/max disagrees at step " + step + "\n" +
+                        "  expected: " + counts.firstKey() + "/" + counts.lastKey() + "\n" +
+                        "  returned: " + heap.minPriority() + "/" + heap.maxPriority());
+                return false;
+            }
+            return true;
+        }
+    }
+}
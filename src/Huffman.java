@@ -11,11 +11,48 @@ import java.util.Arrays;
 public class Huffman implements PrefixCode {
     private Node[] nodes;
 
-    // private LinkedList<Character> rawChars;
-    private LinkedSimpleList<Character> rawChars;
+    // 不再保存原文，压缩后的大小由频率和码长直接算出
+    // 以字节值为下标的出现频率，64位计数，输入超过约21亿字节时也不会溢出
+    private long[] frequencies;
 
-    private HashSimpleMap<Character, String> huffCodesMap;
-    private int originalSize;
+    private CharObjectHashMap<String> huffCodesMap;
+    private long originalSize;
+
+    // 以原生数组存储的码表，供热循环使用
+    private Codebook codebook;
+
+    // 可选的码表缓存，分布相近的输入直接复用码表
+    private final CodebookCache codebookCache;
+
+    // 可选的分阶段计时器，为null时不计时
+    private final PhaseTimer phaseTimer;
+
+    public Huffman() {
+        this(null);
+    }
+
+    /**
+     * @param codebookCache 码表缓存，为null时每次都重新构建Huffman树
+     */
+    public Huffman(CodebookCache codebookCache) {
+        this(codebookCache, null);
+    }
+
+    /**
+     * generateCode的各个阶段记录在phaseTimer中，路径为：
+     * generateCode/read、count（读取输入与统计频率，分别累计），
+     * sort、buildTree、assignCodes（不使用码表缓存时），cacheLookup、assignCodes（使用码表缓存时）
+     * @param codebookCache 码表缓存，为null时每次都重新构建Huffman树
+     * @param phaseTimer 分阶段计时器，为null时不计时
+     */
+    public Huffman(CodebookCache codebookCache, PhaseTimer phaseTimer) {
+        this.codebookCache = codebookCache;
+        this.phaseTimer = phaseTimer;
+    }
+
+    public PhaseTimer getPhaseTimer() {
+        return phaseTimer;
+    }
 
     /**
      * 生成Huffman编码
@@ -23,35 +60,81 @@ public class Huffman implements PrefixCode {
      */
     @Override
     public void generateCode(InputStream in) {
-        // 调用getFrequencyCounts方法，获取字符种类及其频率
-        HashSimpleMap<Character, Integer> frequencyCounts = getFrequencyCounts(in);
+        // 没有计时器时startPhase返回null，endPhase会跳过null
+        PhaseTimer.Span generatePhase = startPhase("generateCode");
+        try {
+            // 调用getFrequencyCounts方法，获取字符种类及其频率
+            frequencies = getFrequencyCounts(in);
+
+            // 启用了码表缓存时，命中则无需建堆和建树
+            if (codebookCache != null) {
+                generateCodeFromCache();
+                return;
+            }
+
+            // 将出现频率进行升序排序，并对应排序所有的字符种类，作为建立Huffman树的准备
+            long[] freqSorted;
+            char[] keySorted;
+            PhaseTimer.Span sortPhase = startPhase("sort");
+            try {
+                int present = countPresent(frequencies);
+                freqSorted = new long[present];
+                keySorted = new char[present];
+                getSortedFreqAndKeys(frequencies, freqSorted, keySorted);
+            } finally {
+                endPhase(sortPhase);
+            }
 
-        // 获取所有的字符种类，即frequencyCounts的键值
-        LinkedSimpleList<Character> keys = frequencyCounts.keys();
-        // 获取所有的Entry
-        LinkedSimpleList<HashSimpleMap.Entry<Character, Integer>> frequencyCountsEntries
-                = frequencyCounts.getTotalEntries();
+            Node root;
+            PhaseTimer.Span buildPhase = startPhase("buildTree");
+            try {
+                root = buildTree(freqSorted, keySorted);
+            } finally {
+                endPhase(buildPhase);
+            }
 
-        // 将出现频率进行升序排序，作为建立Huffman树的准备
-        Integer[] freqSorted = new Integer[keys.size()];
-        getSortedFreq(frequencyCounts, keys, freqSorted);
+            PhaseTimer.Span assignPhase = startPhase("assignCodes");
+            try {
+                // 递归遍历Huffman树，生成每个节点的Huffman编码
+                // 只有一种字符时根节点就是叶子，与buildCodeLengths一致为其分配1位的编码"0"
+                encodeByRecursion(root, isLeaf(root) ? "0" : "");
 
-        // 依据升序排序的出现频率，对应排序所有的字符种类
-        Character[] keySorted = new Character[keys.size()];
-        getSortedKeys(frequencyCountsEntries, freqSorted, keySorted);
+                // 记录所有字符与其Huffman编码的Hashmap
+                huffCodesMap = new CharObjectHashMap<>();
+                for (Node node : nodes) {
+                    huffCodesMap.put(node.character, node.code);
+                }
 
-        CompleteBinaryHeapPriorityDeque<Node> nodePriorityDeque = new CompleteBinaryHeapPriorityDeque<>();
-        nodes = new Node[freqSorted.length];
+                // 同时生成以字节值为下标的原生码表
+                codebook = buildCodebook();
+            } finally {
+                endPhase(assignPhase);
+            }
+        } finally {
+            endPhase(generatePhase);
+        }
+    }
 
-        // 依据出现频率初始化优先队列
-        // 优先级就是出现频率
-        // 因为出现频率低的在创建Huffman树的时候应该先弹出，所以优先级更高
+    /**
+     * 依据升序排列的频率和字符建立节点列表和Huffman树
+     * @param freqSorted 升序排序的频率数组
+     * @param keySorted 依据升序排序的频率数组顺序的字符列表
+     * @return 根节点
+     */
+    private Node buildTree(long[] freqSorted, char[] keySorted) {
+        nodes = new Node[freqSorted.length];
         for (int i = 0; i < freqSorted.length; i++) {
             // 初始化节点列表，记录weight和character
             nodes[i] = new Node(freqSorted[i], keySorted[i]);
-            nodePriorityDeque.insert(freqSorted[i], nodes[i]);
         }
 
+        // 依据出现频率初始化优先队列
+        // 优先级就是出现频率
+        // 因为出现频率低的在创建Huffman树的时候应该先弹出，所以优先级更高
+        // 一次性批量建堆，O(n)
+        CompleteBinaryHeapPriorityDeque<Node> nodePriorityDeque =
+                new CompleteBinaryHeapPriorityDeque<>(freqSorted, nodes, CompleteBinaryHeapPriorityDeque.DEFAULT_ARITY);
+
         // 循环创建Huffman树，直到优先队列里只剩下一个节点，即根节点
         while (nodePriorityDeque.size() > 1) {
             // 从节点的优先队列里选出两个出现频率最低的节点
@@ -65,18 +148,91 @@ public class Huffman implements PrefixCode {
 
         // 完成循环，从优先队列中取出最后的节点，即根节点
         // 至此，Huffman树构建完毕
-        Node root = nodePriorityDeque.removeMin();
+        return nodePriorityDeque.removeMin();
+    }
 
-        // 递归遍历Huffman树，生成每个节点的Huffman编码
-        encodeByRecursion(root, "");
+    /**
+     * 从码表缓存中取得码表，并据此生成节点列表和huffCodesMap
+     */
+    private void generateCodeFromCache() {
+        PhaseTimer.Span lookupPhase = startPhase("cacheLookup");
+        try {
+            codebook = codebookCache.get(frequencies);
+        } finally {
+            endPhase(lookupPhase);
+        }
 
-        // 记录所有字符与其Huffman编码的Hashmap
-        huffCodesMap = new HashSimpleMap<>();
-        for (Node node : nodes) {
-            huffCodesMap.put(node.character, node.code);
+        PhaseTimer.Span assignPhase = startPhase("assignCodes");
+        try {
+            nodes = new Node[countPresent(frequencies)];
+            huffCodesMap = new CharObjectHashMap<>();
+            int count = 0;
+            for (int symbol = 0; symbol < frequencies.length; symbol++) {
+                if (frequencies[symbol] > 0) {
+                    Node node = new Node(frequencies[symbol], (char) symbol);
+                    node.code = codebook.getCodeword(symbol);
+                    nodes[count] = node;
+                    huffCodesMap.put(node.character, node.code);
+                    count += 1;
+                }
+            }
+        } finally {
+            endPhase(assignPhase);
+        }
+    }
+
+    /**
+     * 打开一个计时阶段
+     * @param name 阶段名
+     * @return 没有计时器时为null
+     */
+    private PhaseTimer.Span startPhase(String name) {
+        return phaseTimer == null ? null : phaseTimer.start(name);
+    }
+
+    /**
+     * 结束startPhase打开的阶段
+     * @param span 为null时没有效果
+     */
+    private static void endPhase(PhaseTimer.Span span) {
+        if (span != null) {
+            span.close();
         }
     }
 
+    /**
+     * 返回以原生数组存储的码表
+     * @return 码表
+     */
+    public Codebook getCodebook() {
+        return codebook;
+    }
+
+    /**
+     * 以字节值为下标的编码数组，codes[ch]的低lengths[ch]位即为ch的Huffman编码
+     * @return 编码数组
+     */
+    public long[] getCodes() {
+        return codebook.getCodes();
+    }
+
+    /**
+     * 以字节值为下标的码长数组，0表示该字符没有出现过
+     * @return 码长数组
+     */
+    public byte[] getCodeLengths() {
+        return codebook.getLengths();
+    }
+
+    /**
+     * 依据原生码表将字节编码为紧凑的位流，每个字节只需两次数组读取和一次移位
+     * @param data 待编码的字节
+     * @return 高位在前的位流，末尾补0
+     */
+    public byte[] encodeBytes(byte[] data) {
+        return codebook.encode(data);
+    }
+
     /**
      * 根据指定字符，返回其对应的Huffman编码
      * @param ch the character whose codeword is sought
@@ -135,9 +291,8 @@ public class Huffman implements PrefixCode {
 
         // 读取每一个字符
         while ((len = strIn.read()) != -1) {
-            Character currentChar = (char) len;
             // 从huffCodesMap找到字符并记录
-            encoderBuilder.append(huffCodesMap.get(currentChar));
+            encoderBuilder.append(huffCodesMap.get((char) len));
         }
 
         // 返回编码后的字符串
@@ -153,19 +308,15 @@ public class Huffman implements PrefixCode {
     public String decode(String str) {
         StringBuilder decoderBuilder = new StringBuilder();
 
-        // 取出huffCodesMap的所有键值对
-        LinkedSimpleList<HashSimpleMap.Entry<Character, String>> huffCodesEntries =
-                huffCodesMap.getTotalEntries();
-
         // 逐渐解码二进制字符串，每解码一部分就删除一部分，知道二进制字符串全部被解码
         while (str.length() > 0) {
             // 遍历所有的字符种类及其编码
-            for (HashSimpleMap.Entry<Character, String> huffCodesEntry : huffCodesEntries) {
-                String huffCode = huffCodesEntry.value;
+            for (Node node : nodes) {
+                String huffCode = node.code;
                 // 找到二进制字符串以何种编码起始
                 if (str.startsWith(huffCode)) {
                     // 加入对应字符
-                    decoderBuilder.append(huffCodesEntry.key);
+                    decoderBuilder.append(node.character);
                     // 剔除已解码部分
                     str = str.substring(huffCode.length());
                     break;
@@ -181,24 +332,25 @@ public class Huffman implements PrefixCode {
      * @return 原始字符串长度
      */
     @Override
-    public int originalSize() {
+    public long originalSize() {
         return originalSize;
     }
 
     /**
      * 压缩后的二进制编码长度
+     * 每个字符的出现频率乘以其码长即为该字符编码后的总位数，不需要重新拼接编码
      * @return 压缩后的二进制编码长度
      */
     @Override
-    public int compressedSize() {
-        StringBuilder codeBuilder = new StringBuilder();
-
-        for (Character character : rawChars) {
-            codeBuilder.append(huffCodesMap.get(character));
+    public long compressedSize() {
+        byte[] lengths = codebook.getLengths();
+        long bits = 0;
+        for (int symbol = 0; symbol < frequencies.length; symbol++) {
+            bits += frequencies[symbol] * lengths[symbol];
         }
 
         // 因为一个字节是8bits，所以算字节数的时候除以8就可以
-        return codeBuilder.toString().length() / 8;
+        return bits / 8;
     }
 
     /**
@@ -218,106 +370,210 @@ public class Huffman implements PrefixCode {
     }
 
     /**
-     * 根据输入流，统计所有字符的出现频率
-     * @param in 输入流
-     * @return 自定义的HashMap，键：出现的字符种类；值：该字符的出现频率
+     * 依据符号频率构建Huffman树，只返回每个符号的码长
+     * 供不需要保留树结构的场景（如预训练码表）使用
+     * 只有一个符号出现时，根节点就是叶子，仍为其分配1位的码长，保证编码结果可以被解码
+     * @param frequencies 以符号为下标的出现频率，0表示符号未出现
+     * @return 以符号为下标的码长，未出现的符号码长为0
      */
-    private HashSimpleMap<Character, Integer> getFrequencyCounts(InputStream in) {
-        // 初始化字符频率统计HashMap
-        HashSimpleMap<Character, Integer> frequencyCounts = new HashSimpleMap<>();
-        // 存储每个字符
-        int len;
-        // 字符计数器
+    static byte[] buildCodeLengths(long[] frequencies) {
+        byte[] lengths = new byte[frequencies.length];
+
+        int present = countPresent(frequencies);
+        long[] weights = new long[present];
+        Node[] leaves = new Node[present];
         int count = 0;
+        for (int symbol = 0; symbol < frequencies.length; symbol++) {
+            if (frequencies[symbol] > 0) {
+                weights[count] = frequencies[symbol];
+                leaves[count] = new Node(frequencies[symbol], (char) symbol);
+                count += 1;
+            }
+        }
+        CompleteBinaryHeapPriorityDeque<Node> nodePriorityDeque =
+                new CompleteBinaryHeapPriorityDeque<>(weights, leaves, CompleteBinaryHeapPriorityDeque.DEFAULT_ARITY);
 
-        // rawChars = new LinkedList<>();
-        // 这里自己实现的单链表太慢了，应该改用双向链表，尾插比较快速
-        // 或者直接头插，因为不需要保证方向，只需要统计文章所有字符
-        rawChars = new LinkedSimpleList<>();
+        if (nodePriorityDeque.isEmpty()) {
+            return lengths;
+        }
 
-        try {
-            // 读取文件
-            while ((len = in.read()) != -1) {
-                Character currentChar = (char) len;
-
-                // rawChars.add(currentChar);
-
-                // 记录语料单个字符
-                rawChars.add(0, currentChar);
-
-                // 记录字符出现频率的灵魂
-                if (!frequencyCounts.contains(currentChar)) {
-                    // 如果当前字符不在记录HashMap的键值里
-                    // 则新建<当前字符, 1>的键值对
-                    frequencyCounts.put(currentChar, 1);
-                } else {
-                    // 否则，取出当前字符对应的键值（即当前字符已经记录的出现频率）
-                    Integer currentFreq = frequencyCounts.get(currentChar);
-                    // 将其加一，重新赋值即可
-                    frequencyCounts.put(currentChar, currentFreq + 1);
-                }
+        while (nodePriorityDeque.size() > 1) {
+            Node leftNode = nodePriorityDeque.removeMin();
+            Node rightNode = nodePriorityDeque.removeMin();
+            Node parent = new Node(leftNode.weight + rightNode.weight, leftNode, rightNode);
+            nodePriorityDeque.insert(parent.weight, parent);
+        }
 
-                // 计数器加一
-                count += 1;
-            }
+        Node root = nodePriorityDeque.removeMin();
+        assignLengthsByRecursion(root, isLeaf(root) ? 1 : 0, lengths);
+        return lengths;
+    }
+
+    /**
+     * 递归记录每个叶子节点的深度，即码长
+     * @param node 指定节点
+     * @param depth 指定节点的深度
+     * @param lengths 以符号为下标的码长
+     */
+    private static void assignLengthsByRecursion(Node node, int depth, byte[] lengths) {
+        if (isLeaf(node)) {
+            lengths[node.character] = (byte) depth;
+            return;
+        }
+        assignLengthsByRecursion(node.lChild, depth + 1, lengths);
+        assignLengthsByRecursion(node.rChild, depth + 1, lengths);
+    }
+
+    private static boolean isLeaf(Node node) {
+        return node.lChild == null && node.rChild == null;
+    }
+
+    /**
+     * 将每个叶子节点的编码字符串转换为原生的编码和码长数组
+     * @return 码表
+     */
+    private Codebook buildCodebook() {
+        long[] codes = new long[Codebook.ALPHABET_SIZE];
+        byte[] lengths = new byte[Codebook.ALPHABET_SIZE];
+        for (Node node : nodes) {
+            int symbol = node.character;
+            lengths[symbol] = (byte) node.code.length();
+            codes[symbol] = node.code.isEmpty() ? 0 : Long.parseUnsignedLong(node.code, 2);
+        }
+        return new Codebook(codes, lengths);
+    }
+
+    /**
+     * 根据输入流，统计所有字符的出现频率
+     * 输入流按字节读取，字符即字节值，直接以字节值为下标计数
+     * @param in 输入流
+     * @return 以字节值为下标的出现频率
+     */
+    private long[] getFrequencyCounts(InputStream in) {
+        long[] frequencyCounts = new long[Codebook.ALPHABET_SIZE];
+
+        try {
+            countFrequencies(in, frequencyCounts, phaseTimer);
         } catch (IOException e) {
             e.printStackTrace();
         }
 
-        // 这里就得到了原来的文本字符数
+        // 所有字符的频率之和就是原来的文本字符数，读取中途出错时也只计入已读到的字符
+        long count = 0;
+        for (long frequency : frequencyCounts) {
+            count += frequency;
+        }
         originalSize = count;
         return frequencyCounts;
     }
 
     /**
-     * 获取升序排序的频率数组
-     * @param frequencyCounts 所有字符的出现频率Hashmap
-     * @param keys 所有字符
-     * @param keyFreq 所有字符的出现频率
+     * 读完输入流，将每个字节值的出现次数累加到frequencyCounts中
+     * @param in 输入流
+     * @param frequencyCounts 以字节值为下标的出现频率，长度至少为Codebook.ALPHABET_SIZE
+     * @return 读取的字节数
+     * @throws IOException 读取失败，此前读到的字节已经计入
      */
-    private void getSortedFreq(HashSimpleMap<Character, Integer> frequencyCounts,
-                                  LinkedSimpleList<Character> keys, Integer[] keyFreq) {
-        int count = 0;
-        for (Character key : keys) {
-            keyFreq[count] = frequencyCounts.get(key);
-            count += 1;
+    static long countFrequencies(InputStream in, long[] frequencyCounts) throws IOException {
+        return countFrequencies(in, frequencyCounts, null);
+    }
+
+    /**
+     * 同countFrequencies，phaseTimer不为null时分别累计读取和计数的耗时，
+     * 结束后记录为当前阶段的子阶段read和count；每个缓冲区只多两次计时，对吞吐量的影响可以忽略
+     */
+    static long countFrequencies(InputStream in, long[] frequencyCounts, PhaseTimer phaseTimer) throws IOException {
+        byte[] buffer = new byte[8192];
+        int len;
+        long count = 0;
+        RunTimer readTimer = new RunTimer();
+        RunTimer countTimer = new RunTimer();
+        boolean timed = phaseTimer != null;
+
+        try {
+            // 读取文件
+            while (true) {
+                if (timed) {
+                    readTimer.start();
+                }
+                len = in.read(buffer);
+                if (timed) {
+                    readTimer.stop();
+                }
+                if (len == -1) {
+                    break;
+                }
+
+                if (timed) {
+                    countTimer.start();
+                }
+                for (int i = 0; i < len; i++) {
+                    // 记录字符出现频率的灵魂
+                    frequencyCounts[buffer[i] & 0xFF] += 1;
+                }
+                if (timed) {
+                    countTimer.stop();
+                }
+
+                // 计数器累加
+                count += len;
+            }
+        } finally {
+            if (timed) {
+                readTimer.stop();
+                phaseTimer.record("read", readTimer.getElapsedNanos());
+                phaseTimer.record("count", countTimer.getElapsedNanos());
+            }
         }
+        return count;
+    }
 
-        Arrays.sort(keyFreq);
+    /**
+     * 统计出现过的字符种类数
+     * @param frequencies 以字节值为下标的出现频率
+     * @return 频率大于0的字符种类数
+     */
+    private static int countPresent(long[] frequencies) {
+        int present = 0;
+        for (long frequency : frequencies) {
+            if (frequency > 0) {
+                present += 1;
+            }
+        }
+        return present;
     }
 
     /**
-     * 获取依据升序排序的频率数组顺序的字符列表
-     * @param frequencyCountsEntries 所有字符的出现频率Hashmap的Entry
+     * 获取升序排序的频率数组，以及依据该顺序排列的字符列表
+     * 将 频率 和 字符 打包成一个long排序，频率相同时按字符升序
+     * 字符只占低8位，频率不超过2^55（32PB）时打包不会溢出
+     * @param frequencies 以字节值为下标的出现频率
      * @param freqSorted 升序排序的频率数组
      * @param keySorted 依据升序排序的频率数组顺序的字符列表
      */
-    private void getSortedKeys(LinkedSimpleList<HashSimpleMap.Entry<Character, Integer>> frequencyCountsEntries,
-                               Integer[] freqSorted, Character[] keySorted) {
+    private void getSortedFreqAndKeys(long[] frequencies, long[] freqSorted, char[] keySorted) {
+        long[] packed = new long[freqSorted.length];
         int count = 0;
-        // 遍历freq
-        for (Integer freq : freqSorted) {
-            // 遍历每一个<key, freq>
-            for (HashSimpleMap.Entry<Character, Integer> frequencyCountsEntry : frequencyCountsEntries) {
-                // 找到了相同freq的key
-                if (freq.equals(frequencyCountsEntry.value)) {
-                    // 如果key不在已统计范围，才会添加
-                    // 为了解决出现次数相同的情况
-                    if (!Arrays.asList(keySorted).contains(frequencyCountsEntry.key)) {
-                        keySorted[count] = frequencyCountsEntry.key;
-                        count += 1;
-                        break;
-                    }
-                }
+        for (int symbol = 0; symbol < frequencies.length; symbol++) {
+            if (frequencies[symbol] > 0) {
+                packed[count] = (frequencies[symbol] << 8) | symbol;
+                count += 1;
             }
         }
+
+        Arrays.sort(packed);
+
+        for (int i = 0; i < packed.length; i++) {
+            freqSorted[i] = packed[i] >>> 8;
+            keySorted[i] = (char) (packed[i] & 0xFF);
+        }
     }
 
     /**
      * 节点内部类
      */
     public static class Node implements Comparable<Node> {
-        int weight;
+        long weight;
 
         Character character;
 
@@ -328,13 +584,13 @@ public class Huffman implements PrefixCode {
         Node rChild;
 
 
-        public Node(int weight, Character character) {
+        public Node(long weight, Character character) {
             this.weight = weight;
             this.character = character;
         }
 
 
-        public Node(int weight, Node lChild, Node rChild) {
+        public Node(long weight, Node lChild, Node rChild) {
             this.weight = weight;
             this.lChild = lChild;
             this.rChild = rChild;
@@ -342,7 +598,7 @@ public class Huffman implements PrefixCode {
 
         @Override
         public int compareTo(Node o) {
-            return Integer.compare(this.weight, o.weight);
+            return Long.compare(this.weight, o.weight);
         }
     }
 }
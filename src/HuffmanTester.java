@@ -1,8 +1,17 @@
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 public class HuffmanTester {
     public static final String STR = "aaaaaaaaaaaaaaaabbbbbbbbccccdde";
@@ -11,6 +20,11 @@ public class HuffmanTester {
     public static final int STR_ORIGINAL_SIZE = 31;
     public static final int STR_COMPRESSED_SIZE = 56 / 8;
 
+    // 只有一种字符的输入：不论是否使用码表缓存，该字符的编码都是1位
+    public static final String SINGLE_STR = "aaaaaaaaaaaaaaaa";
+    public static final int SINGLE_ORIGINAL_SIZE = 16;
+    public static final int SINGLE_COMPRESSED_SIZE = 16 / 8;
+
     public static final String METAMORPHOSES_PATH = "src/metamorphoses.txt";
     public static final int METAMORPHOSES_ORIGINAL_SIZE = 140963;
     public static final int METAMORPHOSES_COMPRESSED_SIZE = 80011;
@@ -21,6 +35,26 @@ public class HuffmanTester {
     public static final int SHAKESPEARE_COMPRESSED_SIZE = 3485420;
     public static final int SHAKESPEARE_MAX_RUNNING_TIME = 20;
 
+    // 合成的超大输入：总字节数和最高频字符的出现次数都超过int的范围，不落盘，由CorpusGenerator边读边生成
+    // 只在命令行参数中带有LARGE_FLAG时运行
+    public static final String LARGE_FLAG = "--large";
+    public static final long LARGE_ORIGINAL_SIZE = 6L << 30;
+    public static final int LARGE_SYMBOLS = 16;
+    public static final long LARGE_SEED = 0;
+
+    // 单遍采样压缩：平稳的Zipf输入，采样开头的SAMPLED_BYTES字节
+    public static final int SAMPLED_INPUT_SIZE = 1 << 20;
+    public static final int SAMPLED_BYTES = 1 << 14;
+    public static final long SAMPLED_SEED = 1;
+
+    // 静态码表文件头部的字节数：魔数(4) 版本(1) 符号数(2)，之后是257个码长
+    public static final int STATIC_HEADER_SIZE = 7;
+
+    // 阶段计时的百分位数：每轮记录耗时为1..PHASE_SAMPLES倍PHASE_UNIT_NANOS的样本
+    public static final int PHASE_SAMPLES = 100;
+    public static final long PHASE_UNIT_NANOS = 1000;
+    public static final int PHASE_ROUNDS = 2;
+
     public static void main(String[] args) {
         InputStream in;
         PrefixCode huff = new Huffman();
@@ -75,6 +109,131 @@ public class HuffmanTester {
             System.exit(0);
         }
 
+        System.out.println("Testing single-character encoding task...");
+        System.out.println("  generating code with and without codebook cache...");
+        Huffman plain = new Huffman();
+        Huffman cached = new Huffman(new CodebookCache());
+        try {
+            plain.generateCode(new ByteArrayInputStream(SINGLE_STR.getBytes("US-ASCII")));
+            cached.generateCode(new ByteArrayInputStream(SINGLE_STR.getBytes("US-ASCII")));
+        } catch (UnsupportedEncodingException e) {
+            System.err.println("Unsupported encoding: US-ASCII\n" +
+                    "no test performed!");
+            System.exit(1);
+        }
+
+        System.out.println("  testing encoding size and codeword...");
+        if (testSize(plain, SINGLE_ORIGINAL_SIZE, SINGLE_COMPRESSED_SIZE)
+                && testSize(cached, SINGLE_ORIGINAL_SIZE, SINGLE_COMPRESSED_SIZE)
+                && testSingleEncoding(plain, cached)
+                && testStringEncoding(plain, SINGLE_STR)
+                && testStringEncoding(cached, SINGLE_STR)) {
+            System.out.println("  ...test passed");
+        } else {
+            System.out.println("  ...test failed");
+            System.exit(0);
+        }
+
+        System.out.println("Testing static codebook...");
+        System.out.println("  testing save/load round trip and escaped bytes...");
+        if (testStaticCodebookRoundTrip()) {
+            System.out.println("  ...test passed");
+        } else {
+            System.out.println("  ...test failed");
+            System.exit(0);
+        }
+
+        System.out.println("  testing an escape codeword of the maximum length...");
+        if (testStaticCodebookLongEscape()) {
+            System.out.println("  ...test passed");
+        } else {
+            System.out.println("  ...test failed");
+            System.exit(0);
+        }
+
+        System.out.println("  testing invalid code lengths...");
+        if (testStaticCodebookRejects()) {
+            System.out.println("  ...test passed");
+        } else {
+            System.out.println("  ...test failed");
+            System.exit(0);
+        }
+
+        System.out.println("Testing mapped decode table...");
+        System.out.println("  testing decode against StaticCodebook.decode, including codes longer than lookupBits...");
+        if (testMappedDecodeTable()) {
+            System.out.println("  ...test passed");
+        } else {
+            System.out.println("  ...test failed");
+            System.exit(0);
+        }
+
+        System.out.println("Testing sampled codebook...");
+        System.out.println("  testing one-pass encode round trip and actual against estimated loss...");
+        if (testSampledEncoding()) {
+            System.out.println("  ...test passed");
+        } else {
+            System.out.println("  ...test failed");
+            System.exit(0);
+        }
+
+        System.out.println("  testing a distribution shift after the sample...");
+        if (testSampledDrift()) {
+            System.out.println("  ...test passed");
+        } else {
+            System.out.println("  ...test failed");
+            System.exit(0);
+        }
+
+        System.out.println("Testing codebook cache...");
+        System.out.println("  testing hit, miss and eviction counters and LRU order...");
+        if (testCodebookCacheLru()) {
+            System.out.println("  ...test passed");
+        } else {
+            System.out.println("  ...test failed");
+            System.exit(0);
+        }
+
+        System.out.println("  testing the tolerance check on a matching fingerprint...");
+        if (testCodebookCacheTolerance()) {
+            System.out.println("  ...test passed");
+        } else {
+            System.out.println("  ...test failed");
+            System.exit(0);
+        }
+
+        System.out.println("Testing phase timer...");
+        System.out.println("  testing nested phase paths, counts and listener calls...");
+        if (testPhaseTimerNesting()) {
+            System.out.println("  ...test passed");
+        } else {
+            System.out.println("  ...test failed");
+            System.exit(0);
+        }
+
+        System.out.println("  testing recorded durations and percentiles...");
+        if (testPhaseTimerPercentiles()) {
+            System.out.println("  ...test passed");
+        } else {
+            System.out.println("  ...test failed");
+            System.exit(0);
+        }
+
+        if (Arrays.asList(args).contains(LARGE_FLAG)) {
+            System.out.println("Testing synthetic large encoding task...");
+            System.out.println("  generating code from " + LARGE_ORIGINAL_SIZE + " synthetic bytes");
+            huff = new Huffman();
+            huff.generateCode(largeGenerator().stream(LARGE_ORIGINAL_SIZE));
+
+            System.out.println("  testing encoding size and code lengths...");
+            if (testLargeEncoding(huff)) {
+                System.out.println("  ...test passed");
+            } else {
+                System.out.println("  ...test failed");
+                System.exit(0);
+            }
+        }
+
         System.out.println("Testing Metamorphoses encoding task...");
         System.out.println("  generating code from " + METAMORPHOSES_PATH);
         try {
@@ -96,6 +255,11 @@ public class HuffmanTester {
         }
 
         System.out.println("Testing Shakespeare encoding task...");
+        // 语料不在仓库中，缺失时跳过而不是报错；更大规模的输入见ScalingBenchmark
+        if (!new File(SHAKESPEARE_PATH).isFile()) {
+            System.out.println("  " + SHAKESPEARE_PATH + " not found, test skipped");
+            return;
+        }
         System.out.println("  generating code from " + SHAKESPEARE_PATH);
         RunTimer rt = new RunTimer();
         try {
@@ -105,7 +269,7 @@ public class HuffmanTester {
             huff.generateCode(in);
             rt.stop();
         } catch (FileNotFoundException e) {
-            System.err.println("File " + METAMORPHOSES_PATH + " not found\n" +
+            System.err.println("File " + SHAKESPEARE_PATH + " not found\n" +
                     "no test performed!");
             System.exit(1);
         }
@@ -150,6 +314,33 @@ public class HuffmanTester {
         return true;
     }
 
+    /**
+     * 两条路径（直接建树、经码表缓存）对唯一的字符给出相同的1位编码，
+     * 且encodeBytes输出的位流不为空
+     */
+    static boolean testSingleEncoding(Huffman plain, Huffman cached) {
+        char ch = SINGLE_STR.charAt(0);
+        String plainCodeword = plain.getCodeword(ch);
+        String cachedCodeword = cached.getCodeword(ch);
+        if (plainCodeword.length() != 1 || !plainCodeword.equals(cachedCodeword)) {
+            System.out.println("  char '" + ch + "' improperly encoded\n" +
+                    "  codeword without cache: \"" + plainCodeword + "\"\n" +
+                    "  codeword with cache: \"" + cachedCodeword + "\"");
+            return false;
+        }
+
+        byte[] data = SINGLE_STR.getBytes();
+        int expectedBytes = (data.length + 7) / 8;
+        if (plain.encodeBytes(data).length != expectedBytes || cached.encodeBytes(data).length != expectedBytes) {
+            System.out.println("  incorrect encoded byte count\n" +
+                    "  expected: " + expectedBytes + "\n" +
+                    "  returned: " + plain.encodeBytes(data).length + " / " + cached.encodeBytes(data).length);
+            return false;
+        }
+
+        return true;
+    }
+
     static boolean testCharEncoding(PrefixCode pc) {
         char ch;
         String codeword;
@@ -176,9 +367,9 @@ public class HuffmanTester {
         return true;
     }
 
-    static boolean testSize(PrefixCode pc, int expectedOriginalSize, int expectedCompressedSize) {
-        int originalSize = pc.originalSize();
-        int compressedSize = pc.compressedSize();
+    static boolean testSize(PrefixCode pc, long expectedOriginalSize, long expectedCompressedSize) {
+        long originalSize = pc.originalSize();
+        long compressedSize = pc.compressedSize();
 
         if (expectedOriginalSize != originalSize) {
             System.out.println("  incorrect original size\n" +
@@ -231,5 +422,510 @@ public class HuffmanTester {
         return true;
     }
 
+    /**
+     * 合成输入：FIBONACCI分布，第s个字符在每个周期中出现F(s + 1)次，频率差距大，码长也深
+     */
+    static CorpusGenerator largeGenerator() {
+        return new CorpusGenerator(CorpusGenerator.Distribution.FIBONACCI, LARGE_SYMBOLS, LARGE_SEED);
+    }
+
+    /**
+     * 依据周期结构算出每个字符的精确频率（完整周期数 x 一个周期内的次数 + 最后不完整周期内的次数），检查：
+     * 1. 原始大小等于合成的字节数
+     * 2. 码长满足Kraft等式，且频率越高码长不越长（权重溢出会打乱这一顺序）
+     * 3. 压缩大小等于 频率 x 码长 之和除以8
+     */
+    static boolean testLargeEncoding(PrefixCode pc) {
+        CorpusGenerator generator = largeGenerator();
+        int periodLength = generator.periodLength();
+        long periods = LARGE_ORIGINAL_SIZE / periodLength;
+        int remainder = (int) (LARGE_ORIGINAL_SIZE % periodLength);
+
+        long[] periodCounts = new long[Codebook.ALPHABET_SIZE];
+        long[] remainderCounts = new long[Codebook.ALPHABET_SIZE];
+        try {
+            Huffman.countFrequencies(generator.stream(periodLength), periodCounts);
+            Huffman.countFrequencies(generator.stream(remainder), remainderCounts);
+        } catch (IOException e) {
+            System.out.println("  cannot read synthetic input: " + e);
+            return false;
+        }
+        int symbols = generator.alphabetSize();
+        long[] counts = new long[symbols];
+        for (int s = 0; s < symbols; s++) {
+            counts[s] = periods * periodCounts[s] + remainderCounts[s];
+        }
+
+        if (pc.originalSize() != LARGE_ORIGINAL_SIZE) {
+            System.out.println("  incorrect original size\n" +
+                    "  expected: " + LARGE_ORIGINAL_SIZE + "\n" +
+                    "  returned: " + pc.originalSize());
+            return false;
+        }
+
+        double kraftSum = 0;
+        long bits = 0;
+        int previousLength = 0;
+        for (int s = 0; s < symbols; s++) {
+            int length = pc.getCodeword((char) s).length();
+            // 字符按频率从高到低排列，频率严格更低的字符码长不应更短
+            if (length == 0 || (s > 0 && counts[s] < counts[s - 1] && length < previousLength)) {
+                System.out.println("  char " + s + " improperly encoded\n" +
+                        "  frequency: " + counts[s] + "\n" +
+                        "  codeword length: " + length);
+                return false;
+            }
+            previousLength = length;
+            kraftSum += Math.pow(2, -length);
+            bits += counts[s] * length;
+        }
+        if (kraftSum != 1.0) {
+            System.out.println("  code is not complete, Kraft sum: " + kraftSum);
+            return false;
+        }
+
+        return testSize(pc, LARGE_ORIGINAL_SIZE, bits / 8);
+    }
+
+    /**
+     * 在STR上训练的静态码表保存再读回，码长完全相同；
+     * 读回的码表编码、原码表解码，包括训练语料中没有出现、需要转义的字节
+     */
+    static boolean testStaticCodebookRoundTrip() {
+        byte[] document = (STR + "\u0000z\u00ff" + STR).getBytes(StandardCharsets.ISO_8859_1);
+        try {
+            StaticCodebook trained = StaticCodebook.train(new ByteArrayInputStream(STR.getBytes("US-ASCII")));
+            StaticCodebook loaded = StaticCodebook.load(new ByteArrayInputStream(save(trained)));
+            if (!Arrays.equals(trained.getCanonicalCodebook().getLengths(), loaded.getCanonicalCodebook().getLengths())) {
+                System.out.println("  code lengths changed by save/load");
+                return false;
+            }
+            byte[] encoded = loaded.encode(document);
+            if (!Arrays.equals(encoded, trained.encode(document))) {
+                System.out.println("  loaded codebook encodes differently");
+                return false;
+            }
+            byte[] decoded = trained.decode(encoded, document.length);
+            if (!Arrays.equals(decoded, document)) {
+                System.out.println("  document failed to decode\n" +
+                        "  expected: " + Arrays.toString(document) + "\n" +
+                        "  returned: " + Arrays.toString(decoded));
+                return false;
+            }
+        } catch (IOException e) {
+            System.out.println("  save/load failed: " + e);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 转义编码恰好为MAX_ESCAPE_LENGTH位时，转义的字节展开为64位编码，仍然可以编码和解码全部256个字节值
+     */
+    static boolean testStaticCodebookLongEscape() {
+        byte[] lengths = chainLengths(StaticCodebook.MAX_ESCAPE_LENGTH);
+        byte[] document = new byte[2 * Codebook.ALPHABET_SIZE];
+        for (int i = 0; i < document.length; i++) {
+            document[i] = (byte) (i * 7);
+        }
+        try {
+            StaticCodebook codebook = StaticCodebook.load(new ByteArrayInputStream(staticCodebookFile(lengths)));
+            int escapedLength = codebook.getEncodingCodebook().getLengths()[Codebook.ALPHABET_SIZE - 1];
+            if (escapedLength != Codebook.MAX_CODE_LENGTH) {
+                System.out.println("  escaped byte has the wrong code length\n" +
+                        "  expected: " + Codebook.MAX_CODE_LENGTH + "\n" +
+                        "  returned: " + escapedLength);
+                return false;
+            }
+            byte[] decoded = codebook.decode(codebook.encode(document), document.length);
+            if (!Arrays.equals(decoded, document)) {
+                System.out.println("  document with 64-bit codewords failed to decode");
+                return false;
+            }
+        } catch (IOException e) {
+            System.out.println("  valid code lengths rejected: " + e);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 码长超出0..64、不满足Kraft不等式、转义编码超过MAX_ESCAPE_LENGTH时，load抛出IOException
+     */
+    static boolean testStaticCodebookRejects() {
+        byte[] tooLong = chainLengths(StaticCodebook.MAX_ESCAPE_LENGTH);
+        tooLong[0] = Codebook.MAX_CODE_LENGTH + 1;
+        byte[] negative = chainLengths(StaticCodebook.MAX_ESCAPE_LENGTH);
+        negative[0] = -1;
+        // 三个1位编码
+        byte[] oversubscribed = new byte[Codebook.ALPHABET_SIZE + 1];
+        oversubscribed[0] = 1;
+        oversubscribed[1] = 1;
+        oversubscribed[StaticCodebook.ESCAPE] = 1;
+        byte[] longEscape = chainLengths(StaticCodebook.MAX_ESCAPE_LENGTH + 1);
+
+        byte[][] invalid = {tooLong, negative, oversubscribed, longEscape};
+        String[] names = {"length 65", "negative length", "Kraft sum above 1", "57-bit escape"};
+        for (int i = 0; i < invalid.length; i++) {
+            try {
+                StaticCodebook.load(new ByteArrayInputStream(staticCodebookFile(invalid[i])));
+                System.out.println("  code lengths with " + names[i] + " were accepted");
+                return false;
+            } catch (IOException e) {
+                // 期望的行为
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 对训练得到的短码表和码长直到MAX_ESCAPE_LENGTH的链式码表，在不同的查找位数下构建解码表，
+     * 解码全部256个字节值的文档，结果与StaticCodebook.decode相同；写入文件再映射的解码表也相同
+     */
+    static boolean testMappedDecodeTable() {
+        byte[] document = new byte[4 * Codebook.ALPHABET_SIZE];
+        for (int i = 0; i < document.length; i++) {
+            // 大部分是短编码，穿插长编码和需要转义的字节
+            document[i] = (byte) (i % 3 == 0 ? i * 7 : i % 5);
+        }
+        int[] lookupBitsList = {1, 4, MappedDecodeTable.DEFAULT_LOOKUP_BITS, 16};
+        try {
+            StaticCodebook[] codebooks = {
+                    StaticCodebook.train(new ByteArrayInputStream(STR.getBytes("US-ASCII"))),
+                    StaticCodebook.load(new ByteArrayInputStream(staticCodebookFile(
+                            chainLengths(StaticCodebook.MAX_ESCAPE_LENGTH))))
+            };
+            for (StaticCodebook codebook : codebooks) {
+                byte[] encoded = codebook.encode(document);
+                byte[] expected = codebook.decode(encoded, document.length);
+                if (!Arrays.equals(expected, document)) {
+                    System.out.println("  StaticCodebook.decode failed on the test document");
+                    return false;
+                }
+                for (int lookupBits : lookupBitsList) {
+                    MappedDecodeTable table = MappedDecodeTable.wrap(MappedDecodeTable.build(
+                            codebook.getCanonicalCodebook(), StaticCodebook.ESCAPE, lookupBits));
+                    byte[] decoded = table.decode(encoded, document.length);
+                    if (!Arrays.equals(decoded, expected)) {
+                        System.out.println("  decode disagrees with StaticCodebook.decode\n" +
+                                "  lookupBits: " + lookupBits + "\n" +
+                                "  maxLength: " + table.maxLength());
+                        return false;
+                    }
+                }
+
+                Path path = Files.createTempFile("huffman", ".table");
+                try {
+                    MappedDecodeTable.write(codebook, path);
+                    if (!Arrays.equals(MappedDecodeTable.map(path).decode(encoded, document.length), expected)) {
+                        System.out.println("  mapped table file decodes differently");
+                        return false;
+                    }
+                } finally {
+                    Files.delete(path);
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("  decode table failed: " + e);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 平稳输入上的单遍压缩：
+     * 1. 报告的字节数和位数与输出一致，输出用采样码表解码得到原文
+     * 2. actualLoss等于按完整直方图独立算出的损失
+     * 3. 交叉验证的estimatedLoss偏悲观，不小于actualLoss，而actualLoss不小于0
+     */
+    static boolean testSampledEncoding() {
+        byte[] data = new CorpusGenerator(CorpusGenerator.Distribution.ZIPF, Codebook.ALPHABET_SIZE, SAMPLED_SEED)
+                .bytes(SAMPLED_INPUT_SIZE);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SampledCodebook.Report report = sampledEncode(data, out);
+        if (report == null) {
+            return false;
+        }
+        SampledCodebook sampled = report.getSampledCodebook();
+        byte[] encoded = out.toByteArray();
+        if (report.totalBytes() != data.length || sampled.sampledBytes() != SAMPLED_BYTES
+                || encoded.length != (report.encodedBits() + 7) / 8) {
+            System.out.println("  report disagrees with the input and output sizes: " + report);
+            return false;
+        }
+
+        MappedDecodeTable table;
+        try {
+            table = MappedDecodeTable.wrap(MappedDecodeTable.build(sampled.getCodebook(),
+                    MappedDecodeTable.NO_ESCAPE, MappedDecodeTable.DEFAULT_LOOKUP_BITS));
+        } catch (IOException e) {
+            System.out.println("  cannot build decode table: " + e);
+            return false;
+        }
+        if (!Arrays.equals(table.decode(encoded, data.length), data)) {
+            System.out.println("  one-pass output failed to decode");
+            return false;
+        }
+
+        long[] counts = new long[Codebook.ALPHABET_SIZE];
+        for (byte b : data) {
+            counts[b & 0xFF] += 1;
+        }
+        long optimalBits = SampledCodebook.cost(Codebook.fromFrequencies(counts), counts);
+        double expectedLoss = (double) report.encodedBits() / optimalBits - 1;
+        if (Math.abs(report.actualLoss() - expectedLoss) > 1e-12) {
+            System.out.println("  incorrect actual loss\n" +
+                    "  expected: " + expectedLoss + "\n" +
+                    "  returned: " + report.actualLoss());
+            return false;
+        }
+        if (report.actualLoss() < 0 || report.actualLoss() > sampled.estimatedLoss()) {
+            System.out.println("  actual loss outside [0, estimated loss]: " + report);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 样本之后的输入换成另一种分布：estimatedLoss只看得到样本，actualLoss必须明显大于它
+     */
+    static boolean testSampledDrift() {
+        byte[] head = new CorpusGenerator(CorpusGenerator.Distribution.ZIPF, Codebook.ALPHABET_SIZE, SAMPLED_SEED)
+                .bytes(SAMPLED_BYTES);
+        byte[] tail = new CorpusGenerator(CorpusGenerator.Distribution.UNIFORM, Codebook.ALPHABET_SIZE, SAMPLED_SEED)
+                .bytes(SAMPLED_INPUT_SIZE);
+        byte[] data = Arrays.copyOf(head, head.length + tail.length);
+        System.arraycopy(tail, 0, data, head.length, tail.length);
+        SampledCodebook.Report report = sampledEncode(data, new ByteArrayOutputStream());
+        if (report == null) {
+            return false;
+        }
+        if (report.actualLoss() < report.getSampledCodebook().estimatedLoss() + 0.1) {
+            System.out.println("  distribution shift not reflected in the actual loss: " + report);
+            return false;
+        }
+        return true;
+    }
+
+    static SampledCodebook.Report sampledEncode(byte[] data, ByteArrayOutputStream out) {
+        try {
+            return SampledCodebook.encode(new ByteArrayInputStream(data), out, SAMPLED_BYTES);
+        } catch (IOException e) {
+            System.out.println("  one-pass encoding failed: " + e);
+            return null;
+        }
+    }
+
+    /**
+     * 容量为2的缓存：同一个直方图按比例放大后指纹不变，命中并返回同一个码表；
+     * A、B之后再用A，此时插入C淘汰的是最久未使用的B而不是A
+     */
+    static boolean testCodebookCacheLru() {
+        CodebookCache cache = new CodebookCache(2, CodebookCache.DEFAULT_TOLERANCE);
+        long[] a = histogram(40, 30, 20, 10);
+        long[] b = histogram(1, 1, 1, 1);
+        long[] c = histogram(100, 1);
+
+        Codebook codebookA = cache.get(a);
+        if (cache.get(histogram(400, 300, 200, 100)) != codebookA
+                || !checkCacheCounters(cache, 1, 1, 0, 1)) {
+            System.out.println("  scaled histogram did not reuse the cached codebook");
+            return false;
+        }
+        cache.get(b);
+        cache.get(a);
+        if (!checkCacheCounters(cache, 2, 2, 0, 2)) {
+            return false;
+        }
+        cache.get(c);
+        if (!checkCacheCounters(cache, 2, 3, 1, 2)) {
+            return false;
+        }
+        if (cache.get(a) != codebookA || !checkCacheCounters(cache, 3, 3, 1, 2)) {
+            System.out.println("  recently used entry was evicted instead of the eldest");
+            return false;
+        }
+        // B已被淘汰，重新构建时淘汰此刻最久未使用的C
+        cache.get(b);
+        cache.get(c);
+        return checkCacheCounters(cache, 3, 5, 3, 2);
+    }
+
+    /**
+     * 交换a、b的出现次数后量化指纹不变，但缓存的码表给a、b的码长也随之错位：
+     * 容忍度为0时拒绝复用，记为未命中并就地替换为新构建的码表；容忍度为10%时复用
+     */
+    static boolean testCodebookCacheTolerance() {
+        long[] original = histogram(40, 30, 20, 10);
+        long[] swapped = histogram(30, 40, 20, 10);
+
+        CodebookCache strict = new CodebookCache(2, 0);
+        Codebook cached = strict.get(original);
+        Codebook rebuilt = strict.get(swapped);
+        if (rebuilt == cached || !checkCacheCounters(strict, 0, 2, 0, 1)) {
+            System.out.println("  codebook outside the tolerance was reused");
+            return false;
+        }
+        if (rebuilt.getLengths()['b'] > rebuilt.getLengths()['a'] || strict.get(swapped) != rebuilt) {
+            System.out.println("  rejected entry was not replaced by a codebook for the new histogram");
+            return false;
+        }
+
+        CodebookCache lenient = new CodebookCache(2, 0.1);
+        cached = lenient.get(original);
+        if (lenient.get(swapped) != cached || !checkCacheCounters(lenient, 1, 1, 0, 1)) {
+            System.out.println("  codebook within the tolerance was not reused");
+            return false;
+        }
+        return true;
+    }
+
+    static boolean checkCacheCounters(CodebookCache cache, long hits, long misses, long evictions, int size) {
+        if (cache.hits() != hits || cache.misses() != misses || cache.evictions() != evictions || cache.size() != size) {
+            System.out.println("  incorrect cache counters\n" +
+                    "  expected: hits=" + hits + ", misses=" + misses + ", evictions=" + evictions + ", size=" + size + "\n" +
+                    "  returned: " + cache);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @param counts 依次为'a'、'b'、'c'……的出现次数
+     */
+    static long[] histogram(long... counts) {
+        long[] frequencies = new long[Codebook.ALPHABET_SIZE];
+        for (int i = 0; i < counts.length; i++) {
+            frequencies['a' + i] = counts[i];
+        }
+        return frequencies;
+    }
+
+    /**
+     * 带计时器的Huffman生成两次编码：读取、计数等子阶段的路径挂在generateCode之下，按第一次打开的顺序排列，
+     * 每个路径计数为2，子阶段的总耗时不超过父阶段；监听器按结束的顺序收到每个阶段及其深度
+     */
+    static boolean testPhaseTimerNesting() {
+        PhaseTimer timer = new PhaseTimer();
+        List<String> events = new ArrayList<>();
+        timer.addListener((path, depth, nanos) -> events.add(depth + " " + path));
+        Huffman huffman = new Huffman(null, timer);
+        huffman.generateCode(new ByteArrayInputStream(STR.getBytes(StandardCharsets.UTF_8)));
+        huffman.generateCode(new ByteArrayInputStream(STR.getBytes(StandardCharsets.UTF_8)));
+
+        String[] paths = {"generateCode", "generateCode/read", "generateCode/count", "generateCode/sort",
+                "generateCode/buildTree", "generateCode/assignCodes"};
+        ArraySimpleList<PhaseTimer.PhaseStats> all = timer.allStats();
+        if (all.size() != paths.length) {
+            System.out.println("  timer recorded " + all.size() + " phases, expected " + paths.length);
+            return false;
+        }
+        long childNanos = 0;
+        for (int i = 0; i < paths.length; i++) {
+            PhaseTimer.PhaseStats stats = all.get(i);
+            if (!stats.path().equals(paths[i]) || stats.count() != 2) {
+                System.out.println("  incorrect phase\n" +
+                        "  expected: " + paths[i] + " x 2\n" +
+                        "  returned: " + stats.path() + " x " + stats.count());
+                return false;
+            }
+            if (i > 0) {
+                childNanos += stats.totalNanos();
+            }
+        }
+        if (childNanos > timer.stats("generateCode").totalNanos()) {
+            System.out.println("  child phases took longer than their parent: " + timer.report());
+            return false;
+        }
+
+        List<String> expected = new ArrayList<>();
+        for (int round = 0; round < 2; round++) {
+            expected.addAll(Arrays.asList("1 generateCode/read", "1 generateCode/count", "1 generateCode/sort",
+                    "1 generateCode/buildTree", "1 generateCode/assignCodes", "0 generateCode"));
+        }
+        if (!events.equals(expected)) {
+            System.out.println("  incorrect listener calls\n" +
+                    "  expected: " + expected + "\n" +
+                    "  returned: " + events);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 在encode阶段内PHASE_ROUNDS轮记录同一组已知耗时：write的次数、总和、最值和百分位数都可以精确算出；
+     * 移除监听器后不再收到通知
+     */
+    static boolean testPhaseTimerPercentiles() {
+        PhaseTimer timer = new PhaseTimer();
+        int[] calls = new int[1];
+        PhaseTimer.Listener listener = (path, depth, nanos) -> calls[0] += 1;
+        timer.addListener(listener);
+        for (int round = 0; round < PHASE_ROUNDS; round++) {
+            PhaseTimer.Span encode = timer.start("encode");
+            for (int n = 1; n <= PHASE_SAMPLES; n++) {
+                timer.record("write", n * PHASE_UNIT_NANOS);
+            }
+            encode.close();
+        }
+        if (calls[0] != PHASE_ROUNDS * (PHASE_SAMPLES + 1)) {
+            System.out.println("  listener called " + calls[0] + " times, expected " + PHASE_ROUNDS * (PHASE_SAMPLES + 1));
+            return false;
+        }
+
+        PhaseTimer.PhaseStats write = timer.stats("encode/write");
+        long total = PHASE_ROUNDS * PHASE_UNIT_NANOS * PHASE_SAMPLES * (PHASE_SAMPLES + 1) / 2;
+        if (write == null || write.count() != PHASE_ROUNDS * PHASE_SAMPLES || write.totalNanos() != total
+                || write.minNanos() != PHASE_UNIT_NANOS || write.maxNanos() != PHASE_SAMPLES * PHASE_UNIT_NANOS) {
+            System.out.println("  incorrect totals for encode/write: " + write);
+            return false;
+        }
+        // 每个值出现PHASE_ROUNDS次，最近秩法下第p百分位数恰为p * PHASE_UNIT_NANOS
+        for (int p : new int[]{1, 50, 90, 99, 100}) {
+            if (write.percentile(p) != p * PHASE_UNIT_NANOS) {
+                System.out.println("  incorrect p" + p + " of encode/write\n" +
+                        "  expected: " + p * PHASE_UNIT_NANOS + "\n" +
+                        "  returned: " + write.percentile(p));
+                return false;
+            }
+        }
+
+        timer.removeListener(listener);
+        timer.record("flush", PHASE_UNIT_NANOS);
+        if (calls[0] != PHASE_ROUNDS * (PHASE_SAMPLES + 1) || timer.stats("flush").count() != 1) {
+            System.out.println("  removed listener was still called");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 完整的"链式"码长：符号0到maxLength - 2的码长依次为1到maxLength - 1，
+     * 符号maxLength - 1和转义符号的码长都为maxLength，其余字节没有编码
+     */
+    static byte[] chainLengths(int maxLength) {
+        byte[] lengths = new byte[Codebook.ALPHABET_SIZE + 1];
+        for (int symbol = 0; symbol < maxLength - 1; symbol++) {
+            lengths[symbol] = (byte) (symbol + 1);
+        }
+        lengths[maxLength - 1] = (byte) maxLength;
+        lengths[StaticCodebook.ESCAPE] = (byte) maxLength;
+        return lengths;
+    }
+
+    static byte[] save(StaticCodebook codebook) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        codebook.save(out);
+        return out.toByteArray();
+    }
+
+    /**
+     * 以一个合法码表文件的头部拼接任意码长，得到待读取的码表文件
+     */
+    static byte[] staticCodebookFile(byte[] lengths) throws IOException {
+        byte[] file = save(StaticCodebook.train(new ByteArrayInputStream(new byte[0])));
+        System.arraycopy(lengths, 0, file, STATIC_HEADER_SIZE, lengths.length);
+        return file;
+    }
+
 }
-    
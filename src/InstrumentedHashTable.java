@@ -0,0 +1,27 @@
+/**
+ * @author YFCodeDream
+ * @version 1.0.0
+ * @date 2026/10/19
+ * @description 可以统计运行状况的哈希表
+ * 运行时计数默认关闭，关闭时每次操作只多一次布尔判断
+ */
+public interface InstrumentedHashTable {
+    /**
+     * 生成当前的统计快照，需要遍历整个表
+     * @return 统计快照
+     */
+    HashTableStats stats();
+
+    /**
+     * 开启或关闭运行时计数（查找的探测次数、扩容耗时）
+     * @param instrumented 是否开启
+     */
+    void setInstrumented(boolean instrumented);
+
+    boolean isInstrumented();
+
+    /**
+     * 将扩容次数和所有运行时计数清零
+     */
+    void resetStats();
+}
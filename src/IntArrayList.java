@@ -0,0 +1,184 @@
+import java.util.Arrays;
+
+/**
+ * @author YFCodeDream
+ * @version 1.0.0
+ * @date 2026/10/19
+ * @description int的可增长数组列表
+ * 元素直接存放在int[]中，不需要装箱，也不为每个元素分配对象
+ */
+public class IntArrayList {
+    public static final int DEFAULT_CAPACITY = 10;
+
+    private static final int[] EMPTY = new int[0];
+
+    private int[] elements;
+
+    private int size;
+
+    public IntArrayList() {
+        this(0);
+    }
+
+    /**
+     * @param initialCapacity 初始容量，预先知道元素个数时可以避免扩容
+     */
+    public IntArrayList(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("initialCapacity must be non-negative");
+        }
+        elements = initialCapacity == 0 ? EMPTY : new int[initialCapacity];
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int get(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException();
+        }
+        return elements[i];
+    }
+
+    public void set(int i, int x) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException();
+        }
+        elements[i] = x;
+    }
+
+    /**
+     * 在尾部追加元素
+     * @param x 元素
+     */
+    public void add(int x) {
+        if (size == elements.length) {
+            grow(size + 1);
+        }
+        elements[size] = x;
+        size += 1;
+    }
+
+    public void add(int i, int x) {
+        if (i < 0 || i > size) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (size == elements.length) {
+            grow(size + 1);
+        }
+        System.arraycopy(elements, i, elements, i + 1, size - i);
+        elements[i] = x;
+        size += 1;
+    }
+
+    /**
+     * 在尾部追加数组中的一段
+     * @param source 数组
+     * @param offset 起始下标
+     * @param length 元素个数
+     */
+    public void addAll(int[] source, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > source.length) {
+            throw new IndexOutOfBoundsException();
+        }
+        ensureCapacity(size + length);
+        System.arraycopy(source, offset, elements, size, length);
+        size += length;
+    }
+
+    /**
+     * 在尾部追加另一个列表的所有元素
+     * @param other 另一个列表
+     */
+    public void addAll(IntArrayList other) {
+        addAll(other.elements, 0, other.size);
+    }
+
+    /**
+     * 删除下标i处的元素
+     * @param i 下标
+     * @return 被删除的元素
+     */
+    public int remove(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException();
+        }
+        int removedValue = elements[i];
+        System.arraycopy(elements, i + 1, elements, i, size - i - 1);
+        size -= 1;
+        return removedValue;
+    }
+
+    /**
+     * 删除下标在[from, to)内的所有元素
+     * @param from 起始下标（包含）
+     * @param to 结束下标（不包含）
+     */
+    public void removeRange(int from, int to) {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException();
+        }
+        System.arraycopy(elements, to, elements, from, size - to);
+        size -= to - from;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * 保证容量不小于minCapacity
+     * @param minCapacity 最小容量
+     */
+    public void ensureCapacity(int minCapacity) {
+        if (minCapacity > elements.length) {
+            grow(minCapacity);
+        }
+    }
+
+    /**
+     * 将容量缩小到当前元素个数
+     */
+    public void trimToSize() {
+        if (size < elements.length) {
+            elements = size == 0 ? EMPTY : Arrays.copyOf(elements, size);
+        }
+    }
+
+    public int[] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+
+    /**
+     * 容量按1.5倍增长，保证均摊O(1)的追加
+     */
+    private void grow(int minCapacity) {
+        if (minCapacity < 0) {
+            throw new OutOfMemoryError("list too large");
+        }
+        int newCapacity = Math.max(DEFAULT_CAPACITY, elements.length + (elements.length >> 1));
+        if (newCapacity < minCapacity || newCapacity < 0) {
+            newCapacity = minCapacity;
+        }
+        elements = Arrays.copyOf(elements, newCapacity);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder resStr = new StringBuilder("IntArrayList[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                resStr.append(", ");
+            }
+            resStr.append(elements[i]);
+        }
+        resStr.append("]");
+        return resStr.toString();
+    }
+}
@@ -0,0 +1,292 @@
+import java.util.Random;
+
+/**
+ * @author YFCodeDream
+ * @version 1.0.0
+ * @date 2026/10/19
+ * @description int到int的HashMap
+ * 键和值分别存放在两个原生数组中，开放寻址（线性探测），
+ * get/put/addTo都不需要装箱，也不为每个键值对分配对象
+ */
+public class IntIntHashMap {
+    public static final int DEFAULT_LOG_CAPACITY = 4;
+
+    private int logCapacity = DEFAULT_LOG_CAPACITY;
+    private int capacity = 1 << logCapacity;
+    private int size = 0;
+
+    // 键0用来表示空位，真正的键0单独存放
+    private int[] keys;
+    private int[] values;
+
+    private boolean hasZeroKey;
+    private int zeroValue;
+
+    private final int z;
+
+    private final double loadFactor = 0.5;
+
+    public IntIntHashMap() {
+        keys = new int[capacity];
+        values = new int[capacity];
+
+        // fix a random odd integer
+        Random r = new Random();
+        z = (r.nextInt() << 1) + 1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(int key) {
+        if (key == 0) {
+            return hasZeroKey;
+        }
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * 获取键对应的值
+     * @param key 键
+     * @param defaultValue 键不存在时返回的值
+     * @return 键对应的值，不存在时返回defaultValue
+     */
+    public int getOrDefault(int key, int defaultValue) {
+        if (key == 0) {
+            return hasZeroKey ? zeroValue : defaultValue;
+        }
+        int slot = indexOf(key);
+        return slot >= 0 ? values[slot] : defaultValue;
+    }
+
+    /**
+     * 设置键对应的值
+     * @param key 键
+     * @param value 值
+     * @return 原先的值，键不存在时返回0
+     */
+    public int put(int key, int value) {
+        if (key == 0) {
+            int previous = hasZeroKey ? zeroValue : 0;
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size += 1;
+            }
+            zeroValue = value;
+            return previous;
+        }
+
+        int slot = indexOf(key);
+        if (slot >= 0) {
+            int previous = values[slot];
+            values[slot] = value;
+            return previous;
+        }
+
+        insertAt(~slot, key, value);
+        return 0;
+    }
+
+    /**
+     * 将键对应的值加上delta，键不存在时视为0，只需一次探测
+     * @param key 键
+     * @param delta 增量
+     * @return 相加之后的值
+     */
+    public int addTo(int key, int delta) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size += 1;
+            }
+            zeroValue += delta;
+            return zeroValue;
+        }
+
+        int slot = indexOf(key);
+        if (slot >= 0) {
+            values[slot] += delta;
+            return values[slot];
+        }
+
+        insertAt(~slot, key, delta);
+        return delta;
+    }
+
+    /**
+     * 删除键
+     * @param key 键
+     * @return 键是否存在
+     */
+    public boolean remove(int key) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                return false;
+            }
+            hasZeroKey = false;
+            zeroValue = 0;
+            size -= 1;
+            return true;
+        }
+
+        int slot = indexOf(key);
+        if (slot < 0) {
+            return false;
+        }
+        deleteSlot(slot);
+        size -= 1;
+        return true;
+    }
+
+    public void clear() {
+        for (int i = 0; i < capacity; i++) {
+            keys[i] = 0;
+            values[i] = 0;
+        }
+        hasZeroKey = false;
+        zeroValue = 0;
+        size = 0;
+    }
+
+    /**
+     * 返回一个游标，用于不分配对象地遍历所有键值对
+     * 遍历期间不能修改map
+     * @return 游标
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    private int hash(int key) {
+        return (z * key) >>> (32 - logCapacity);
+    }
+
+    /**
+     * 线性探测
+     * @param key 非0的键
+     * @return 找到时返回其下标；否则返回 ~(探测到的第一个空位)
+     */
+    private int indexOf(int key) {
+        int mask = capacity - 1;
+        int i = hash(key);
+        while (keys[i] != 0) {
+            if (keys[i] == key) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return ~i;
+    }
+
+    private void insertAt(int slot, int key, int value) {
+        if (size + 1 > loadFactor * capacity) {
+            increaseCapacity();
+            slot = ~indexOf(key);
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        size += 1;
+    }
+
+    /**
+     * 删除指定位置的键值对，并把探测序列中后续的键值对回移
+     * @param i 待删除的位置
+     */
+    private void deleteSlot(int i) {
+        int mask = capacity - 1;
+        keys[i] = 0;
+        values[i] = 0;
+
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            if (keys[j] == 0) {
+                return;
+            }
+
+            int home = hash(keys[j]);
+            // home不在(i, j]的循环区间内时，j处的键值对可以回移到i
+            boolean stays = i <= j ? (home > i && home <= j) : (home > i || home <= j);
+            if (!stays) {
+                keys[i] = keys[j];
+                values[i] = values[j];
+                keys[j] = 0;
+                values[j] = 0;
+                i = j;
+            }
+        }
+    }
+
+    private void increaseCapacity() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+
+        logCapacity += 1;
+        capacity = capacity << 1;
+        keys = new int[capacity];
+        values = new int[capacity];
+
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int j = hash(oldKeys[i]);
+                while (keys[j] != 0) {
+                    j = (j + 1) & mask;
+                }
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder resStr = new StringBuilder("IntIntHashMap{");
+        Cursor cursor = cursor();
+        boolean first = true;
+        while (cursor.advance()) {
+            if (!first) {
+                resStr.append(", ");
+            }
+            resStr.append(cursor.key()).append("=").append(cursor.value());
+            first = false;
+        }
+        resStr.append("}");
+        return resStr.toString();
+    }
+
+    /**
+     * 游标：先调用advance()移动到下一个键值对，再用key()/value()读取
+     */
+    public class Cursor {
+        // -1表示键0，之后依次为表中的位置
+        private int index = -2;
+
+        public boolean advance() {
+            if (index == -2) {
+                index = -1;
+                if (hasZeroKey) {
+                    return true;
+                }
+            }
+            index += 1;
+            while (index < capacity && keys[index] == 0) {
+                index += 1;
+            }
+            return index < capacity;
+        }
+
+        public int key() {
+            return index == -1 ? 0 : keys[index];
+        }
+
+        public int value() {
+            return index == -1 ? zeroValue : values[index];
+        }
+    }
+}
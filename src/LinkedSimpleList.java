@@ -1,11 +1,13 @@
 import java.util.Iterator;
-import java.util.Objects;
+import java.util.NoSuchElementException;
 
 /**
  * @author YFCodeDream
  * @version 1.0.0
  * @date 2022/2/26
- * @description 链表
+ * @description 双向链表
+ * 同时记录头部和尾部，两端的插入和删除都是O(1)；
+ * 另外缓存最近一次按下标访问的节点，按下标顺序遍历时每次只需从缓存的节点走一步
  */
 @SuppressWarnings("GrazieInspection")
 public class LinkedSimpleList<T> implements SimpleList<T>, Iterable<T> {
@@ -13,8 +15,18 @@ public class LinkedSimpleList<T> implements SimpleList<T>, Iterable<T> {
 
     private Node<T> head;
 
+    private Node<T> tail;
+
+    /**
+     * 最近一次按下标访问的节点及其下标，cursorNode为null时缓存无效
+     */
+    private Node<T> cursorNode;
+
+    private int cursorIndex;
+
     public LinkedSimpleList() {
         head = null;
+        tail = null;
         size = 0;
     }
 
@@ -39,7 +51,7 @@ public class LinkedSimpleList<T> implements SimpleList<T>, Iterable<T> {
             throw new IndexOutOfBoundsException();
         }
 
-        return Objects.requireNonNull(getNode(i)).value;
+        return getNode(i).value;
     }
 
     /**
@@ -53,10 +65,14 @@ public class LinkedSimpleList<T> implements SimpleList<T>, Iterable<T> {
             throw new IndexOutOfBoundsException();
         }
 
-        Node<T> node = getNode(i);
-        Objects.requireNonNull(node).value = x;
+        getNode(i).value = x;
     }
 
+    /**
+     * 在下标i处插入元素，i为0或size时都是O(1)
+     * @param i the index of the element to be added
+     * @param x the element to be added at index <code>i</code>
+     */
     @Override
     public void add(int i, T x) {
         if (i < 0 || i > size) {
@@ -65,64 +81,57 @@ public class LinkedSimpleList<T> implements SimpleList<T>, Iterable<T> {
 
         Node<T> addNode = new Node<>(x);
 
-        if (i == 0) {
+        if (size == 0) {
+            head = addNode;
+            tail = addNode;
+        } else if (i == 0) {
             addNode.next = head;
+            head.prev = addNode;
             head = addNode;
+        } else if (i == size) {
+            addNode.prev = tail;
+            tail.next = addNode;
+            tail = addNode;
         } else {
-            Node<T> aheadNode = getNode(i - 1);
-            Node<T> hinderNode = Objects.requireNonNull(aheadNode).next;
+            Node<T> hinderNode = getNode(i);
+            Node<T> aheadNode = hinderNode.prev;
             aheadNode.next = addNode;
+            addNode.prev = aheadNode;
             addNode.next = hinderNode;
+            hinderNode.prev = addNode;
         }
 
-        // 修改size和tail标记
         size += 1;
 
-        // 更新序列号
-        // renewIndices();
+        // 新节点就在下标i处，后续在附近的访问可以从这里开始
+        cursorNode = addNode;
+        cursorIndex = i;
     }
 
+    /**
+     * 删除下标i处的元素，i为0或size - 1时都是O(1)
+     * @param i the index of the element to be removed
+     * @return 被删除的元素
+     */
     @Override
     public T remove(int i) {
-        if (i < 0 || i > size) {
+        if (i < 0 || i >= size) {
             throw new IndexOutOfBoundsException();
         }
 
-        /*
-         * 先讨论删除头部的情况，则：
-         *      获取头部节点的后继节点
-         *      将新头部置为原头部的后继节点
-         *      将size减一
-         *      更新序列号
-         */
+        Node<T> removedNode;
         if (i == 0) {
-            T removedValue = head.value;
-            head = head.next;
-
-            size -= 1;
-            renewIndices();
-
-            return removedValue;
+            removedNode = head;
+        } else if (i == size - 1) {
+            removedNode = tail;
+        } else {
+            removedNode = getNode(i);
         }
+        unlink(removedNode);
 
-        /*
-         * 再讨论内部节点，则：
-         *      先获取先前节点（此时先前节点必不为空，因为头部节点的情况已经在上面讨论过了）
-         *      获取待删除节点
-         *      将先前节点的后继节点置为待删除节点的后继节点
-         *      将size减一
-         *      更新序列号
-         */
-        Node<T> aheadNode = getNode(i - 1);
-
-        assert aheadNode != null;
-        Node<T> removedNode = aheadNode.next;
-
-        assert removedNode != null;
-        aheadNode.next = removedNode.next;
-
-        size -= 1;
-        renewIndices();
+        // 原来的后继节点现在位于下标i处
+        cursorNode = removedNode.next;
+        cursorIndex = i;
 
         return removedNode.value;
     }
@@ -132,7 +141,7 @@ public class LinkedSimpleList<T> implements SimpleList<T>, Iterable<T> {
      * @param i 待移动元素下标
      */
     public void removeToFirst(int i) {
-        if (i < 0 || i > size) {
+        if (i < 0 || i >= size) {
             throw new IndexOutOfBoundsException();
         }
 
@@ -140,38 +149,33 @@ public class LinkedSimpleList<T> implements SimpleList<T>, Iterable<T> {
             return;
         }
 
-        Node<T> aheadNode = getNode(i - 1);
-
-        assert aheadNode != null;
-        Node<T> removedNode = aheadNode.next;
+        Node<T> movedNode = getNode(i);
+        unlink(movedNode);
 
-        assert removedNode != null;
-        aheadNode.next = removedNode.next;
-        removedNode.next = head;
-        head = removedNode;
+        movedNode.prev = null;
+        movedNode.next = head;
+        head.prev = movedNode;
+        head = movedNode;
+        size += 1;
 
-        renewIndices();
+        cursorNode = movedNode;
+        cursorIndex = 0;
     }
 
     public void reverse() {
         Node<T> currentNode = head;
-        Node<T> hinderNode = currentNode.next;
-        Node<T> hinderNextNode = hinderNode != null ? hinderNode.next : null;
-
-        while (hinderNode != null) {
-            hinderNode.next = currentNode;
-            if (currentNode == head) {
-                currentNode.next = null;
-            }
+        while (currentNode != null) {
+            Node<T> hinderNode = currentNode.next;
+            currentNode.next = currentNode.prev;
+            currentNode.prev = hinderNode;
             currentNode = hinderNode;
-            hinderNode = hinderNextNode;
-            if (hinderNode != null) {
-                hinderNextNode = hinderNode.next;
-            }
         }
 
-        head = currentNode;
-        renewIndices();
+        Node<T> oldHead = head;
+        head = tail;
+        tail = oldHead;
+
+        cursorNode = null;
     }
 
     @Override
@@ -187,17 +191,17 @@ public class LinkedSimpleList<T> implements SimpleList<T>, Iterable<T> {
         /**
          * 标记先前节点
          */
-        Node<E> next;
+        Node<E> prev;
 
         /**
-         * 节点值
+         * 标记后继节点
          */
-        E value;
+        Node<E> next;
 
         /**
-         * 当前节点序列号，可无需此属性，该属性便于查看节点信息
+         * 节点值
          */
-        int index;
+        E value;
 
         public Node(E value) {
             this.value = value;
@@ -206,8 +210,7 @@ public class LinkedSimpleList<T> implements SimpleList<T>, Iterable<T> {
         @Override
         public String toString() {
             return "Node{" +
-                    "next=" + (next == null ? "null" : next.index) +
-                    ", value=" + value +
+                    "value=" + value +
                     '}';
         }
     }
@@ -230,42 +233,67 @@ public class LinkedSimpleList<T> implements SimpleList<T>, Iterable<T> {
 
         @Override
         public T next() {
-            if (hasNext()) {
-                T currentValue = currentNode.value;
-                currentNode = currentNode.next;
-                return currentValue;
+            if (!hasNext()) {
+                throw new NoSuchElementException();
             }
-            return currentNode.value;
+            T currentValue = currentNode.value;
+            currentNode = currentNode.next;
+            return currentValue;
         }
     }
 
     /**
      * 辅助方法，依据索引返回指定节点
-     * 其实为返回index == i的节点
-     * @param i 索引值
+     * 从头部、尾部和缓存的节点中离i最近的一个出发
+     * @param i 索引值，调用方保证 0 <= i < size
      * @return 指定索引值的节点
      */
     private Node<T> getNode(int i) {
-        if (i < 0 || i >= size) return null;
+        Node<T> currentNode;
+        int currentIndex;
 
-        Node<T> currentNode = head;
+        if (i < size - 1 - i) {
+            currentNode = head;
+            currentIndex = 0;
+        } else {
+            currentNode = tail;
+            currentIndex = size - 1;
+        }
+        if (cursorNode != null && Math.abs(i - cursorIndex) < Math.abs(i - currentIndex)) {
+            currentNode = cursorNode;
+            currentIndex = cursorIndex;
+        }
 
-        for (int j = 0; j < i; j++) {
+        while (currentIndex < i) {
             currentNode = currentNode.next;
+            currentIndex += 1;
+        }
+        while (currentIndex > i) {
+            currentNode = currentNode.prev;
+            currentIndex -= 1;
         }
 
+        cursorNode = currentNode;
+        cursorIndex = i;
         return currentNode;
     }
 
     /**
-     * 辅助方法，更新索引值
+     * 辅助方法，将节点从链表中摘下，节点自身的prev和next保持不变
+     * @param node 待摘下的节点
      */
-    private void renewIndices() {
-        int index = 0;
-        for (Node<T> node = head; node != null; node = node.next) {
-            node.index = index;
-            index += 1;
+    private void unlink(Node<T> node) {
+        if (node.prev == null) {
+            head = node.next;
+        } else {
+            node.prev.next = node.next;
         }
+        if (node.next == null) {
+            tail = node.prev;
+        } else {
+            node.next.prev = node.prev;
+        }
+        size -= 1;
     }
 
     /**
@@ -0,0 +1,316 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * @author YFCodeDream
+ * @version 1.0.0
+ * @date 2026/10/19
+ * @description 可以直接mmap使用的解码表
+ * 文件中保存完整的解码结构（查找表和范式解码区间），而不仅仅是码长，
+ * 进程启动后只需映射文件即可开始解码，多个进程共享同一份物理内存页
+ *
+ * 文件布局（全部为大端序）：
+ *      头部：魔数 版本 查找位数 最大码长 符号数 已编码符号数 转义符号（各4字节），补齐到8字节
+ *      firstCode[0..maxLength]：每个码长的首个范式编码（各8字节）
+ *      lookup[0..2^lookupBits)：(符号 << 8) | 码长，0表示编码长于查找位数（各4字节）
+ *      countPerLength[0..maxLength]：每个码长的符号个数（各4字节）
+ *      firstIndex[0..maxLength]：每个码长在sortedSymbols中的起始下标（各4字节）
+ *      sortedSymbols：按(码长, 符号值)升序排列的符号（各4字节）
+ */
+public class MappedDecodeTable {
+    /**
+     * 解码表文件的魔数，即"HUFT"
+     */
+    private static final int MAGIC = 0x48554654;
+
+    private static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 32;
+
+    /**
+     * 查找表的默认位数，4K项，16KB
+     */
+    public static final int DEFAULT_LOOKUP_BITS = 12;
+
+    /**
+     * 没有转义符号时的标记
+     */
+    public static final int NO_ESCAPE = -1;
+
+    private final ByteBuffer buffer;
+
+    private final int lookupBits;
+    private final int maxLength;
+    private final int symbolCount;
+    private final int escapeSymbol;
+
+    // 各区段在buffer中的起始偏移
+    private final int firstCodeOffset;
+    private final int lookupOffset;
+    private final int countOffset;
+    private final int firstIndexOffset;
+    private final int sortedOffset;
+
+    private MappedDecodeTable(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer.order(ByteOrder.BIG_ENDIAN);
+
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("not a decode table file");
+        }
+        int version = buffer.getInt(4);
+        if (version != VERSION) {
+            throw new IOException("unsupported decode table version: " + version);
+        }
+        lookupBits = buffer.getInt(8);
+        maxLength = buffer.getInt(12);
+        symbolCount = buffer.getInt(16);
+        int sortedCount = buffer.getInt(20);
+        escapeSymbol = buffer.getInt(24);
+
+        firstCodeOffset = HEADER_SIZE;
+        lookupOffset = firstCodeOffset + 8 * (maxLength + 1);
+        countOffset = lookupOffset + 4 * (1 << lookupBits);
+        firstIndexOffset = countOffset + 4 * (maxLength + 1);
+        sortedOffset = firstIndexOffset + 4 * (maxLength + 1);
+
+        if (buffer.capacity() < sortedOffset + 4 * sortedCount) {
+            throw new IOException("truncated decode table file");
+        }
+    }
+
+    /**
+     * 以只读方式映射解码表文件，映射之后即可解码，不做任何拷贝
+     * @param path 解码表文件
+     * @return 解码表
+     * @throws IOException 映射失败或文件格式不正确
+     */
+    public static MappedDecodeTable map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // 映射在channel关闭后依然有效
+            return new MappedDecodeTable(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * 直接使用一段内存中的解码表，便于测试或从其他来源加载
+     * @param buffer 解码表的字节
+     * @return 解码表
+     * @throws IOException 格式不正确
+     */
+    public static MappedDecodeTable wrap(ByteBuffer buffer) throws IOException {
+        return new MappedDecodeTable(buffer);
+    }
+
+    /**
+     * 将静态码表的解码表写入文件，转义符号之后的8位原始字节由解码器处理
+     * @param staticCodebook 静态码表
+     * @param path 解码表文件
+     * @throws IOException 写入失败
+     */
+    public static void write(StaticCodebook staticCodebook, Path path) throws IOException {
+        write(staticCodebook.getCanonicalCodebook(), StaticCodebook.ESCAPE, DEFAULT_LOOKUP_BITS, path);
+    }
+
+    /**
+     * 将范式码表的完整解码表写入文件
+     * @param codebook 范式码表，编码时必须使用同一份码表
+     * @param escapeSymbol 转义符号，没有则为NO_ESCAPE
+     * @param lookupBits 查找表的位数
+     * @param path 解码表文件
+     * @throws IOException 写入失败
+     */
+    public static void write(Codebook codebook, int escapeSymbol, int lookupBits, Path path) throws IOException {
+        ByteBuffer table = build(codebook, escapeSymbol, lookupBits);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (table.hasRemaining()) {
+                channel.write(table);
+            }
+        }
+    }
+
+    /**
+     * 在内存中构建解码表的字节布局
+     * @param codebook 范式码表
+     * @param escapeSymbol 转义符号，没有则为NO_ESCAPE
+     * @param lookupBits 查找表的位数
+     * @return 解码表的字节布局
+     */
+    static ByteBuffer build(Codebook codebook, int escapeSymbol, int lookupBits) {
+        byte[] lengths = codebook.getLengths();
+        long[] codes = codebook.getCodes();
+
+        // 只有范式编码才能用区间的方式解码
+        long[] canonicalCodes = Codebook.canonical(lengths).getCodes();
+        for (int symbol = 0; symbol < lengths.length; symbol++) {
+            if (lengths[symbol] != 0 && codes[symbol] != canonicalCodes[symbol]) {
+                throw new IllegalArgumentException("decode tables require a canonical codebook");
+            }
+        }
+        if (lookupBits < 1 || lookupBits > 16) {
+            throw new IllegalArgumentException("lookupBits must be in [1, 16]");
+        }
+
+        int maxLength = 0;
+        int sortedCount = 0;
+        for (byte length : lengths) {
+            maxLength = Math.max(maxLength, length);
+            if (length != 0) {
+                sortedCount += 1;
+            }
+        }
+
+        // 码长都不超过查找位数时，无需更大的查找表
+        lookupBits = Math.min(lookupBits, Math.max(maxLength, 1));
+
+        int[] countPerLength = new int[maxLength + 1];
+        for (byte length : lengths) {
+            if (length != 0) {
+                countPerLength[length] += 1;
+            }
+        }
+        int[] firstIndex = new int[maxLength + 1];
+        long[] firstCode = new long[maxLength + 1];
+        long code = 0;
+        int index = 0;
+        for (int len = 1; len <= maxLength; len++) {
+            firstIndex[len] = index;
+            firstCode[len] = code;
+            index += countPerLength[len];
+            code = (code + countPerLength[len]) << 1;
+        }
+
+        int size = HEADER_SIZE + 8 * (maxLength + 1) + 4 * (1 << lookupBits)
+                + 4 * 2 * (maxLength + 1) + 4 * sortedCount;
+        ByteBuffer table = ByteBuffer.allocate(size).order(ByteOrder.BIG_ENDIAN);
+
+        table.putInt(MAGIC).putInt(VERSION).putInt(lookupBits).putInt(maxLength)
+                .putInt(lengths.length).putInt(sortedCount).putInt(escapeSymbol).putInt(0);
+
+        for (int len = 0; len <= maxLength; len++) {
+            table.putLong(firstCode[len]);
+        }
+
+        // 码长不超过lookupBits的编码，在查找表中占据以其为前缀的全部表项
+        int lookupStart = table.position();
+        for (int symbol = 0; symbol < lengths.length; symbol++) {
+            int len = lengths[symbol];
+            if (len == 0 || len > lookupBits) {
+                continue;
+            }
+            int shift = lookupBits - len;
+            int from = (int) (codes[symbol] << shift);
+            int to = from + (1 << shift);
+            for (int i = from; i < to; i++) {
+                table.putInt(lookupStart + 4 * i, (symbol << 8) | len);
+            }
+        }
+        table.position(lookupStart + 4 * (1 << lookupBits));
+
+        for (int len = 0; len <= maxLength; len++) {
+            table.putInt(countPerLength[len]);
+        }
+        for (int len = 0; len <= maxLength; len++) {
+            table.putInt(firstIndex[len]);
+        }
+        for (int len = 1; len <= maxLength; len++) {
+            for (int symbol = 0; symbol < lengths.length; symbol++) {
+                if (lengths[symbol] == len) {
+                    table.putInt(symbol);
+                }
+            }
+        }
+
+        table.flip();
+        return table;
+    }
+
+    public int symbolCount() {
+        return symbolCount;
+    }
+
+    public int maxLength() {
+        return maxLength;
+    }
+
+    /**
+     * 解码一篇文档
+     * @param encoded 编码后的位流
+     * @param length 原文的字节数
+     * @return 原文
+     */
+    public byte[] decode(byte[] encoded, int length) {
+        byte[] decoded = new byte[length];
+        long totalBits = (long) encoded.length << 3;
+        long bitPos = 0;
+
+        for (int i = 0; i < length; i++) {
+            // 先用查找表一次解码不超过lookupBits位的编码
+            int peek = peekBits(encoded, bitPos, lookupBits);
+            int entry = buffer.getInt(lookupOffset + 4 * peek);
+            int symbol;
+            int len;
+
+            if (entry != 0) {
+                symbol = entry >>> 8;
+                len = entry & 0xFF;
+            } else {
+                // 较长的编码，按范式编码区间逐位比较
+                long code = peek;
+                symbol = -1;
+                len = lookupBits;
+                while (len < maxLength) {
+                    code = (code << 1) | bitAt(encoded, bitPos + len);
+                    len += 1;
+                    long offset = code - buffer.getLong(firstCodeOffset + 8 * len);
+                    if (offset >= 0 && offset < buffer.getInt(countOffset + 4 * len)) {
+                        symbol = buffer.getInt(sortedOffset
+                                + 4 * (buffer.getInt(firstIndexOffset + 4 * len) + (int) offset));
+                        break;
+                    }
+                }
+                if (symbol < 0) {
+                    throw new IllegalArgumentException("invalid codeword at bit " + bitPos);
+                }
+            }
+
+            bitPos += len;
+
+            if (symbol == escapeSymbol) {
+                // 转义符号之后紧跟8位原始字节
+                symbol = peekBits(encoded, bitPos, 8);
+                bitPos += 8;
+            }
+
+            if (bitPos > totalBits) {
+                throw new IllegalArgumentException("encoded stream ended unexpectedly");
+            }
+            decoded[i] = (byte) symbol;
+        }
+
+        return decoded;
+    }
+
+    /**
+     * 读取从bitPos开始的n位（n不超过16），超出数据末尾的部分视为0
+     */
+    private static int peekBits(byte[] data, long bitPos, int n) {
+        int byteIndex = (int) (bitPos >>> 3);
+        int skip = (int) (bitPos & 7);
+        int window = (byteAt(data, byteIndex) << 16) | (byteAt(data, byteIndex + 1) << 8)
+                | byteAt(data, byteIndex + 2);
+        return (window >>> (24 - skip - n)) & ((1 << n) - 1);
+    }
+
+    private static int bitAt(byte[] data, long bitPos) {
+        return (byteAt(data, (int) (bitPos >>> 3)) >>> (7 - (int) (bitPos & 7))) & 1;
+    }
+
+    private static int byteAt(byte[] data, int index) {
+        return index < data.length ? data[index] & 0xFF : 0;
+    }
+}
@@ -0,0 +1,162 @@
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * @author YFCodeDream
+ * @version 1.0.0
+ * @date 2026/10/19
+ * @description 松弛的并发优先队列（MultiQueue）
+ * 内部有 c x P 个CompleteBinaryHeapPriorityDeque（P为线程数，c为每个线程分到的堆数），每个堆一把锁：
+ * 1. insert：随机选一个堆，tryLock失败就换一个，不在锁上等待
+ * 2. removeMin：随机选两个堆，不加锁读出两者的堆顶优先级，取较小的一个加锁删除（pick two, take better）
+ * 因此removeMin不保证取出全局最小的元素，只保证取出的元素在全局的排名期望为O(c x P)，
+ * 换来的是不同线程几乎总是落在不同的堆上，吞吐量随线程数近似线性增长。
+ * 适合按优先级调度任务这类允许少量乱序的场景
+ */
+public class MultiQueue<T extends Comparable<T>> {
+    public static final int DEFAULT_QUEUES_PER_THREAD = 2;
+
+    // 空堆的堆顶优先级
+    private static final long EMPTY = Long.MAX_VALUE;
+
+    private final Shard<T>[] shards;
+
+    public MultiQueue() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_QUEUES_PER_THREAD);
+    }
+
+    /**
+     * @param threads 预计同时访问的线程数P
+     * @param queuesPerThread 每个线程分到的堆数c，堆的总数为 c x P，至少为2
+     */
+    public MultiQueue(int threads, int queuesPerThread) {
+        if (threads < 1 || queuesPerThread < 1) {
+            throw new IllegalArgumentException("threads and queuesPerThread must be positive");
+        }
+        int shardCount = Math.max(2, threads * queuesPerThread);
+        shards = newShardArray(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard<>();
+        }
+    }
+
+    /**
+     * 泛型数组只能以原始类型创建，集中在这里做一次未检查的转换
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <E extends Comparable<E>> Shard<E>[] newShardArray(int length) {
+        return new Shard[length];
+    }
+
+    public int shardCount() {
+        return shards.length;
+    }
+
+    /**
+     * 各堆大小之和；并发修改时只是一个近似值
+     */
+    public int size() {
+        long sum = 0;
+        for (Shard<T> shard : shards) {
+            sum += shard.count;
+        }
+        return (int) Math.min(sum, Integer.MAX_VALUE);
+    }
+
+    public boolean isEmpty() {
+        for (Shard<T> shard : shards) {
+            if (shard.count != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 插入元素到随机选取的一个堆中
+     * @param k 优先级
+     * @param x 值
+     */
+    public void insert(long k, T x) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (true) {
+            Shard<T> shard = shards[random.nextInt(shards.length)];
+            if (shard.lock.tryLock()) {
+                try {
+                    shard.heap.insert(k, x);
+                    shard.update();
+                } finally {
+                    shard.lock.unlock();
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * 从随机选取的两个堆中，删除堆顶优先级较小的一个堆的最小元素
+     * 选中的两个堆都为空时，遍历所有的堆，全部为空才返回null
+     * @return 被删除的值，队列为空时返回null
+     */
+    public T removeMin() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (true) {
+            int i = random.nextInt(shards.length);
+            int j = random.nextInt(shards.length - 1);
+            if (j >= i) {
+                j += 1;
+            }
+            Shard<T> first = shards[i];
+            Shard<T> second = shards[j];
+            Shard<T> better;
+            if (first.count == 0) {
+                better = second;
+            } else if (second.count == 0) {
+                better = first;
+            } else {
+                better = first.top <= second.top ? first : second;
+            }
+
+            if (better.count == 0) {
+                if (isEmpty()) {
+                    return null;
+                }
+                continue;
+            }
+
+            if (better.lock.tryLock()) {
+                try {
+                    // 读堆顶和加锁之间可能已被其他线程取空
+                    if (!better.heap.isEmpty()) {
+                        T removed = better.heap.removeMin();
+                        better.update();
+                        return removed;
+                    }
+                } finally {
+                    better.lock.unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * 带锁的堆，堆顶优先级和大小在锁内更新，供不加锁的读取
+     */
+    private static class Shard<E extends Comparable<E>> {
+        final ReentrantLock lock = new ReentrantLock();
+
+        final CompleteBinaryHeapPriorityDeque<E> heap = new CompleteBinaryHeapPriorityDeque<>();
+
+        volatile long top = EMPTY;
+
+        volatile int count;
+
+        /**
+         * 持有锁时调用，修改堆后同步堆顶优先级和大小
+         */
+        void update() {
+            top = heap.isEmpty() ? EMPTY : heap.minPriority();
+            count = heap.size();
+        }
+    }
+}
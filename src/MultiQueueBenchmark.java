@@ -0,0 +1,235 @@
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * @author YFCodeDream
+ * @version 1.0.0
+ * @date 2026/10/19
+ * @description 并发优先队列的吞吐量和排名误差
+ * 1. 吞吐量：预先插入若干元素，多个线程交替执行insert和removeMin，
+ *    比较用一把全局锁保护的CompleteBinaryHeapPriorityDeque与MultiQueue
+ * 2. 排名误差：插入0..n-1的一个随机排列，removeMin直到取空，按取出的先后记录优先级，
+ *    每次取出的元素在当时剩余元素中的排名（比它小的剩余元素个数）即为误差，严格的优先队列误差为0。
+ *    单线程取空时只反映 c x P 个堆带来的松弛；多线程取空时取出和记录先后之间可能被调度打断，
+ *    线程数超过CPU核数时误差会被放大
+ * 用法：java MultiQueueBenchmark [总操作数] [预先插入的元素个数]
+ */
+public class MultiQueueBenchmark {
+    public static final int DEFAULT_OPERATIONS = 4_000_000;
+
+    public static final int DEFAULT_PREFILL = 1 << 16;
+
+    public static final int RANK_ELEMENTS = 1 << 18;
+
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16, 32};
+
+    private static final Long VALUE = 0L;
+
+    public static void main(String[] args) throws InterruptedException {
+        int operations = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_OPERATIONS;
+        int prefill = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PREFILL;
+
+        // 预热
+        runLocked(1, operations, prefill);
+        runMultiQueue(1, operations, prefill);
+
+        System.out.printf("%-8s %14s %14s %12s %12s %16s%n",
+                "threads", "locked(Mop/s)", "multi(Mop/s)", "mean rank", "max rank", "concurrent mean");
+        for (int threads : THREAD_COUNTS) {
+            double locked = runLocked(threads, operations, prefill);
+            double multi = runMultiQueue(threads, operations, prefill);
+            long[] ranks = rankErrors(threads, 1);
+            long[] concurrentRanks = rankErrors(threads, threads);
+            long maxRank = 0;
+            for (long rank : ranks) {
+                maxRank = Math.max(maxRank, rank);
+            }
+            System.out.printf("%-8d %14.2f %14.2f %12.2f %12d %16.2f%n",
+                    threads, locked, multi, mean(ranks), maxRank, mean(concurrentRanks));
+        }
+    }
+
+    private static double mean(long[] values) {
+        double sum = 0;
+        for (long value : values) {
+            sum += value;
+        }
+        return sum / values.length;
+    }
+
+    /**
+     * @return 吞吐量，百万次操作每秒
+     */
+    private static double runLocked(int threads, int operations, int prefill) throws InterruptedException {
+        CompleteBinaryHeapPriorityDeque<Long> deque = new CompleteBinaryHeapPriorityDeque<>();
+        Random random = new Random(1);
+        for (int i = 0; i < prefill; i++) {
+            deque.insert(random.nextInt(), VALUE);
+        }
+
+        RunTimer timer = new RunTimer();
+        runThreads(threads, operations, timer, (priority, insert) -> {
+            synchronized (deque) {
+                if (insert) {
+                    deque.insert(priority, VALUE);
+                } else if (!deque.isEmpty()) {
+                    deque.removeMin();
+                }
+            }
+        });
+        return throughput(operations, timer);
+    }
+
+    private static double runMultiQueue(int threads, int operations, int prefill) throws InterruptedException {
+        MultiQueue<Long> queue = new MultiQueue<>(threads, MultiQueue.DEFAULT_QUEUES_PER_THREAD);
+        Random random = new Random(1);
+        for (int i = 0; i < prefill; i++) {
+            queue.insert(random.nextInt(), VALUE);
+        }
+
+        RunTimer timer = new RunTimer();
+        runThreads(threads, operations, timer, (priority, insert) -> {
+            if (insert) {
+                queue.insert(priority, VALUE);
+            } else {
+                queue.removeMin();
+            }
+        });
+        return throughput(operations, timer);
+    }
+
+    /**
+     * workers个线程并发取空为threads个线程配置的MultiQueue，每次取出后领取一个全局序号作为取出的先后
+     * @return 按取出顺序排列的排名误差
+     */
+    private static long[] rankErrors(int threads, int workers) throws InterruptedException {
+        int n = RANK_ELEMENTS;
+        MultiQueue<Long> queue = new MultiQueue<>(threads, MultiQueue.DEFAULT_QUEUES_PER_THREAD);
+        int[] permutation = new int[n];
+        for (int i = 0; i < n; i++) {
+            permutation[i] = i;
+        }
+        Random random = new Random(3);
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = permutation[i];
+            permutation[i] = permutation[j];
+            permutation[j] = tmp;
+        }
+        for (int priority : permutation) {
+            queue.insert(priority, (long) priority);
+        }
+
+        int[] removalOrder = new int[n];
+        AtomicInteger ticket = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(workers);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        for (int t = 0; t < workers; t++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                    Long removed;
+                    while ((removed = queue.removeMin()) != null) {
+                        removalOrder[ticket.getAndIncrement()] = (int) (long) removed;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    failure.compareAndSet(null, e);
+                } catch (RuntimeException | Error e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    done.countDown();
+                }
+            });
+            worker.start();
+        }
+        start.countDown();
+        done.await();
+        checkWorkers(failure);
+
+        // 树状数组记录仍在队列中的优先级，前缀和即为比某个优先级小的剩余元素个数
+        int[] tree = new int[n + 1];
+        for (int i = 1; i <= n; i++) {
+            tree[i] += 1;
+            int parent = i + (i & -i);
+            if (parent <= n) {
+                tree[parent] += tree[i];
+            }
+        }
+        long[] ranks = new long[n];
+        for (int r = 0; r < n; r++) {
+            int priority = removalOrder[r];
+            long smaller = 0;
+            for (int i = priority; i > 0; i -= i & -i) {
+                smaller += tree[i];
+            }
+            ranks[r] = smaller;
+            for (int i = priority + 1; i <= n; i += i & -i) {
+                tree[i] -= 1;
+            }
+        }
+        return ranks;
+    }
+
+    /**
+     * 启动threads个线程平分operations次操作，insert和removeMin交替进行，所有线程就绪后同时开始计时
+     * 工作线程无论正常结束、被中断还是抛出异常都会计数done，第一个失败在主线程中重新抛出
+     */
+    private static void runThreads(int threads, int operations, RunTimer timer, Operation operation)
+            throws InterruptedException {
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            int share = operations / threads + (t < operations % threads ? 1 : 0);
+            Thread worker = new Thread(() -> {
+                try {
+                    Random random = new Random(id + 1);
+                    ready.countDown();
+                    start.await();
+                    for (int i = 0; i < share; i++) {
+                        operation.apply(random.nextInt(), (i & 1) == 0);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    failure.compareAndSet(null, e);
+                } catch (RuntimeException | Error e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    done.countDown();
+                }
+            });
+            worker.start();
+        }
+
+        ready.await();
+        timer.start();
+        start.countDown();
+        done.await();
+        timer.stop();
+        checkWorkers(failure);
+    }
+
+    /**
+     * 有工作线程失败时，在主线程中抛出第一个失败
+     */
+    private static void checkWorkers(AtomicReference<Throwable> failure) {
+        if (failure.get() != null) {
+            throw new IllegalStateException("worker failed", failure.get());
+        }
+    }
+
+    private static double throughput(int operations, RunTimer timer) {
+        return operations / (timer.getElapsedSecs() * 1_000_000);
+    }
+
+    private interface Operation {
+        void apply(long priority, boolean insert);
+    }
+}
@@ -0,0 +1,382 @@
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**
+ * @author YFCodeDream
+ * @version 1.0.0
+ * @date 2026/10/19
+ * @description 开放寻址（线性探测）的HashUSet
+ * 所有元素直接存放在一个Object[]中，不需要哨兵节点和链表节点；
+ * 删除时将后续元素回移（backward shift），因此不需要墓碑标记
+ */
+@SuppressWarnings("unchecked")
+public class OpenHashUSet<E> implements SimpleUSet<E>, Iterable<E>, InstrumentedHashTable {
+    public static final int DEFAULT_LOG_CAPACITY = 4;
+
+    protected int logCapacity = DEFAULT_LOG_CAPACITY; // value d from lecture
+    protected int capacity = 1 << logCapacity;        // n = 2^d
+    protected int size = 0;
+    protected Object[] table;                         // 元素本身，null表示空位
+
+    protected final int z;
+
+    // 线性探测在装载率超过1/2之后探测长度增长很快
+    protected double loadFactor = 0.5;
+    // 与HashUSet相同，缩容阈值为loadFactor的1/4
+    protected double uploadFactor = 0.125;
+
+    // 统计信息，运行时计数只在instrumented为true时累计
+    protected boolean instrumented;
+    protected long resizeCount;
+    protected long resizeNanos;
+    protected long lookupCount;
+    protected long lookupProbes;
+
+    public OpenHashUSet() {
+        this(0);
+    }
+
+    /**
+     * @param expectedSize 预计的元素个数，直接分配足够的容量，批量加载时不需要逐次翻倍扩容
+     */
+    public OpenHashUSet(int expectedSize) {
+        logCapacity = logCapacityFor(expectedSize);
+        capacity = 1 << logCapacity;
+        table = new Object[capacity];
+
+        // fix a random odd integer
+        Random r = new Random();
+        z = (r.nextInt() << 1) + 1;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    @Override
+    public boolean add(E x) {
+        int slot = indexOf(x);
+        if (slot >= 0) {
+            return false;
+        }
+
+        insertAt(~slot, x);
+        return true;
+    }
+
+    @Override
+    public E remove(E x) {
+        int slot = indexOf(x);
+        if (slot < 0) {
+            return null;
+        }
+
+        return removeAt(slot);
+    }
+
+    @Override
+    public E find(E x) {
+        int slot = indexOf(x);
+        return slot >= 0 ? (E) table[slot] : null;
+    }
+
+    public ArraySimpleList<E> getTotalElements() {
+        ArraySimpleList<E> totalElements = new ArraySimpleList<>(size);
+        for (Object o : table) {
+            if (o != null) {
+                totalElements.add((E) o);
+            }
+        }
+        return totalElements;
+    }
+
+    /**
+     * 乘法hash：取 z * hashCode 的高logCapacity位
+     * @param x 输入的元素
+     * @return 0-capacity的数值
+     */
+    protected int hash(Object x) {
+        return (z * x.hashCode()) >>> (32 - logCapacity);
+    }
+
+    /**
+     * 判断表中的元素是否与待查找的对象相等
+     * @param element 表中的元素
+     * @param x 待查找的对象
+     * @return 是否相等
+     */
+    protected boolean matches(E element, Object x) {
+        return x.equals(element);
+    }
+
+    /**
+     * 线性探测
+     * @param x 待查找的对象
+     * @return 找到时返回其下标；否则返回 ~(探测到的第一个空位)，为负数
+     */
+    protected int indexOf(Object x) {
+        int mask = capacity - 1;
+        int i = hash(x);
+        int probes = 1;
+        while (table[i] != null) {
+            if (matches((E) table[i], x)) {
+                break;
+            }
+            i = (i + 1) & mask;
+            probes += 1;
+        }
+
+        if (instrumented) {
+            lookupCount += 1;
+            lookupProbes += probes;
+        }
+        return table[i] != null ? i : ~i;
+    }
+
+    /**
+     * 在探测得到的空位上插入新元素，必要时先扩容
+     * @param slot indexOf(x)返回的空位，即 ~indexOf(x)
+     * @param x 表中不存在的新元素
+     */
+    protected void insertAt(int slot, E x) {
+        if (size + 1 > loadFactor * capacity) {
+            increaseCapacity();
+            slot = ~indexOf(x);
+        }
+
+        table[slot] = x;
+        size += 1;
+    }
+
+    /**
+     * 删除指定位置的元素
+     * @param slot indexOf(x)返回的下标
+     * @return 被删除的元素
+     */
+    protected E removeAt(int slot) {
+        E removedValue = (E) table[slot];
+        deleteSlot(slot);
+        size -= 1;
+
+        // 装载率低于uploadFactor时缩容，缩容后装载率低于loadFactor的一半
+        if (uploadFactor * capacity > size && logCapacity > DEFAULT_LOG_CAPACITY) {
+            decreaseCapacity();
+        }
+
+        return removedValue;
+    }
+
+    /**
+     * 直接在表上遍历所有元素，不拷贝到新的列表中
+     * 遍历期间不能修改集合
+     * @return 迭代器
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new OpenHashUSetItr();
+    }
+
+    /**
+     * 对每个元素执行action，不分配任何对象
+     * @param action 回调
+     */
+    @Override
+    public void forEach(Consumer<? super E> action) {
+        for (Object o : table) {
+            if (o != null) {
+                action.accept((E) o);
+            }
+        }
+    }
+
+    /**
+     * 清空集合，只需将表置空，容量保持不变
+     */
+    public void clear() {
+        Arrays.fill(table, null);
+        size = 0;
+    }
+
+    /**
+     * 将容量缩小到能容纳当前元素的最小值，释放批量删除后多余的空位
+     */
+    public void trimToSize() {
+        int trimmedLogCapacity = logCapacityFor(size);
+        if (trimmedLogCapacity < logCapacity) {
+            logCapacity = trimmedLogCapacity;
+            capacity = 1 << logCapacity;
+            copyTableValues();
+        }
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * 遍历表，统计每个元素到其hash位置的探测长度
+     * @return 统计快照
+     */
+    @Override
+    public HashTableStats stats() {
+        int mask = capacity - 1;
+        long totalProbes = 0;
+        int maxProbes = 0;
+        for (int i = 0; i < table.length; i++) {
+            if (table[i] != null) {
+                int probes = ((i - hash(table[i])) & mask) + 1;
+                totalProbes += probes;
+                maxProbes = Math.max(maxProbes, probes);
+            }
+        }
+        return new HashTableStats(size, capacity, size, size == 0 ? 0 : (double) totalProbes / size, maxProbes,
+                resizeCount, resizeNanos, lookupCount, lookupProbes);
+    }
+
+    @Override
+    public void setInstrumented(boolean instrumented) {
+        this.instrumented = instrumented;
+    }
+
+    @Override
+    public boolean isInstrumented() {
+        return instrumented;
+    }
+
+    @Override
+    public void resetStats() {
+        resizeCount = 0;
+        resizeNanos = 0;
+        lookupCount = 0;
+        lookupProbes = 0;
+    }
+
+    /**
+     * 删除指定位置的元素，并把探测序列中后续的元素回移，
+     * 保证每个元素与其hash位置之间没有空位
+     * @param i 待删除的位置
+     */
+    protected void deleteSlot(int i) {
+        int mask = capacity - 1;
+        table[i] = null;
+
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            if (table[j] == null) {
+                return;
+            }
+
+            int home = hash(table[j]);
+            // home不在(i, j]的循环区间内时，j处的元素可以回移到i
+            boolean stays = i <= j ? (home > i && home <= j) : (home > i || home <= j);
+            if (!stays) {
+                table[i] = table[j];
+                table[j] = null;
+                i = j;
+            }
+        }
+    }
+
+    protected void increaseCapacity() {
+        logCapacity += 1;
+        capacity = capacity << 1;
+
+        copyTableValues();
+    }
+
+    protected void decreaseCapacity() {
+        logCapacity -= 1;
+        capacity = capacity >> 1;
+
+        copyTableValues();
+    }
+
+    /**
+     * 计算容纳expectedSize个元素且装载率不超过loadFactor的最小logCapacity
+     * @param expectedSize 元素个数
+     * @return logCapacity，不小于DEFAULT_LOG_CAPACITY
+     */
+    private int logCapacityFor(int expectedSize) {
+        int log = DEFAULT_LOG_CAPACITY;
+        while (loadFactor * (1L << log) < expectedSize) {
+            log += 1;
+        }
+        return log;
+    }
+
+    private void copyTableValues() {
+        resizeCount += 1;
+        long startNanos = instrumented ? System.nanoTime() : 0;
+
+        Object[] oldTable = table;
+        table = new Object[capacity];
+
+        // 元素互不相等，直接放到新表中第一个空位即可
+        int mask = capacity - 1;
+        for (Object o : oldTable) {
+            if (o != null) {
+                int i = hash(o);
+                while (table[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                table[i] = o;
+            }
+        }
+
+        if (instrumented) {
+            resizeNanos += System.nanoTime() - startNanos;
+        }
+    }
+
+    private class OpenHashUSetItr implements Iterator<E> {
+        private int index = -1;
+
+        public OpenHashUSetItr() {
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return index < table.length;
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            E currentValue = (E) table[index];
+            advance();
+            return currentValue;
+        }
+
+        private void advance() {
+            index += 1;
+            while (index < table.length && table[index] == null) {
+                index += 1;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder resStr = new StringBuilder("OpenHashUSet{\n");
+        for (int i = 0; i < table.length; i++) {
+            if (table[i] != null) {
+                resStr.append("\t").append("index: ").append(i).append(" ; value: ").append(table[i]).append("\n");
+            }
+        }
+        resStr.append("}");
+        return resStr.toString();
+    }
+}
@@ -0,0 +1,360 @@
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * @author YFCodeDream
+ * @version 1.0.0
+ * @date 2026/10/19
+ * @description 按阶段命名的计时器，基于RunTimer
+ * start(name)打开一个阶段并返回Span，Span关闭时结束计时；在一个阶段内打开的阶段是它的子阶段，
+ * 阶段以路径命名，如"generateCode/sort"。每个路径累计次数、总耗时、最小值、最大值，
+ * 并保留至多MAX_SAMPLES个样本（蓄水池抽样）用于计算百分位数。
+ * 每个阶段结束时通知所有监听器，可以据此把耗时导出到监控系统，或者用printingListener逐条打印；
+ * report()给出按路径缩进的汇总表。
+ * 不是线程安全的，每个线程（或每条压缩流水线）使用自己的PhaseTimer
+ */
+public class PhaseTimer {
+    public static final int MAX_SAMPLES = 1 << 12;
+
+    public static final String SEPARATOR = "/";
+
+    /**
+     * 阶段结束时的回调
+     */
+    public interface Listener {
+        /**
+         * @param path 阶段路径
+         * @param depth 嵌套深度，顶层阶段为0
+         * @param nanos 本次耗时
+         */
+        void phaseCompleted(String path, int depth, long nanos);
+    }
+
+    // 以路径为键的统计，另按第一次打开的顺序记录路径，报告时父阶段总在子阶段之前
+    private final HashSimpleMap<String, Phase> phases = new HashSimpleMap<>();
+
+    private final ArraySimpleList<String> order = new ArraySimpleList<>();
+
+    private final ArraySimpleList<Listener> listeners = new ArraySimpleList<>();
+
+    // 当前打开的阶段，没有时为null
+    private Span current;
+
+    private final Random sampler = new Random(0);
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        for (int i = 0; i < listeners.size(); i++) {
+            if (listeners.get(i) == listener) {
+                listeners.remove(i);
+                return;
+            }
+        }
+    }
+
+    /**
+     * 打开一个阶段，作为当前阶段的子阶段
+     * @param name 阶段名，不能包含SEPARATOR
+     * @return 关闭时结束计时的Span
+     */
+    public Span start(String name) {
+        checkName(name);
+        String path = childPath(name);
+        // 打开时就登记路径，父阶段在报告中排在先结束的子阶段之前
+        phaseFor(path);
+        current = new Span(path, current == null ? 0 : current.depth + 1, current);
+        return current;
+    }
+
+    /**
+     * 记录一段已在别处测得的耗时，作为当前阶段的子阶段
+     * 用于热循环中反复启停同一个RunTimer、最后一次性汇总的场景
+     * @param name 阶段名
+     * @param nanos 耗时
+     */
+    public void record(String name, long nanos) {
+        checkName(name);
+        complete(childPath(name), current == null ? 0 : current.depth + 1, nanos);
+    }
+
+    /**
+     * @param path 阶段路径
+     * @return 该阶段的统计，没有记录过时为null
+     */
+    public PhaseStats stats(String path) {
+        Phase phase = phases.get(path);
+        return phase == null ? null : phase.snapshot(path);
+    }
+
+    /**
+     * @return 所有阶段的统计，按路径第一次打开的顺序
+     */
+    public ArraySimpleList<PhaseStats> allStats() {
+        ArraySimpleList<PhaseStats> all = new ArraySimpleList<>(order.size());
+        for (String path : order) {
+            all.add(phases.get(path).snapshot(path));
+        }
+        return all;
+    }
+
+    /**
+     * 清空所有统计，监听器保留；不应在有阶段打开时调用
+     */
+    public void reset() {
+        phases.clear();
+        order.clear();
+        current = null;
+    }
+
+    /**
+     * @return 按路径缩进的汇总表，耗时以毫秒计，share为占父阶段总耗时的比例
+     */
+    public String report() {
+        StringBuilder resStr = new StringBuilder();
+        resStr.append(String.format("%-32s %8s %12s %10s %10s %10s %10s %7s%n",
+                "phase", "count", "total(ms)", "p50(ms)", "p90(ms)", "p99(ms)", "max(ms)", "share"));
+        for (String path : order) {
+            PhaseStats stats = phases.get(path).snapshot(path);
+            int depth = depthOf(path);
+            String name = path.substring(path.lastIndexOf(SEPARATOR) + 1);
+            char[] indent = new char[depth * 2];
+            Arrays.fill(indent, ' ');
+
+            String share = "";
+            int parentEnd = path.lastIndexOf(SEPARATOR);
+            if (parentEnd >= 0) {
+                Phase parent = phases.get(path.substring(0, parentEnd));
+                if (parent != null && parent.totalNanos > 0) {
+                    share = String.format("%.1f%%", 100.0 * stats.totalNanos() / parent.totalNanos);
+                }
+            }
+
+            resStr.append(String.format("%-32s %8d %12.3f %10.3f %10.3f %10.3f %10.3f %7s%n",
+                    new String(indent) + name, stats.count(), millis(stats.totalNanos()), millis(stats.percentile(50)),
+                    millis(stats.percentile(90)), millis(stats.percentile(99)), millis(stats.maxNanos()), share));
+        }
+        return resStr.toString();
+    }
+
+    /**
+     * @param out 输出流
+     * @return 每个阶段结束时按嵌套深度缩进打印一行的监听器
+     */
+    public static Listener printingListener(PrintStream out) {
+        return (path, depth, nanos) -> {
+            char[] indent = new char[depth * 2];
+            Arrays.fill(indent, ' ');
+            out.printf("%s%s: %.3f ms%n", new String(indent), path, millis(nanos));
+        };
+    }
+
+    private String childPath(String name) {
+        return current == null ? name : current.path + SEPARATOR + name;
+    }
+
+    private void complete(String path, int depth, long nanos) {
+        phaseFor(path).add(nanos, sampler);
+
+        for (Listener listener : listeners) {
+            listener.phaseCompleted(path, depth, nanos);
+        }
+    }
+
+    private Phase phaseFor(String path) {
+        Phase phase = phases.get(path);
+        if (phase == null) {
+            phase = new Phase();
+            phases.put(path, phase);
+            order.add(path);
+        }
+        return phase;
+    }
+
+    private static void checkName(String name) {
+        if (name == null || name.isEmpty() || name.contains(SEPARATOR)) {
+            throw new IllegalArgumentException("invalid phase name: " + name);
+        }
+    }
+
+    private static int depthOf(String path) {
+        int depth = 0;
+        for (int i = path.indexOf(SEPARATOR); i >= 0; i = path.indexOf(SEPARATOR, i + 1)) {
+            depth += 1;
+        }
+        return depth;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    /**
+     * 一个打开的阶段，可以用于try-with-resources
+     */
+    public class Span implements AutoCloseable {
+        private final String path;
+
+        private final int depth;
+
+        private final Span parent;
+
+        private final RunTimer timer = new RunTimer();
+
+        private boolean closed;
+
+        private Span(String path, int depth, Span parent) {
+            this.path = path;
+            this.depth = depth;
+            this.parent = parent;
+            timer.start();
+        }
+
+        public String path() {
+            return path;
+        }
+
+        /**
+         * 结束计时并记录；只能关闭当前（最内层）的阶段，重复关闭没有效果
+         */
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            if (current != this) {
+                throw new IllegalStateException("phase " + path + " closed while "
+                        + (current == null ? "no phase" : current.path) + " is open");
+            }
+            timer.stop();
+            closed = true;
+            current = parent;
+            complete(path, depth, timer.getElapsedNanos());
+        }
+    }
+
+    /**
+     * 一个路径的累计值
+     */
+    private static class Phase {
+        long count;
+
+        long totalNanos;
+
+        long minNanos = Long.MAX_VALUE;
+
+        long maxNanos;
+
+        long[] samples = new long[16];
+
+        int sampleCount;
+
+        void add(long nanos, Random sampler) {
+            count += 1;
+            totalNanos += nanos;
+            minNanos = Math.min(minNanos, nanos);
+            maxNanos = Math.max(maxNanos, nanos);
+
+            if (sampleCount < MAX_SAMPLES) {
+                if (sampleCount == samples.length) {
+                    samples = Arrays.copyOf(samples, sampleCount * 2);
+                }
+                samples[sampleCount] = nanos;
+                sampleCount += 1;
+            } else {
+                // 蓄水池抽样：第count个值以MAX_SAMPLES / count的概率替换一个样本
+                long j = (long) (sampler.nextDouble() * count);
+                if (j < MAX_SAMPLES) {
+                    samples[(int) j] = nanos;
+                }
+            }
+        }
+
+        PhaseStats snapshot(String path) {
+            long[] sorted = Arrays.copyOf(samples, sampleCount);
+            Arrays.sort(sorted);
+            return new PhaseStats(path, count, totalNanos, count == 0 ? 0 : minNanos, maxNanos, sorted);
+        }
+    }
+
+    /**
+     * 一个阶段统计的快照
+     */
+    public static class PhaseStats {
+        private final String path;
+
+        private final long count;
+
+        private final long totalNanos;
+
+        private final long minNanos;
+
+        private final long maxNanos;
+
+        private final long[] sortedSamples;
+
+        PhaseStats(String path, long count, long totalNanos, long minNanos, long maxNanos, long[] sortedSamples) {
+            this.path = path;
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.minNanos = minNanos;
+            this.maxNanos = maxNanos;
+            this.sortedSamples = sortedSamples;
+        }
+
+        public String path() {
+            return path;
+        }
+
+        public long count() {
+            return count;
+        }
+
+        public long totalNanos() {
+            return totalNanos;
+        }
+
+        public double meanNanos() {
+            return count == 0 ? 0 : (double) totalNanos / count;
+        }
+
+        public long minNanos() {
+            return minNanos;
+        }
+
+        public long maxNanos() {
+            return maxNanos;
+        }
+
+        /**
+         * 最近秩法的百分位数，样本超过MAX_SAMPLES时为抽样估计
+         * @param p 0到100之间的百分位
+         * @return 对应的耗时，没有样本时为0
+         */
+        public long percentile(double p) {
+            if (p < 0 || p > 100) {
+                throw new IllegalArgumentException("percentile must be between 0 and 100");
+            }
+            if (sortedSamples.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(p / 100 * sortedSamples.length);
+            return sortedSamples[Math.max(0, rank - 1)];
+        }
+
+        @Override
+        public String toString() {
+            return "PhaseStats{" +
+                    "path=" + path +
+                    ", count=" + count +
+                    ", totalNanos=" + totalNanos +
+                    ", p50=" + percentile(50) +
+                    ", p99=" + percentile(99) +
+                    ", maxNanos=" + maxNanos +
+                    '}';
+        }
+    }
+}
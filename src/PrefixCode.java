@@ -73,11 +73,13 @@ public interface PrefixCode {
      * <p>Get the size of the original text in Bytes. Note that this
      * is equivalent to the number of <code>char</code>s in the
      * original <code>InputStream</code>, since each <code>char</code>
-     * is encoded using 1 Byte (in ASCII encoding).</p>
+     * is encoded using 1 Byte (in ASCII encoding). The size is a
+     * <code>long</code> so that texts larger than 2 GB are reported
+     * correctly.</p>
      *
      * @return the size of the original text
      */
-    int originalSize();
+    long originalSize();
 
     /**
      * <p>Get the compressed size of the input text in Bytes. The
@@ -87,6 +89,6 @@ public interface PrefixCode {
      *
      * @return the size of the compressed text in Bytes
      */
-    int compressedSize();
+    long compressedSize();
 	
 }
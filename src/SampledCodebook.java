@@ -0,0 +1,329 @@
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * @author YFCodeDream
+ * @version 1.0.0
+ * @date 2026/10/19
+ * @description 基于采样的码表生成
+ * 只统计输入的一部分（开头N字节，或分布在整个文件上的若干分层样本）来构建码表，
+ * 超大文件因此只需读取一遍即可完成压缩
+ */
+public class SampledCodebook {
+    /**
+     * 默认采样开头的1MB
+     */
+    public static final int DEFAULT_SAMPLE_BYTES = 1 << 20;
+
+    /**
+     * 分层采样的默认层数
+     */
+    public static final int DEFAULT_STRATA = 16;
+
+    /**
+     * 分层采样时每层的默认字节数
+     */
+    public static final int DEFAULT_STRATUM_BYTES = 64 << 10;
+
+    /**
+     * fromSample估计损失时把样本切成的份数，分层采样时每层就是一份
+     */
+    public static final int VALIDATION_FOLDS = 8;
+
+    private final Codebook codebook;
+
+    private final long sampledBytes;
+
+    private final double smoothingLoss;
+
+    private final double estimatedLoss;
+
+    /**
+     * @param foldCounts 样本各份（分层采样时为各层）的直方图
+     */
+    private SampledCodebook(long[][] foldCounts) {
+        long[] sampleCounts = new long[Codebook.ALPHABET_SIZE];
+        for (long[] counts : foldCounts) {
+            for (int symbol = 0; symbol < Codebook.ALPHABET_SIZE; symbol++) {
+                sampleCounts[symbol] += counts[symbol];
+            }
+        }
+
+        long total = 0;
+        for (long count : sampleCounts) {
+            total += count;
+        }
+        this.codebook = Codebook.fromFrequencies(smoothed(sampleCounts));
+        this.sampledBytes = total;
+
+        // 以样本上的最优码表近似完整统计的码表
+        long optimalBits = cost(Codebook.fromFrequencies(sampleCounts), sampleCounts);
+        this.smoothingLoss = optimalBits > 0 ? (double) cost(codebook, sampleCounts) / optimalBits - 1 : 0;
+
+        // 交叉验证：每一份都用其余各份训练的平滑码表编码，这些码表没有见过被编码的数据，
+        // 多出的位数同时包含平滑和采样误差；只有一份样本时无法留出，退化为平滑损失
+        if (foldCounts.length < 2 || optimalBits == 0) {
+            this.estimatedLoss = smoothingLoss;
+            return;
+        }
+        long heldOutBits = 0;
+        for (long[] counts : foldCounts) {
+            long[] rest = new long[Codebook.ALPHABET_SIZE];
+            for (int symbol = 0; symbol < Codebook.ALPHABET_SIZE; symbol++) {
+                rest[symbol] = sampleCounts[symbol] - counts[symbol];
+            }
+            heldOutBits += cost(Codebook.fromFrequencies(smoothed(rest)), counts);
+        }
+        this.estimatedLoss = (double) heldOutBits / optimalBits - 1;
+    }
+
+    /**
+     * 所有字节都加1，保证样本中未出现的字节也有编码
+     */
+    private static long[] smoothed(long[] counts) {
+        long[] smoothed = new long[Codebook.ALPHABET_SIZE];
+        for (int symbol = 0; symbol < Codebook.ALPHABET_SIZE; symbol++) {
+            smoothed[symbol] = counts[symbol] + 1;
+        }
+        return smoothed;
+    }
+
+    /**
+     * 依据一段样本构建码表，估计损失时样本被切成VALIDATION_FOLDS段连续的份
+     * @param sample 样本
+     * @param length 样本的有效字节数
+     * @return 采样码表
+     */
+    public static SampledCodebook fromSample(byte[] sample, int length) {
+        int folds = Math.max(1, Math.min(VALIDATION_FOLDS, length));
+        long[][] foldCounts = new long[folds][Codebook.ALPHABET_SIZE];
+        for (int k = 0; k < folds; k++) {
+            int from = (int) ((long) length * k / folds);
+            int to = (int) ((long) length * (k + 1) / folds);
+            for (int i = from; i < to; i++) {
+                foldCounts[k][sample[i] & 0xFF] += 1;
+            }
+        }
+        return new SampledCodebook(foldCounts);
+    }
+
+    /**
+     * 在映射的文件上做分层采样：等间距地取strata段，每段stratumBytes字节
+     * 文件不大于全部样本之和时，直接统计整个文件，此时没有采样误差；否则每层是估计损失时交叉验证的一份
+     * @param path 文件
+     * @param strata 层数
+     * @param stratumBytes 每层的字节数
+     * @return 采样码表
+     * @throws IOException 映射或读取失败
+     */
+    public static SampledCodebook fromMappedFile(Path path, int strata, int stratumBytes) throws IOException {
+        if (strata < 1 || stratumBytes < 1) {
+            throw new IllegalArgumentException("strata and stratumBytes must be positive");
+        }
+
+        long[][] foldCounts = new long[strata][];
+        int folds = 0;
+        boolean wholeFile;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            wholeFile = fileSize <= (long) strata * stratumBytes;
+
+            for (int k = 0; k < strata; k++) {
+                long offset;
+                if (wholeFile) {
+                    offset = (long) k * stratumBytes;
+                } else {
+                    offset = strata == 1 ? 0 : k * ((fileSize - stratumBytes) / (strata - 1));
+                }
+                if (offset >= fileSize) {
+                    break;
+                }
+                int length = (int) Math.min(stratumBytes, fileSize - offset);
+
+                MappedByteBuffer stratum = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+                long[] counts = new long[Codebook.ALPHABET_SIZE];
+                for (int i = 0; i < length; i++) {
+                    counts[stratum.get(i) & 0xFF] += 1;
+                }
+                foldCounts[folds] = counts;
+                folds += 1;
+            }
+        }
+
+        if (folds == 0) {
+            return new SampledCodebook(new long[][] {new long[Codebook.ALPHABET_SIZE]});
+        }
+        if (wholeFile) {
+            // 统计的就是整个文件，没有采样误差，合并为一份
+            long[] counts = new long[Codebook.ALPHABET_SIZE];
+            for (int k = 0; k < folds; k++) {
+                for (int symbol = 0; symbol < Codebook.ALPHABET_SIZE; symbol++) {
+                    counts[symbol] += foldCounts[k][symbol];
+                }
+            }
+            return new SampledCodebook(new long[][] {counts});
+        }
+        return new SampledCodebook(Arrays.copyOf(foldCounts, folds));
+    }
+
+    /**
+     * 单遍压缩：读取开头sampleBytes字节构建码表，随后编码样本和剩余的输入
+     * 编码的同时统计完整的直方图，结束后给出相对于完整统计码表的实际损失
+     * @param in 输入流
+     * @param out 编码后位流的输出流
+     * @param sampleBytes 采样的字节数
+     * @return 压缩报告
+     * @throws IOException 读写失败
+     */
+    public static Report encode(InputStream in, OutputStream out, int sampleBytes) throws IOException {
+        byte[] sample = new byte[sampleBytes];
+        int sampleLength = 0;
+        int len;
+        while (sampleLength < sampleBytes && (len = in.read(sample, sampleLength, sampleBytes - sampleLength)) != -1) {
+            sampleLength += len;
+        }
+
+        SampledCodebook sampledCodebook = fromSample(sample, sampleLength);
+        CountingInputStream countingIn = new CountingInputStream(
+                new SequenceInputStream(new ByteArrayInputStream(sample, 0, sampleLength), in));
+        long encodedBits = sampledCodebook.codebook.encode(countingIn, out);
+
+        long optimalBits = cost(Codebook.fromFrequencies(countingIn.counts), countingIn.counts);
+        double actualLoss = optimalBits > 0 ? (double) encodedBits / optimalBits - 1 : 0;
+
+        return new Report(sampledCodebook, countingIn.total, encodedBits, actualLoss);
+    }
+
+    public Codebook getCodebook() {
+        return codebook;
+    }
+
+    public long sampledBytes() {
+        return sampledBytes;
+    }
+
+    /**
+     * 只由+1平滑造成的损失：采样码表在样本上的编码位数相对于样本最优码表多出的比例，
+     * 不包含采样误差
+     * @return 压缩率损失，如0.01表示多1%
+     */
+    public double smoothingLoss() {
+        return smoothingLoss;
+    }
+
+    /**
+     * 估计的相对于完整统计码表的压缩率损失，按份交叉验证：
+     * 每份样本用其余各份训练的平滑码表编码，总位数相对于整个样本的最优码表多出的比例。
+     * 包含平滑损失和采样误差（各份之间分布的差异），每个码表只用了(k-1)/k的样本，因此略偏悲观。
+     * 不包含样本没有覆盖到的那部分输入与样本分布不同所带来的损失，
+     * 例如只采样开头时后半段的分布漂移；这部分只能由encode给出的actualLoss反映。
+     * 只有一份样本时无法留出验证，等于smoothingLoss
+     * @return 压缩率损失，如0.01表示多1%
+     */
+    public double estimatedLoss() {
+        return estimatedLoss;
+    }
+
+    /**
+     * 码表在直方图上的编码总位数
+     */
+    static long cost(Codebook codebook, long[] counts) {
+        byte[] lengths = codebook.getLengths();
+        long bits = 0;
+        for (int symbol = 0; symbol < counts.length; symbol++) {
+            bits += counts[symbol] * lengths[symbol];
+        }
+        return bits;
+    }
+
+    /**
+     * 单遍压缩的报告
+     */
+    public static class Report {
+        private final SampledCodebook sampledCodebook;
+
+        private final long totalBytes;
+
+        private final long encodedBits;
+
+        private final double actualLoss;
+
+        Report(SampledCodebook sampledCodebook, long totalBytes, long encodedBits, double actualLoss) {
+            this.sampledCodebook = sampledCodebook;
+            this.totalBytes = totalBytes;
+            this.encodedBits = encodedBits;
+            this.actualLoss = actualLoss;
+        }
+
+        public SampledCodebook getSampledCodebook() {
+            return sampledCodebook;
+        }
+
+        public long totalBytes() {
+            return totalBytes;
+        }
+
+        public long encodedBits() {
+            return encodedBits;
+        }
+
+        /**
+         * 相对于完整统计的最优码表的实际压缩率损失
+         * @return 压缩率损失，如0.01表示多1%
+         */
+        public double actualLoss() {
+            return actualLoss;
+        }
+
+        @Override
+        public String toString() {
+            return "Report{" +
+                    "sampledBytes=" + sampledCodebook.sampledBytes +
+                    ", totalBytes=" + totalBytes +
+                    ", encodedBits=" + encodedBits +
+                    ", smoothingLoss=" + sampledCodebook.smoothingLoss +
+                    ", estimatedLoss=" + sampledCodebook.estimatedLoss +
+                    ", actualLoss=" + actualLoss +
+                    '}';
+        }
+    }
+
+    /**
+     * 在读取的同时统计每个字节的出现次数
+     */
+    private static class CountingInputStream extends FilterInputStream {
+        final long[] counts = new long[Codebook.ALPHABET_SIZE];
+
+        long total;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                counts[b] += 1;
+                total += 1;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            for (int i = 0; i < n; i++) {
+                counts[b[off + i] & 0xFF] += 1;
+            }
+            if (n > 0) {
+                total += n;
+            }
+            return n;
+        }
+    }
+}
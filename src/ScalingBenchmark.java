@@ -0,0 +1,198 @@
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * @author YFCodeDream
+ * @version 1.0.0
+ * @date 2026/10/19
+ * @description 各种编码方式的吞吐量和峰值内存随输入规模的变化
+ * 用CorpusGenerator把1 MB到10 GB的语料写入磁盘，再逐个编码方式从文件读取并编码（输出丢弃），
+ * 记录吞吐量、每字节纳秒数和堆的峰值占用；scale一列为每字节耗时相对于最小输入的倍数，
+ * 明显大于1说明该方式在这一规模上开始超线性
+ * 用法：java ScalingBenchmark [最大字节数] [语料目录] [UNIFORM|ZIPF|FIBONACCI]
+ */
+public class ScalingBenchmark {
+    public static final long[] SIZES = {1L << 20, 10L << 20, 100L << 20, 1L << 30, 10L << 30};
+
+    public static final long DEFAULT_MAX_SIZE = 10L << 30;
+
+    public static final int SAMPLE_BYTES = 1 << 20;
+
+    // 在最小的输入上预热的次数，否则最小输入的耗时主要是JIT编译，scale一列会失真
+    public static final int WARMUP_RUNS = 5;
+
+    private static final long SEED = 7;
+
+    public static void main(String[] args) throws IOException {
+        long maxSize = args.length > 0 ? Long.parseLong(args[0]) : DEFAULT_MAX_SIZE;
+        Path directory = args.length > 1 ? Paths.get(args[1]) : Files.createTempDirectory("corpus");
+        CorpusGenerator.Distribution distribution = args.length > 2
+                ? CorpusGenerator.Distribution.valueOf(args[2]) : CorpusGenerator.Distribution.ZIPF;
+        CorpusGenerator generator = new CorpusGenerator(distribution, CorpusGenerator.DEFAULT_ALPHABET_SIZE, SEED);
+
+        System.out.printf("corpus: %s, %d symbols, %.3f bits/symbol, directory %s%n",
+                distribution, generator.alphabetSize(), generator.entropy(), directory);
+        System.out.printf("%-12s %-10s %12s %10s %8s %14s%n", "mode", "size", "MB/s", "ns/byte", "scale", "peak heap(MB)");
+
+        double[] baseNanosPerByte = new double[Mode.values().length];
+        for (long size : SIZES) {
+            if (size > maxSize) {
+                break;
+            }
+            Path corpus = directory.resolve("corpus-" + distribution + "-" + size + ".bin");
+            generator.writeTo(corpus, size);
+            try {
+                for (Mode mode : Mode.values()) {
+                    if (baseNanosPerByte[mode.ordinal()] == 0) {
+                        for (int i = 0; i < WARMUP_RUNS; i++) {
+                            consume(mode.run(corpus));
+                        }
+                    }
+
+                    System.gc();
+                    resetPeakHeap();
+                    RunTimer timer = new RunTimer();
+                    timer.start();
+                    long checksum = mode.run(corpus);
+                    timer.stop();
+                    long peakHeap = peakHeap();
+                    consume(checksum);
+
+                    double nanosPerByte = (double) timer.getElapsedNanos() / size;
+                    if (baseNanosPerByte[mode.ordinal()] == 0) {
+                        baseNanosPerByte[mode.ordinal()] = nanosPerByte;
+                    }
+                    System.out.printf("%-12s %-10s %12.1f %10.2f %8.2f %14.1f%n",
+                            mode, formatSize(size), size / timer.getElapsedSecs() / (1 << 20), nanosPerByte,
+                            nanosPerByte / baseNanosPerByte[mode.ordinal()], peakHeap / (double) (1 << 20));
+                }
+            } finally {
+                Files.deleteIfExists(corpus);
+            }
+        }
+    }
+
+    /**
+     * 编码方式，run返回编码结果的某个数值供消费
+     */
+    enum Mode {
+        /**
+         * Huffman.generateCode：统计频率、建树、生成字符串形式的编码，再由频率和码长算出压缩大小
+         */
+        HUFFMAN {
+            @Override
+            long run(Path corpus) throws IOException {
+                try (InputStream in = Files.newInputStream(corpus)) {
+                    Huffman huffman = new Huffman();
+                    huffman.generateCode(in);
+                    return huffman.compressedSize();
+                }
+            }
+        },
+        /**
+         * 两遍：第一遍统计频率建立范式码表，第二遍流式编码
+         */
+        TWO_PASS {
+            @Override
+            long run(Path corpus) throws IOException {
+                long[] frequencies = new long[Codebook.ALPHABET_SIZE];
+                try (InputStream in = Files.newInputStream(corpus)) {
+                    Huffman.countFrequencies(in, frequencies);
+                }
+                Codebook codebook = Codebook.fromFrequencies(frequencies);
+                try (InputStream in = Files.newInputStream(corpus)) {
+                    return codebook.encode(in, new DiscardingOutputStream());
+                }
+            }
+        },
+        /**
+         * 单遍：由开头的样本建立码表，边编码边统计完整直方图
+         */
+        SAMPLED {
+            @Override
+            long run(Path corpus) throws IOException {
+                try (InputStream in = Files.newInputStream(corpus)) {
+                    return SampledCodebook.encode(in, new DiscardingOutputStream(), SAMPLE_BYTES).encodedBits();
+                }
+            }
+        },
+        /**
+         * 静态码表：在开头的样本上训练（带转义符号），再流式编码全部输入
+         */
+        STATIC {
+            @Override
+            long run(Path corpus) throws IOException {
+                try (InputStream in = Files.newInputStream(corpus)) {
+                    byte[] sample = new byte[SAMPLE_BYTES];
+                    int sampleLength = 0;
+                    int len;
+                    while (sampleLength < sample.length
+                            && (len = in.read(sample, sampleLength, sample.length - sampleLength)) != -1) {
+                        sampleLength += len;
+                    }
+                    StaticCodebook staticCodebook = StaticCodebook.train(new ByteArrayInputStream(sample, 0, sampleLength));
+                    Codebook codebook = staticCodebook.getEncodingCodebook();
+                    OutputStream out = new DiscardingOutputStream();
+                    return codebook.encode(new ByteArrayInputStream(sample, 0, sampleLength), out) + codebook.encode(in, out);
+                }
+            }
+        };
+
+        abstract long run(Path corpus) throws IOException;
+    }
+
+    private static void resetPeakHeap() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    /**
+     * 各个堆内存池峰值占用之和，各池的峰值不一定同时出现，因此是一个上界
+     */
+    private static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    private static String formatSize(long size) {
+        if (size >= 1L << 30) {
+            return (size >> 30) + "GB";
+        }
+        return (size >> 20) + "MB";
+    }
+
+    private static volatile long sink;
+
+    private static void consume(long value) {
+        sink += value;
+    }
+
+    /**
+     * 丢弃所有输出
+     */
+    private static class DiscardingOutputStream extends OutputStream {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    }
+}
@@ -0,0 +1,515 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * @author YFCodeDream
+ * @version 1.0.0
+ * @date 2026/10/19
+ * @description 列表的确定性测试，写法与HuffmanTester相同：逐项打印，失败时给出期望值与实际值并退出
+ * 随机操作序列都使用固定的种子，与java.util.ArrayList逐步比较
+ */
+public class SimpleListTester {
+    public static final long SEED = 20261019L;
+
+    public static final int RANDOM_OPERATIONS = 100_000;
+
+    // 增长阶段和缩短阶段交替，每个阶段的操作数
+    public static final int PHASE_LENGTH = 2_000;
+
+    // 每隔多少次操作完整比较一次全部元素
+    public static final int FULL_CHECK_INTERVAL = 997;
+
+    // 顺序访问一段下标时最长的长度，用来检查缓存的访问位置
+    public static final int MAX_RUN_LENGTH = 64;
+
+    // 块容量为2、3时几乎每次插入和删除都会分裂或合并，奇数容量检查对半分裂的取整
+    public static final int[] CHUNK_CAPACITIES = {2, 3, 4, 7, UnrolledSimpleList.DEFAULT_CHUNK_CAPACITY};
+
+    // 分裂合并测试中顺序追加的元素个数
+    public static final int SPLIT_MERGE_ELEMENTS = 256;
+
+    // 批量操作测试中一次addAll的最大元素个数；列表超过MAX_BULK_SIZE时不再整体追加自身
+    public static final int MAX_BULK_LENGTH = 32;
+
+    public static final int MAX_BULK_SIZE = 1024;
+
+    public static void main(String[] args) {
+        System.out.println("Testing LinkedSimpleList...");
+        System.out.println("  testing random operations against java.util.ArrayList...");
+        report(testRandom(new LinkedSimpleList<>()));
+
+        System.out.println("  testing removeToFirst and reverse...");
+        report(testLinkedReorder());
+
+        System.out.println("Testing UnrolledSimpleList...");
+        System.out.println("  testing chunk split and merge...");
+        report(testUnrolledSplitMerge());
+
+        System.out.println("  testing random operations against java.util.ArrayList...");
+        boolean passed = true;
+        for (int chunkCapacity : CHUNK_CAPACITIES) {
+            passed = passed && testRandom(new UnrolledSimpleList<>(chunkCapacity));
+        }
+        report(passed);
+
+        System.out.println("  testing chunk capacity below 2...");
+        report(rejectsChunkCapacity(1) && rejectsChunkCapacity(0));
+
+        System.out.println("Testing ArraySimpleList...");
+        System.out.println("  testing random operations against java.util.ArrayList...");
+        report(testRandom(new ArraySimpleList<>()) && testRandom(new ArraySimpleList<>(0)));
+
+        System.out.println("  testing addAll, removeRange, trimToSize and toArray...");
+        report(testArrayBulk());
+
+        System.out.println("Testing IntArrayList...");
+        System.out.println("  testing random operations against java.util.ArrayList...");
+        report(testIntArrayList());
+
+        System.out.println("Testing CharArrayList...");
+        System.out.println("  testing random operations against java.util.ArrayList...");
+        report(testCharArrayList());
+    }
+
+    static void report(boolean passed) {
+        if (passed) {
+            System.out.println("  ...test passed");
+        } else {
+            System.out.println("  ...test failed");
+            System.exit(0);
+        }
+    }
+
+    /**
+     * 固定种子的随机操作，每一步比较返回值和大小，定期比较全部元素
+     */
+    static <L extends SimpleList<Integer> & Iterable<Integer>> boolean testRandom(L list) {
+        List<Integer> expected = new ArrayList<>();
+        Random random = new Random(SEED);
+        for (int step = 0; step < RANDOM_OPERATIONS; step++) {
+            if (!randomStep(list, expected, random, step)) {
+                return false;
+            }
+            if (step % FULL_CHECK_INTERVAL == 0 && !sameElements(list, expected)) {
+                return false;
+            }
+        }
+        return sameElements(list, expected);
+    }
+
+    /**
+     * 在随机操作中穿插removeToFirst和reverse，两者都会移动缓存的访问位置所指的节点
+     */
+    static boolean testLinkedReorder() {
+        LinkedSimpleList<Integer> list = new LinkedSimpleList<>();
+        List<Integer> expected = new ArrayList<>();
+        Random random = new Random(SEED);
+        for (int step = 0; step < RANDOM_OPERATIONS; step++) {
+            if (!randomStep(list, expected, random, step)) {
+                return false;
+            }
+            int operation = random.nextInt(10);
+            if (operation == 0 && !expected.isEmpty()) {
+                int i = random.nextInt(expected.size());
+                list.removeToFirst(i);
+                expected.add(0, expected.remove(i));
+            } else if (operation == 1) {
+                list.reverse();
+                Collections.reverse(expected);
+            }
+            if (step % FULL_CHECK_INTERVAL == 0 && !sameElements(list, expected)) {
+                return false;
+            }
+        }
+        return sameElements(list, expected);
+    }
+
+    /**
+     * 顺序追加得到一串满块，然后在块中间插入让每个块都分裂，
+     * 再隔一个删除一个让块降到半满以下而与相邻块合并，最后从中间删空；每个阶段之后完整比较
+     */
+    static boolean testUnrolledSplitMerge() {
+        for (int chunkCapacity : CHUNK_CAPACITIES) {
+            UnrolledSimpleList<Integer> list = new UnrolledSimpleList<>(chunkCapacity);
+            List<Integer> expected = new ArrayList<>();
+            for (int x = 0; x < SPLIT_MERGE_ELEMENTS; x++) {
+                list.add(list.size(), x);
+                expected.add(x);
+            }
+            if (!sameElements(list, expected)) {
+                return false;
+            }
+
+            // 从后往前插入，前面的块都还是满的
+            for (int i = SPLIT_MERGE_ELEMENTS - 1; i > 0; i -= chunkCapacity) {
+                int offset = i - chunkCapacity / 2;
+                list.add(offset, -i);
+                expected.add(offset, -i);
+            }
+            if (!sameElements(list, expected)) {
+                return false;
+            }
+
+            for (int i = 0; i < expected.size(); i++) {
+                Integer removed = list.remove(i);
+                if (!expected.remove(i).equals(removed)) {
+                    System.out.println("  remove(" + i + ") disagrees with chunk capacity " + chunkCapacity);
+                    return false;
+                }
+            }
+            if (!sameElements(list, expected)) {
+                return false;
+            }
+
+            while (!expected.isEmpty()) {
+                int i = expected.size() / 2;
+                Integer removed = list.remove(i);
+                if (!expected.remove(i).equals(removed)) {
+                    System.out.println("  remove(" + i + ") disagrees with chunk capacity " + chunkCapacity);
+                    return false;
+                }
+            }
+            if (!sameElements(list, expected)) {
+                return false;
+            }
+
+            // 删空之后仍然可以从头部和尾部插入
+            list.add(0, 1);
+            list.add(0, 0);
+            list.add(2, 2);
+            expected.add(0);
+            expected.add(1);
+            expected.add(2);
+            if (!sameElements(list, expected)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static boolean rejectsChunkCapacity(int chunkCapacity) {
+        try {
+            new UnrolledSimpleList<Integer>(chunkCapacity);
+        } catch (IllegalArgumentException e) {
+            return true;
+        }
+        System.out.println("  chunk capacity " + chunkCapacity + " was accepted");
+        return false;
+    }
+
+    /**
+     * 在随机操作中穿插批量操作：在随机位置插入另一个列表或者列表自身、删除一段、trimToSize、ensureCapacity和clear，
+     * 每次批量操作之后用toArray比较
+     */
+    static boolean testArrayBulk() {
+        ArraySimpleList<Integer> list = new ArraySimpleList<>();
+        List<Integer> expected = new ArrayList<>();
+        Random random = new Random(SEED);
+        for (int step = 0; step < RANDOM_OPERATIONS; step++) {
+            if (!randomStep(list, expected, random, step)) {
+                return false;
+            }
+            int size = expected.size();
+            int operation = random.nextInt(20);
+            if (operation == 0) {
+                ArraySimpleList<Integer> other = new ArraySimpleList<>();
+                int length = random.nextInt(MAX_BULK_LENGTH);
+                for (int x = 0; x < length; x++) {
+                    other.add(step * MAX_BULK_LENGTH + x);
+                }
+                int i = random.nextInt(size + 1);
+                list.addAll(i, other);
+                expected.addAll(i, toList(other.toArray()));
+            } else if (operation == 1 && size < MAX_BULK_SIZE) {
+                int i = random.nextInt(size + 1);
+                list.addAll(i, list);
+                expected.addAll(i, new ArrayList<>(expected));
+            } else if (operation == 2) {
+                int from = random.nextInt(size + 1);
+                int to = from + random.nextInt(Math.min(MAX_BULK_LENGTH, size - from) + 1);
+                list.removeRange(from, to);
+                expected.subList(from, to).clear();
+            } else if (operation == 3) {
+                list.trimToSize();
+            } else if (operation == 4) {
+                list.ensureCapacity(size + random.nextInt(MAX_BULK_LENGTH));
+            } else if (operation == 5 && random.nextInt(10) == 0) {
+                list.clear();
+                expected.clear();
+            } else {
+                continue;
+            }
+            if (!toList(list.toArray()).equals(expected)) {
+                System.out.println("  bulk operation " + operation + " disagrees at step " + step);
+                return false;
+            }
+            if (step % FULL_CHECK_INTERVAL == 0 && !sameElements(list, expected)) {
+                return false;
+            }
+        }
+        return sameElements(list, expected) && outOfBounds(() -> list.removeRange(0, expected.size() + 1))
+                && outOfBounds(() -> list.removeRange(1, 0));
+    }
+
+    static List<Integer> toList(Object[] array) {
+        List<Integer> result = new ArrayList<>(array.length);
+        for (Object x : array) {
+            result.add((Integer) x);
+        }
+        return result;
+    }
+
+    /**
+     * 随机混合追加、插入、删除、set、追加数组的一段、追加自身、删除一段、trimToSize和clear
+     */
+    static boolean testIntArrayList() {
+        IntArrayList list = new IntArrayList();
+        List<Integer> expected = new ArrayList<>();
+        Random random = new Random(SEED);
+        for (int step = 0; step < RANDOM_OPERATIONS; step++) {
+            int size = expected.size();
+            boolean growing = (step / PHASE_LENGTH) % 2 == 0;
+            int operation = random.nextInt(10);
+            int x = random.nextInt();
+            if (operation < 3 && (size == 0 || random.nextInt(10) < (growing ? 6 : 4))) {
+                int i = random.nextInt(size + 1);
+                list.add(i, x);
+                expected.add(i, x);
+            } else if (operation < 3) {
+                int i = random.nextInt(size);
+                if (list.remove(i) != expected.remove(i)) {
+                    System.out.println("  remove(" + i + ") disagrees at step " + step);
+                    return false;
+                }
+            } else if (operation == 3) {
+                list.add(x);
+                expected.add(x);
+            } else if (operation == 4 && size > 0) {
+                int i = random.nextInt(size);
+                list.set(i, x);
+                expected.set(i, x);
+            } else if (operation == 5) {
+                int[] source = random.ints(MAX_BULK_LENGTH).toArray();
+                int offset = random.nextInt(source.length + 1);
+                int length = random.nextInt(source.length - offset + 1);
+                list.addAll(source, offset, length);
+                for (int j = offset; j < offset + length; j++) {
+                    expected.add(source[j]);
+                }
+            } else if (operation == 6 && size < MAX_BULK_SIZE) {
+                list.addAll(list);
+                expected.addAll(new ArrayList<>(expected));
+            } else if (operation == 7) {
+                int from = random.nextInt(size + 1);
+                int to = from + random.nextInt(Math.min(MAX_BULK_LENGTH, size - from) + 1);
+                list.removeRange(from, to);
+                expected.subList(from, to).clear();
+            } else if (operation == 8) {
+                list.trimToSize();
+            } else if (random.nextInt(100) == 0) {
+                list.clear();
+                expected.clear();
+            }
+
+            if (list.size() != expected.size() || list.isEmpty() != expected.isEmpty()) {
+                System.out.println("  size disagrees at step " + step + "\n" +
+                        "  expected: " + expected.size() + "\n" +
+                        "  returned: " + list.size());
+                return false;
+            }
+            if (step % FULL_CHECK_INTERVAL == 0 || operation >= 5) {
+                int[] actual = list.toArray();
+                for (int i = 0; i < expected.size(); i++) {
+                    if (actual[i] != expected.get(i) || list.get(i) != expected.get(i)) {
+                        System.out.println("  element " + i + " disagrees at step " + step + "\n" +
+                                "  expected: " + expected.get(i) + "\n" +
+                                "  returned: " + list.get(i));
+                        return false;
+                    }
+                }
+            }
+        }
+        return outOfBounds(() -> list.get(expected.size())) && outOfBounds(() -> list.add(expected.size() + 1, 0))
+                && outOfBounds(() -> list.addAll(new int[1], 1, 1));
+    }
+
+    /**
+     * 与testIntArrayList相同的操作序列，元素为随机的char
+     */
+    static boolean testCharArrayList() {
+        CharArrayList list = new CharArrayList();
+        List<Character> expected = new ArrayList<>();
+        Random random = new Random(SEED);
+        for (int step = 0; step < RANDOM_OPERATIONS; step++) {
+            int size = expected.size();
+            boolean growing = (step / PHASE_LENGTH) % 2 == 0;
+            int operation = random.nextInt(10);
+            char x = (char) random.nextInt(Character.MAX_VALUE + 1);
+            if (operation < 3 && (size == 0 || random.nextInt(10) < (growing ? 6 : 4))) {
+                int i = random.nextInt(size + 1);
+                list.add(i, x);
+                expected.add(i, x);
+            } else if (operation < 3) {
+                int i = random.nextInt(size);
+                if (list.remove(i) != expected.remove(i)) {
+                    System.out.println("  remove(" + i + ") disagrees at step " + step);
+                    return false;
+                }
+            } else if (operation == 3) {
+                list.add(x);
+                expected.add(x);
+            } else if (operation == 4 && size > 0) {
+                int i = random.nextInt(size);
+                list.set(i, x);
+                expected.set(i, x);
+            } else if (operation == 5) {
+                char[] source = new char[MAX_BULK_LENGTH];
+                for (int j = 0; j < source.length; j++) {
+                    source[j] = (char) random.nextInt(Character.MAX_VALUE + 1);
+                }
+                int offset = random.nextInt(source.length + 1);
+                int length = random.nextInt(source.length - offset + 1);
+                list.addAll(source, offset, length);
+                for (int j = offset; j < offset + length; j++) {
+                    expected.add(source[j]);
+                }
+            } else if (operation == 6 && size < MAX_BULK_SIZE) {
+                list.addAll(list);
+                expected.addAll(new ArrayList<>(expected));
+            } else if (operation == 7) {
+                int from = random.nextInt(size + 1);
+                int to = from + random.nextInt(Math.min(MAX_BULK_LENGTH, size - from) + 1);
+                list.removeRange(from, to);
+                expected.subList(from, to).clear();
+            } else if (operation == 8) {
+                list.trimToSize();
+            } else if (random.nextInt(100) == 0) {
+                list.clear();
+                expected.clear();
+            }
+
+            if (list.size() != expected.size() || list.isEmpty() != expected.isEmpty()) {
+                System.out.println("  size disagrees at step " + step + "\n" +
+                        "  expected: " + expected.size() + "\n" +
+                        "  returned: " + list.size());
+                return false;
+            }
+            if (step % FULL_CHECK_INTERVAL == 0 || operation >= 5) {
+                char[] actual = list.toArray();
+                for (int i = 0; i < expected.size(); i++) {
+                    if (actual[i] != expected.get(i) || list.get(i) != expected.get(i)) {
+                        System.out.println("  element " + i + " disagrees at step " + step + "\n" +
+                                "  expected: " + (int) expected.get(i) + "\n" +
+                                "  returned: " + (int) list.get(i));
+                        return false;
+                    }
+                }
+            }
+        }
+        return outOfBounds(() -> list.get(expected.size())) && outOfBounds(() -> list.add(expected.size() + 1, 'x'))
+                && outOfBounds(() -> list.addAll(new char[1], 1, 1));
+    }
+
+    /**
+     * 执行一次随机操作并与expected比较
+     * 插入和删除在随机位置、头部和尾部之间均匀选择，增长阶段插入多于删除，缩短阶段相反；
+     * 另外有一部分操作是从随机位置向前或向后顺序get一段，以及随机set
+     * @param step 操作序号，决定当前是增长阶段还是缩短阶段
+     * @return 结果是否一致
+     */
+    static boolean randomStep(SimpleList<Integer> list, List<Integer> expected, Random random, int step) {
+        int size = expected.size();
+        int operation = random.nextInt(10);
+        boolean growing = (step / PHASE_LENGTH) % 2 == 0;
+        if (operation < 6) {
+            boolean insert = size == 0 || random.nextInt(10) < (growing ? 6 : 4);
+            int where = random.nextInt(3);
+            if (insert) {
+                int i = where == 0 ? 0 : where == 1 ? size : random.nextInt(size + 1);
+                list.add(i, step);
+                expected.add(i, step);
+            } else {
+                int i = where == 0 ? 0 : where == 1 ? size - 1 : random.nextInt(size);
+                Integer removed = list.remove(i);
+                if (!expected.get(i).equals(removed)) {
+                    System.out.println("  remove(" + i + ") disagrees at step " + step + "\n" +
+                            "  expected: " + expected.get(i) + "\n" +
+                            "  returned: " + removed);
+                    return false;
+                }
+                expected.remove(i);
+            }
+        } else if (operation < 8) {
+            if (size > 0) {
+                int i = random.nextInt(size);
+                int length = 1 + random.nextInt(MAX_RUN_LENGTH);
+                int direction = random.nextBoolean() ? 1 : -1;
+                for (int j = i; j >= 0 && j < size && Math.abs(j - i) < length; j += direction) {
+                    if (!expected.get(j).equals(list.get(j))) {
+                        System.out.println("  get(" + j + ") disagrees at step " + step + "\n" +
+                                "  expected: " + expected.get(j) + "\n" +
+                                "  returned: " + list.get(j));
+                        return false;
+                    }
+                }
+            }
+        } else if (size > 0) {
+            int i = random.nextInt(size);
+            list.set(i, -step);
+            expected.set(i, -step);
+        }
+
+        if (list.size() != expected.size() || list.isEmpty() != expected.isEmpty()) {
+            System.out.println("  size disagrees at step " + step + "\n" +
+                    "  expected: " + expected.size() + "\n" +
+                    "  returned: " + list.size());
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 迭代、从前往后get、从后往前get都得到expected，越界的下标抛出IndexOutOfBoundsException
+     */
+    static <L extends SimpleList<Integer> & Iterable<Integer>> boolean sameElements(L list, List<Integer> expected) {
+        Iterator<Integer> iterator = list.iterator();
+        for (int i = 0; i < expected.size(); i++) {
+            if (!iterator.hasNext() || !expected.get(i).equals(iterator.next())) {
+                System.out.println("  iteration disagrees at index " + i);
+                return false;
+            }
+        }
+        if (iterator.hasNext()) {
+            System.out.println("  iteration returned more than " + expected.size() + " elements");
+            return false;
+        }
+        for (int i = 0; i < expected.size(); i++) {
+            if (!expected.get(i).equals(list.get(i))) {
+                System.out.println("  forward get(" + i + ") disagrees");
+                return false;
+            }
+        }
+        for (int i = expected.size() - 1; i >= 0; i--) {
+            if (!expected.get(i).equals(list.get(i))) {
+                System.out.println("  backward get(" + i + ") disagrees");
+                return false;
+            }
+        }
+        return outOfBounds(() -> list.get(-1)) && outOfBounds(() -> list.get(expected.size()))
+                && outOfBounds(() -> list.remove(expected.size()))
+                && outOfBounds(() -> list.add(expected.size() + 1, 0));
+    }
+
+    static boolean outOfBounds(Runnable operation) {
+        try {
+            operation.run();
+        } catch (IndexOutOfBoundsException e) {
+            return true;
+        }
+        System.out.println("  out-of-range index was accepted");
+        return false;
+    }
+}
@@ -0,0 +1,257 @@
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * @author YFCodeDream
+ * @version 1.0.0
+ * @date 2026/10/19
+ * @description 预训练的静态码表：在代表性语料上训练一次并保存到磁盘，
+ * 之后的每篇文档直接复用，无需在文档中附带码表
+ */
+public class StaticCodebook {
+    /**
+     * 转义符号，训练语料中未出现的字节以 转义编码 + 8位原始字节 的形式编码
+     */
+    public static final int ESCAPE = Codebook.ALPHABET_SIZE;
+
+    /**
+     * 转义编码之后还要拼接8位原始字节，展开后的编码仍要放进一个long
+     */
+    public static final int MAX_ESCAPE_LENGTH = Codebook.MAX_CODE_LENGTH - 8;
+
+    /**
+     * 码表文件的魔数，即"HUFS"
+     */
+    private static final int MAGIC = 0x48554653;
+
+    private static final byte VERSION = 1;
+
+    /**
+     * 包含转义符号在内的范式码表，共257个符号，文件中只保存它的码长
+     */
+    private final Codebook canonicalCodebook;
+
+    /**
+     * 编码用的256项码表，未出现的字节已经展开为 转义编码 + 8位原始字节
+     */
+    private final Codebook encodingCodebook;
+
+    /**
+     * 范式解码表：countPerLength[len]为码长为len的符号个数，
+     * sortedSymbols按(码长, 符号值)升序排列
+     */
+    private final int[] countPerLength;
+    private final int[] sortedSymbols;
+    private final int maxLength;
+
+    private StaticCodebook(Codebook canonicalCodebook) {
+        this.canonicalCodebook = canonicalCodebook;
+
+        byte[] lengths = canonicalCodebook.getLengths();
+        long[] codes = canonicalCodebook.getCodes();
+        if (lengths[ESCAPE] == 0) {
+            throw new IllegalArgumentException("static codebook must contain an escape codeword");
+        }
+        if (lengths[ESCAPE] > MAX_ESCAPE_LENGTH) {
+            throw new IllegalArgumentException("escape codeword of " + lengths[ESCAPE] + " bits is longer than "
+                    + MAX_ESCAPE_LENGTH);
+        }
+
+        // 将转义机制展开进编码表，编码时不需要任何分支
+        long[] encodingCodes = new long[Codebook.ALPHABET_SIZE];
+        byte[] encodingLengths = new byte[Codebook.ALPHABET_SIZE];
+        for (int symbol = 0; symbol < Codebook.ALPHABET_SIZE; symbol++) {
+            if (lengths[symbol] != 0) {
+                encodingCodes[symbol] = codes[symbol];
+                encodingLengths[symbol] = lengths[symbol];
+            } else {
+                encodingCodes[symbol] = (codes[ESCAPE] << 8) | symbol;
+                encodingLengths[symbol] = (byte) (lengths[ESCAPE] + 8);
+            }
+        }
+        encodingCodebook = new Codebook(encodingCodes, encodingLengths);
+
+        // 构建范式解码表
+        int max = 0;
+        for (byte length : lengths) {
+            max = Math.max(max, length);
+        }
+        maxLength = max;
+        countPerLength = new int[maxLength + 1];
+        int usedSymbols = 0;
+        for (byte length : lengths) {
+            if (length != 0) {
+                countPerLength[length] += 1;
+                usedSymbols += 1;
+            }
+        }
+        sortedSymbols = new int[usedSymbols];
+        int count = 0;
+        for (int len = 1; len <= maxLength; len++) {
+            for (int symbol = 0; symbol < lengths.length; symbol++) {
+                if (lengths[symbol] == len) {
+                    sortedSymbols[count] = symbol;
+                    count += 1;
+                }
+            }
+        }
+    }
+
+    /**
+     * 在语料上训练静态码表，转义符号的频率记为1
+     * @param corpus 代表性语料
+     * @return 静态码表
+     * @throws IOException 读取语料失败
+     */
+    public static StaticCodebook train(InputStream corpus) throws IOException {
+        long[] frequencies = new long[Codebook.ALPHABET_SIZE + 1];
+        byte[] buffer = new byte[8192];
+        int len;
+        while ((len = corpus.read(buffer)) != -1) {
+            for (int i = 0; i < len; i++) {
+                frequencies[buffer[i] & 0xFF] += 1;
+            }
+        }
+        frequencies[ESCAPE] = 1;
+        return new StaticCodebook(Codebook.fromFrequencies(frequencies));
+    }
+
+    /**
+     * 从码表文件中读取静态码表
+     * @param in 码表文件的输入流
+     * @return 静态码表
+     * @throws IOException 读取失败或文件格式不正确，包括码长超出范围、不构成前缀码或者转义编码过长
+     */
+    public static StaticCodebook load(InputStream in) throws IOException {
+        DataInputStream dataIn = new DataInputStream(in);
+        if (dataIn.readInt() != MAGIC) {
+            throw new IOException("not a static codebook file");
+        }
+        byte version = dataIn.readByte();
+        if (version != VERSION) {
+            throw new IOException("unsupported static codebook version: " + version);
+        }
+        int symbolCount = dataIn.readUnsignedShort();
+        if (symbolCount != Codebook.ALPHABET_SIZE + 1) {
+            throw new IOException("unexpected alphabet size: " + symbolCount);
+        }
+        byte[] lengths = new byte[symbolCount];
+        dataIn.readFully(lengths);
+        try {
+            return new StaticCodebook(Codebook.canonical(lengths));
+        } catch (IllegalArgumentException e) {
+            throw new IOException("invalid static codebook: " + e.getMessage(), e);
+        }
+    }
+
+    public static StaticCodebook load(Path path) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(path))) {
+            return load(in);
+        }
+    }
+
+    /**
+     * 保存静态码表，范式编码只需保存每个符号的码长
+     * 格式：魔数(4字节) 版本(1字节) 符号数(2字节) 码长(每个符号1字节)
+     * @param out 输出流
+     * @throws IOException 写入失败
+     */
+    public void save(OutputStream out) throws IOException {
+        DataOutputStream dataOut = new DataOutputStream(out);
+        byte[] lengths = canonicalCodebook.getLengths();
+        dataOut.writeInt(MAGIC);
+        dataOut.writeByte(VERSION);
+        dataOut.writeShort(lengths.length);
+        dataOut.write(lengths);
+        dataOut.flush();
+    }
+
+    public void save(Path path) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path))) {
+            save(out);
+        }
+    }
+
+    /**
+     * 包含转义符号的范式码表
+     * @return 范式码表
+     */
+    public Codebook getCanonicalCodebook() {
+        return canonicalCodebook;
+    }
+
+    /**
+     * 编码用的码表，任意字节都有编码
+     * @return 编码用的码表
+     */
+    public Codebook getEncodingCodebook() {
+        return encodingCodebook;
+    }
+
+    /**
+     * 编码一篇文档，不附带任何头部信息
+     * @param data 待编码的字节
+     * @return 编码后的位流
+     */
+    public byte[] encode(byte[] data) {
+        return encodingCodebook.encode(data);
+    }
+
+    /**
+     * 解码一篇文档
+     * @param encoded 编码后的位流
+     * @param length 原文的字节数
+     * @return 原文
+     */
+    public byte[] decode(byte[] encoded, int length) {
+        byte[] decoded = new byte[length];
+        long bitPos = 0;
+
+        for (int i = 0; i < length; i++) {
+            // 范式解码：逐位读取，比较当前码长下的编码区间
+            long code = 0;
+            long first = 0;
+            int index = 0;
+            int symbol = -1;
+            for (int len = 1; len <= maxLength; len++) {
+                code |= readBit(encoded, bitPos);
+                bitPos += 1;
+                int count = countPerLength[len];
+                if (code - first < count) {
+                    symbol = sortedSymbols[index + (int) (code - first)];
+                    break;
+                }
+                index += count;
+                first = (first + count) << 1;
+                code <<= 1;
+            }
+
+            if (symbol < 0) {
+                throw new IllegalArgumentException("invalid codeword at bit " + bitPos);
+            }
+
+            if (symbol == ESCAPE) {
+                // 转义符号之后紧跟8位原始字节
+                int raw = 0;
+                for (int bit = 0; bit < 8; bit++) {
+                    raw = (raw << 1) | readBit(encoded, bitPos);
+                    bitPos += 1;
+                }
+                symbol = raw;
+            }
+
+            decoded[i] = (byte) symbol;
+        }
+
+        return decoded;
+    }
+
+    private static int readBit(byte[] encoded, long bitPos) {
+        int byteIndex = (int) (bitPos >>> 3);
+        if (byteIndex >= encoded.length) {
+            throw new IllegalArgumentException("encoded stream ended unexpectedly");
+        }
+        return (encoded[byteIndex] >>> (7 - (int) (bitPos & 7))) & 1;
+    }
+}
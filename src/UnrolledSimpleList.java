@@ -0,0 +1,317 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * @author YFCodeDream
+ * @version 1.0.0
+ * @date 2026/10/19
+ * @description 展开链表（unrolled linked list）
+ * 每个节点存放一个定长数组块，而不是单个元素：
+ * 每个元素只占数组中的一个引用，节点头和前后指针由整块元素分摊，遍历时也是连续访问数组；
+ * 块满时对半分裂，块过空时与相邻块合并，因此插入和删除只移动一个块内的元素。
+ * 与LinkedSimpleList一样缓存最近一次访问的块，在其附近的插入、删除和按下标访问不需要从头查找
+ */
+@SuppressWarnings("unchecked")
+public class UnrolledSimpleList<T> implements SimpleList<T>, Iterable<T> {
+    public static final int DEFAULT_CHUNK_CAPACITY = 64;
+
+    private final int chunkCapacity;
+
+    private int size;
+
+    // 链表中至少有一个块，空链表的头部和尾部是同一个空块
+    private Chunk head;
+
+    private Chunk tail;
+
+    /**
+     * 最近一次访问的块及其第一个元素的下标，cursorChunk为null时缓存无效
+     */
+    private Chunk cursorChunk;
+
+    private int cursorStart;
+
+    public UnrolledSimpleList() {
+        this(DEFAULT_CHUNK_CAPACITY);
+    }
+
+    /**
+     * @param chunkCapacity 每个块的容量，至少为2
+     */
+    public UnrolledSimpleList(int chunkCapacity) {
+        if (chunkCapacity < 2) {
+            throw new IllegalArgumentException("chunkCapacity must be at least 2");
+        }
+        this.chunkCapacity = chunkCapacity;
+        head = new Chunk();
+        tail = head;
+        size = 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public T get(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        Chunk chunk = locate(i);
+        return (T) chunk.items[i - cursorStart];
+    }
+
+    @Override
+    public void set(int i, T x) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        Chunk chunk = locate(i);
+        chunk.items[i - cursorStart] = x;
+    }
+
+    /**
+     * 在下标i处插入元素，所在的块已满时先对半分裂
+     * 在尾部追加时直接新建一个块，顺序追加的块都是满的
+     * @param i the index of the element to be added
+     * @param x the element to be added at index <code>i</code>
+     */
+    @Override
+    public void add(int i, T x) {
+        if (i < 0 || i > size) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        Chunk chunk;
+        int start;
+        if (i == size) {
+            chunk = tail;
+            start = size - tail.count;
+        } else {
+            chunk = locate(i);
+            start = cursorStart;
+        }
+        int offset = i - start;
+
+        if (chunk.count == chunkCapacity) {
+            if (offset == chunkCapacity) {
+                linkAfter(chunk, new Chunk());
+            } else {
+                split(chunk);
+            }
+            // 插入位置落在后一个块中
+            if (offset >= chunk.count) {
+                start += chunk.count;
+                offset -= chunk.count;
+                chunk = chunk.next;
+            }
+        }
+
+        System.arraycopy(chunk.items, offset, chunk.items, offset + 1, chunk.count - offset);
+        chunk.items[offset] = x;
+        chunk.count += 1;
+        size += 1;
+
+        cursorChunk = chunk;
+        cursorStart = start;
+    }
+
+    /**
+     * 删除下标i处的元素，所在的块少于半满时尝试与相邻的块合并
+     * @param i the index of the element to be removed
+     * @return 被删除的元素
+     */
+    @Override
+    public T remove(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        Chunk chunk = locate(i);
+        int start = cursorStart;
+        int offset = i - start;
+
+        T removedValue = (T) chunk.items[offset];
+        System.arraycopy(chunk.items, offset + 1, chunk.items, offset, chunk.count - offset - 1);
+        chunk.count -= 1;
+        chunk.items[chunk.count] = null;
+        size -= 1;
+
+        if (chunk.count == 0 && head != tail) {
+            unlink(chunk);
+            cursorChunk = null;
+        } else if (chunk.count < chunkCapacity / 2) {
+            if (chunk.next != null && chunk.count + chunk.next.count <= chunkCapacity) {
+                mergeNext(chunk);
+            } else if (chunk.prev != null && chunk.prev.count + chunk.count <= chunkCapacity) {
+                Chunk prev = chunk.prev;
+                cursorStart = start - prev.count;
+                cursorChunk = prev;
+                mergeNext(prev);
+            }
+        }
+
+        return removedValue;
+    }
+
+    public int chunkCapacity() {
+        return chunkCapacity;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new UnrolledSimpleListItr();
+    }
+
+    /**
+     * 数组块
+     */
+    private class Chunk {
+        final Object[] items = new Object[chunkCapacity];
+
+        int count;
+
+        Chunk prev;
+
+        Chunk next;
+    }
+
+    private class UnrolledSimpleListItr implements Iterator<T> {
+        private Chunk currentChunk = head;
+
+        private int offset = 0;
+
+        @Override
+        public boolean hasNext() {
+            while (offset == currentChunk.count && currentChunk.next != null) {
+                currentChunk = currentChunk.next;
+                offset = 0;
+            }
+            return offset < currentChunk.count;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            T currentValue = (T) currentChunk.items[offset];
+            offset += 1;
+            return currentValue;
+        }
+    }
+
+    /**
+     * 辅助方法，找到下标i所在的块，并将其记录为缓存的块
+     * 从头部、尾部和缓存的块中离i最近的一个出发，按块跳转
+     * @param i 索引值，调用方保证 0 <= i < size
+     * @return 下标i所在的块，其第一个元素的下标记录在cursorStart中
+     */
+    private Chunk locate(int i) {
+        Chunk chunk;
+        int start;
+
+        if (i < size - i) {
+            chunk = head;
+            start = 0;
+        } else {
+            chunk = tail;
+            start = size - tail.count;
+        }
+        if (cursorChunk != null && Math.abs(i - cursorStart) < Math.min(i, size - i)) {
+            chunk = cursorChunk;
+            start = cursorStart;
+        }
+
+        while (i >= start + chunk.count) {
+            start += chunk.count;
+            chunk = chunk.next;
+        }
+        while (i < start) {
+            chunk = chunk.prev;
+            start -= chunk.count;
+        }
+
+        cursorChunk = chunk;
+        cursorStart = start;
+        return chunk;
+    }
+
+    /**
+     * 将满块的后一半移到紧随其后的新块中
+     */
+    private void split(Chunk chunk) {
+        Chunk newChunk = new Chunk();
+        int half = chunk.count / 2;
+        int moved = chunk.count - half;
+        System.arraycopy(chunk.items, half, newChunk.items, 0, moved);
+        for (int j = half; j < chunk.count; j++) {
+            chunk.items[j] = null;
+        }
+        newChunk.count = moved;
+        chunk.count = half;
+        linkAfter(chunk, newChunk);
+    }
+
+    /**
+     * 将后继块的元素全部并入当前块，并摘下后继块
+     */
+    private void mergeNext(Chunk chunk) {
+        Chunk next = chunk.next;
+        System.arraycopy(next.items, 0, chunk.items, chunk.count, next.count);
+        chunk.count += next.count;
+        unlink(next);
+    }
+
+    private void linkAfter(Chunk chunk, Chunk newChunk) {
+        newChunk.prev = chunk;
+        newChunk.next = chunk.next;
+        if (chunk.next == null) {
+            tail = newChunk;
+        } else {
+            chunk.next.prev = newChunk;
+        }
+        chunk.next = newChunk;
+    }
+
+    private void unlink(Chunk chunk) {
+        if (chunk.prev == null) {
+            head = chunk.next;
+        } else {
+            chunk.prev.next = chunk.next;
+        }
+        if (chunk.next == null) {
+            tail = chunk.prev;
+        } else {
+            chunk.next.prev = chunk.prev;
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder resStr = new StringBuilder();
+        resStr.append("UnrolledSimpleList: {\n");
+        int index = 0;
+        for (Chunk chunk = head; chunk != null; chunk = chunk.next) {
+            resStr.append("\t").append("chunk ").append(index).append(": [");
+            for (int j = 0; j < chunk.count; j++) {
+                if (j > 0) {
+                    resStr.append(", ");
+                }
+                resStr.append(chunk.items[j]);
+            }
+            resStr.append("]\n");
+            index += 1;
+        }
+        resStr.append("}");
+        return resStr.toString();
+    }
+}